@@ -22,11 +22,15 @@ import org.jboss.arquillian.container.spi.client.container.ContainerConfiguratio
 import java.io.File;
 import java.io.IOException;
 import java.io.StringReader;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
 import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 import java.util.stream.Collectors;
 
 /**
@@ -38,6 +42,14 @@ import java.util.stream.Collectors;
  * @author Alex Soto
  */
 public abstract class AbstractJettyEmbeddedConfiguration implements ContainerConfiguration {
+    /**
+     * The default {@link #getWebInfIncludeJarPattern()}: every {@code WEB-INF/lib} jar but the test infrastructure
+     * Arquillian adds to each deployment, that is its own jars other than the protocol (which registers its servlet
+     * through a {@code web-fragment.xml}), JUnit, Hamcrest and ShrinkWrap.
+     */
+    public static final String DEFAULT_WEBINF_INCLUDE_JAR_PATTERN =
+        ".*/(?!arquillian-(?!.*protocol)|junit|hamcrest|shrinkwrap)[^/]*\\.jar(?:!/)?";
+
     private String bindAddress = "localhost";
 
     private int bindHttpPort = 9090;
@@ -68,6 +80,43 @@ public abstract class AbstractJettyEmbeddedConfiguration implements ContainerCon
 
     private boolean h2cEnabled;
 
+    /**
+     * Offer HTTP/2 to TLS clients through ALPN, next to HTTP/1.1. Requires {@code ssl} and, at runtime,
+     * {@code org.eclipse.jetty:jetty-alpn-java-server} on the class path.
+     */
+    private boolean h2Enabled;
+
+    /**
+     * Maximum number of concurrent HTTP/2 streams per connection, 0 for Jetty's default.
+     */
+    private int http2MaxConcurrentStreams;
+
+    /**
+     * Initial HTTP/2 receive window of a connection, in bytes, 0 for Jetty's default.
+     */
+    private int http2InitialSessionRecvWindow;
+
+    /**
+     * Initial HTTP/2 receive window of a stream, in bytes, 0 for Jetty's default.
+     */
+    private int http2InitialStreamRecvWindow;
+
+    /**
+     * Capacity of the HPACK dynamic tables of the encoder and the decoder, in bytes, 0 for Jetty's default.
+     */
+    private int http2HpackTableCapacity;
+
+    /**
+     * Maximum HTTP/2 frame size, in bytes, 0 for Jetty's default.
+     */
+    private int http2MaxFrameSize;
+
+    /**
+     * Maximum number of suspicious HTTP/2 events, such as empty or control frames, tolerated per second and connection,
+     * 0 for Jetty's default.
+     */
+    private int http2RateControlMaxEventsPerSecond;
+
     /**
      * Path to keystore file
      */
@@ -87,6 +136,210 @@ public abstract class AbstractJettyEmbeddedConfiguration implements ContainerCon
 
     private boolean crossContextDispatchSupported;
 
+    /**
+     * Write the deployment as an exploded webapp directory instead of a WAR file that Jetty extracts again.
+     */
+    private boolean exportExploded;
+
+    /**
+     * Keep the exploded webapp directory of an archive between deployments and only write the entries that changed since
+     * the previous export of an archive with the same name.
+     */
+    private boolean exportIncremental;
+
+    /**
+     * Maximum size, in megabytes, of the content addressed cache of exploded deployments. Deployments with unchanged
+     * content are then served from the cache instead of being exported again. Disabled by default.
+     */
+    private int deploymentCacheMaxSizeMb;
+
+    /**
+     * Directory into which deployments are exported. Defaults to {@code target/arquillian-jetty-temp} when running
+     * under Maven and to {@code java.io.tmpdir} otherwise.
+     */
+    private String exportDirectory;
+
+    /**
+     * Export to a RAM backed file system ({@code /dev/shm}) when one is present and no export directory is configured.
+     * Off by default: files on the RAM disk outlive the JVM and take memory until deleted, so it is best combined with
+     * {@code deleteExportOnUndeploy}.
+     */
+    private boolean exportToRamDisk;
+
+    /**
+     * Delete exported archives and webapp directories in the background once they are undeployed.
+     */
+    private boolean deleteExportOnUndeploy;
+
+    /**
+     * Disk space, in megabytes, that undeployed exports may take while waiting for deletion. Beyond it, undeploy waits
+     * for the background deletion to catch up.
+     */
+    private int exportDeletionBudgetMb = 1024;
+
+    /**
+     * Export WAR files with the {@link ParallelZipExporter}, which compresses entries concurrently but supports neither
+     * ZIP64 nor more than 65535 entries. ShrinkWrap's exporter is used by default.
+     */
+    private boolean parallelZipExport;
+
+    /**
+     * How entries of WAR files exported in parallel are written, {@code DEFLATED} or {@code STORED}.
+     */
+    private ParallelZipExporter.Compression exportCompression = ParallelZipExporter.Compression.DEFLATED;
+
+    /**
+     * Number of threads compressing the entries of exported WAR files, defaults to the number of processors.
+     */
+    private int exportThreads;
+
+    /**
+     * Link the libraries of exploded exports from a content addressed jar store, so each distinct jar is written once.
+     */
+    private boolean jarStoreEnabled;
+
+    /**
+     * Maximum size, in megabytes, of the jar store. The least recently linked jars are pruned beyond it, {@code 0} keeps
+     * every stored jar.
+     */
+    private int jarStoreMaxSizeMb = 1024;
+
+    /**
+     * Regular expression matched against the file names of {@code WEB-INF/lib} jars which are loaded once, by a class
+     * loader shared by all deployments, rather than by the class loader of every webapp. Shared jars are left out of the
+     * webapp class path, so they are loaded by the shared class loader with either class loader behavior. A deployment
+     * bringing a different jar with classes in the packages of a shared one, such as another version of it, is deployed
+     * with a class loader of its own instead, and a warning is logged.
+     */
+    private Pattern sharedLibraries;
+
+    /**
+     * Also share {@code WEB-INF/lib} jars found with identical content in more than one deployment.
+     */
+    private boolean shareIdenticalLibraries;
+
+    /**
+     * Share one running server among the containers of the JVM with the same server configuration, only deploying and
+     * undeploying the test archives. The server is stopped with the last container using it, and a context path can
+     * only be deployed by one of the containers at a time.
+     */
+    private boolean reuseServer;
+
+    /**
+     * Start a second, warmed up server in the background while the container runs, which the next start of a container
+     * with the same server configuration takes over. Requires {@code bindHttpPort} 0, as both servers run side by side.
+     */
+    private boolean standbyServer;
+
+    /**
+     * How long, in milliseconds, a standby server waits for the next container start once the container that prepared
+     * it stopped. It is stopped if no container takes it over in time.
+     */
+    private long standbyServerTimeoutMillis = 10_000;
+
+    /**
+     * Number of the deployments of a test class exported, configured and started at the same time. With 1, the default,
+     * archives are deployed one after the other; otherwise the deployments of the container still to come are started
+     * in the background once the first is deployed, so they must not depend on being started in {@code @Deployment}
+     * order.
+     */
+    private int deploymentConcurrency = 1;
+
+    /**
+     * Minimum number of threads of the server's thread pool.
+     */
+    private int minThreads = 8;
+
+    /**
+     * Maximum number of threads of the server's thread pool, acceptors and selectors included.
+     */
+    private int maxThreads = 200;
+
+    /**
+     * Number of threads the thread pool keeps reserved for immediate execution, -1 to derive it from the pool size.
+     */
+    private int reservedThreads = -1;
+
+    /**
+     * Number of acceptor threads of the connector, -1 to derive it from the number of processors.
+     */
+    private int acceptors = -1;
+
+    /**
+     * Number of selectors of the connector, -1 to derive it from the number of processors.
+     */
+    private int selectors = -1;
+
+    /**
+     * Backlog of connections waiting to be accepted, 0 for the operating system default.
+     */
+    private int acceptQueueSize;
+
+    private boolean reuseAddress = true;
+
+    private boolean acceptedTcpNoDelay = true;
+
+    /**
+     * Add an in-memory connector, through which client tests can send requests with a {@link LocalHttpClient}.
+     */
+    private boolean localConnectorEnabled;
+
+    /**
+     * Compress responses with gzip, for clients that accept it.
+     */
+    private boolean compressionEnabled;
+
+    /**
+     * Minimum size, in bytes, of responses that are compressed, 0 for Jetty's default.
+     */
+    private int compressionMinSize;
+
+    /**
+     * Comma separated MIME types of the responses that are compressed, all but Jetty's default exclusions if not set.
+     */
+    private String compressionMimeTypes;
+
+    /**
+     * Number of deflaters kept for reuse, 0 for Jetty's default.
+     */
+    private int compressionDeflaterPoolCapacity;
+
+    /**
+     * Deflater compression level from 0 to 9, -1 for the default level.
+     */
+    private int compressionLevel = -1;
+
+    /**
+     * Start deployments from the {@code quickstart-web.xml} Jetty's quickstart module generated for the same archive
+     * content earlier, instead of scanning annotations and descriptors. Requires an exploded export outside of the
+     * deployment cache, as the descriptor is generated into the webapp directory.
+     */
+    private boolean quickstart;
+
+    /**
+     * Replay the annotation scans of library jars scanned before, keyed by jar content, instead of parsing them again.
+     */
+    private boolean annotationScanCacheEnabled;
+
+    /**
+     * Jetty's {@code ContainerIncludeJarPattern}: regular expressions, separated by commas, matched against the URIs of
+     * the container class path jars which are scanned like webapp libraries. None are scanned if not set.
+     */
+    private String containerIncludeJarPattern;
+
+    /**
+     * Jetty's {@code WebInfIncludeJarPattern}: regular expressions, separated by commas, matched against the URIs of the
+     * {@code WEB-INF/lib} jars which are scanned for annotations, fragments and {@code META-INF} resources. An empty
+     * value scans every jar.
+     */
+    private String webInfIncludeJarPattern = DEFAULT_WEBINF_INCLUDE_JAR_PATTERN;
+
+    /**
+     * Jetty's {@code containerInitializerExclusionPattern}: regular expression matched against the class names of the
+     * {@code ServletContainerInitializer}s which are not run.
+     */
+    private String containerInitializerExclusionPattern;
+
     /*
      * (non-Javadoc)
      *
@@ -102,6 +355,78 @@ public abstract class AbstractJettyEmbeddedConfiguration implements ContainerCon
                 throw new ConfigurationException("Realm Properties should be a file and not a directory");
             }
         }
+        if (this.deploymentCacheMaxSizeMb < 0) {
+            throw new ConfigurationException("deploymentCacheMaxSizeMb must not be negative");
+        }
+        if (this.jarStoreMaxSizeMb < 0) {
+            throw new ConfigurationException("jarStoreMaxSizeMb must not be negative");
+        }
+        if (this.exportDeletionBudgetMb < 0) {
+            throw new ConfigurationException("exportDeletionBudgetMb must not be negative");
+        }
+        if (this.exportThreads < 0) {
+            throw new ConfigurationException("exportThreads must not be negative");
+        }
+        if (this.deploymentConcurrency < 1) {
+            throw new ConfigurationException("deploymentConcurrency must be positive");
+        }
+        if (this.standbyServer && this.bindHttpPort != 0) {
+            throw new ConfigurationException("standbyServer requires bindHttpPort 0, the standby server runs alongside");
+        }
+        if (this.standbyServerTimeoutMillis < 0) {
+            throw new ConfigurationException("standbyServerTimeoutMillis must not be negative");
+        }
+        if (this.h2Enabled && !this.ssl) {
+            throw new ConfigurationException("h2Enabled requires ssl, use h2cEnabled for HTTP/2 without TLS");
+        }
+        if (this.http2MaxConcurrentStreams < 0 || this.http2InitialSessionRecvWindow < 0
+            || this.http2InitialStreamRecvWindow < 0 || this.http2HpackTableCapacity < 0
+            || this.http2RateControlMaxEventsPerSecond < 0) {
+            throw new ConfigurationException("HTTP/2 settings must not be negative");
+        }
+        if (this.http2MaxFrameSize != 0 && (this.http2MaxFrameSize < 16384 || this.http2MaxFrameSize > 16777215)) {
+            throw new ConfigurationException(String.format(
+                "http2MaxFrameSize must be between 16384 and 16777215 but %d has been found.", this.http2MaxFrameSize));
+        }
+        if (this.compressionMinSize < 0 || this.compressionDeflaterPoolCapacity < 0) {
+            throw new ConfigurationException("compressionMinSize and compressionDeflaterPoolCapacity must not be negative");
+        }
+        if (this.compressionLevel < -1 || this.compressionLevel > 9) {
+            throw new ConfigurationException(String.format(
+                "compressionLevel should be between -1 and 9 but %d has been found.", this.compressionLevel));
+        }
+        if (this.quickstart && !this.exportExploded && !this.exportIncremental) {
+            throw new ConfigurationException("quickstart requires an exploded export, set exportExploded or exportIncremental");
+        }
+        if (this.quickstart && isDeploymentCacheEnabled()) {
+            // the descriptor would be generated into cache entries shared by other deployments
+            throw new ConfigurationException("quickstart cannot be combined with deploymentCacheMaxSizeMb");
+        }
+        if (this.minThreads < 0) {
+            throw new ConfigurationException("minThreads must not be negative");
+        }
+        if (this.maxThreads < 1 || this.maxThreads < this.minThreads) {
+            throw new ConfigurationException(
+                String.format("maxThreads must be positive and at least minThreads %d but %d has been found.",
+                    this.minThreads, this.maxThreads));
+        }
+        if (this.reservedThreads < -1 || this.reservedThreads >= this.maxThreads) {
+            throw new ConfigurationException("reservedThreads must be -1 or less than maxThreads");
+        }
+        if (this.acceptors < -1) {
+            throw new ConfigurationException("acceptors must be -1 or not negative");
+        }
+        if (this.selectors < -1 || this.selectors == 0) {
+            throw new ConfigurationException("selectors must be -1 or positive");
+        }
+        if (this.acceptors >= 0 && this.selectors > 0 && this.acceptors + this.selectors >= this.maxThreads) {
+            throw new ConfigurationException(
+                String.format("maxThreads %d leaves no threads for requests next to %d acceptors and %d selectors.",
+                    this.maxThreads, this.acceptors, this.selectors));
+        }
+        if (this.acceptQueueSize < 0) {
+            throw new ConfigurationException("acceptQueueSize must not be negative");
+        }
     }
 
     public int getBindHttpPort() {
@@ -293,6 +618,62 @@ public abstract class AbstractJettyEmbeddedConfiguration implements ContainerCon
         this.h2cEnabled = h2cEnabled;
     }
 
+    public boolean isH2Enabled() {
+        return h2Enabled;
+    }
+
+    public void setH2Enabled(boolean h2Enabled) {
+        this.h2Enabled = h2Enabled;
+    }
+
+    public int getHttp2MaxConcurrentStreams() {
+        return http2MaxConcurrentStreams;
+    }
+
+    public void setHttp2MaxConcurrentStreams(int http2MaxConcurrentStreams) {
+        this.http2MaxConcurrentStreams = http2MaxConcurrentStreams;
+    }
+
+    public int getHttp2InitialSessionRecvWindow() {
+        return http2InitialSessionRecvWindow;
+    }
+
+    public void setHttp2InitialSessionRecvWindow(int http2InitialSessionRecvWindow) {
+        this.http2InitialSessionRecvWindow = http2InitialSessionRecvWindow;
+    }
+
+    public int getHttp2InitialStreamRecvWindow() {
+        return http2InitialStreamRecvWindow;
+    }
+
+    public void setHttp2InitialStreamRecvWindow(int http2InitialStreamRecvWindow) {
+        this.http2InitialStreamRecvWindow = http2InitialStreamRecvWindow;
+    }
+
+    public int getHttp2HpackTableCapacity() {
+        return http2HpackTableCapacity;
+    }
+
+    public void setHttp2HpackTableCapacity(int http2HpackTableCapacity) {
+        this.http2HpackTableCapacity = http2HpackTableCapacity;
+    }
+
+    public int getHttp2MaxFrameSize() {
+        return http2MaxFrameSize;
+    }
+
+    public void setHttp2MaxFrameSize(int http2MaxFrameSize) {
+        this.http2MaxFrameSize = http2MaxFrameSize;
+    }
+
+    public int getHttp2RateControlMaxEventsPerSecond() {
+        return http2RateControlMaxEventsPerSecond;
+    }
+
+    public void setHttp2RateControlMaxEventsPerSecond(int http2RateControlMaxEventsPerSecond) {
+        this.http2RateControlMaxEventsPerSecond = http2RateControlMaxEventsPerSecond;
+    }
+
     public Map<String, String> getHttpConfigurationProperties() {
         return httpConfigurationProperties;
     }
@@ -321,5 +702,348 @@ public abstract class AbstractJettyEmbeddedConfiguration implements ContainerCon
     public void setCrossContextDispatchSupported(boolean crossContextDispatchSupported) {
         this.crossContextDispatchSupported = crossContextDispatchSupported;
     }
+
+    public boolean isExportExploded() {
+        return exportExploded;
+    }
+
+    public void setExportExploded(boolean exportExploded) {
+        this.exportExploded = exportExploded;
+    }
+
+    public boolean isExportIncremental() {
+        return exportIncremental;
+    }
+
+    public void setExportIncremental(boolean exportIncremental) {
+        this.exportIncremental = exportIncremental;
+    }
+
+    public int getDeploymentCacheMaxSizeMb() {
+        return deploymentCacheMaxSizeMb;
+    }
+
+    public boolean isDeploymentCacheEnabled() {
+        return deploymentCacheMaxSizeMb > 0;
+    }
+
+    public void setDeploymentCacheMaxSizeMb(int deploymentCacheMaxSizeMb) {
+        this.deploymentCacheMaxSizeMb = deploymentCacheMaxSizeMb;
+    }
+
+    public String getExportDirectory() {
+        return exportDirectory;
+    }
+
+    public void setExportDirectory(String exportDirectory) {
+        this.exportDirectory = exportDirectory;
+    }
+
+    public boolean isExportToRamDisk() {
+        return exportToRamDisk;
+    }
+
+    public void setExportToRamDisk(boolean exportToRamDisk) {
+        this.exportToRamDisk = exportToRamDisk;
+    }
+
+    public boolean isDeleteExportOnUndeploy() {
+        return deleteExportOnUndeploy;
+    }
+
+    public void setDeleteExportOnUndeploy(boolean deleteExportOnUndeploy) {
+        this.deleteExportOnUndeploy = deleteExportOnUndeploy;
+    }
+
+    public int getExportDeletionBudgetMb() {
+        return exportDeletionBudgetMb;
+    }
+
+    public void setExportDeletionBudgetMb(int exportDeletionBudgetMb) {
+        this.exportDeletionBudgetMb = exportDeletionBudgetMb;
+    }
+
+    public boolean isParallelZipExport() {
+        return parallelZipExport;
+    }
+
+    public void setParallelZipExport(boolean parallelZipExport) {
+        this.parallelZipExport = parallelZipExport;
+    }
+
+    public ParallelZipExporter.Compression getExportCompression() {
+        return exportCompression;
+    }
+
+    public void setExportCompression(String exportCompression) {
+        try {
+            this.exportCompression = ParallelZipExporter.Compression.valueOf(exportCompression.trim().toUpperCase(Locale.ENGLISH));
+        } catch (IllegalArgumentException e) {
+            throw new ConfigurationException(String.format(
+                "exportCompression should be one of %s but %s has been found.",
+                Arrays.toString(ParallelZipExporter.Compression.values()), exportCompression));
+        }
+    }
+
+    public int getExportThreads() {
+        return exportThreads > 0 ? exportThreads : Runtime.getRuntime().availableProcessors();
+    }
+
+    public void setExportThreads(int exportThreads) {
+        this.exportThreads = exportThreads;
+    }
+
+    public boolean isJarStoreEnabled() {
+        return jarStoreEnabled;
+    }
+
+    public void setJarStoreEnabled(boolean jarStoreEnabled) {
+        this.jarStoreEnabled = jarStoreEnabled;
+    }
+
+    public int getJarStoreMaxSizeMb() {
+        return jarStoreMaxSizeMb;
+    }
+
+    public void setJarStoreMaxSizeMb(int jarStoreMaxSizeMb) {
+        this.jarStoreMaxSizeMb = jarStoreMaxSizeMb;
+    }
+
+    public Pattern getSharedLibraries() {
+        return sharedLibraries;
+    }
+
+    public void setSharedLibraries(String sharedLibraries) {
+        try {
+            this.sharedLibraries = sharedLibraries == null || sharedLibraries.trim().isEmpty()
+                ? null
+                : Pattern.compile(sharedLibraries.trim());
+        } catch (PatternSyntaxException e) {
+            throw new ConfigurationException(String.format(
+                "sharedLibraries should be a regular expression but %s has been found.", sharedLibraries), e);
+        }
+    }
+
+    public boolean isShareIdenticalLibraries() {
+        return shareIdenticalLibraries;
+    }
+
+    public void setShareIdenticalLibraries(boolean shareIdenticalLibraries) {
+        this.shareIdenticalLibraries = shareIdenticalLibraries;
+    }
+
+    public boolean isSharedLibrariesEnabled() {
+        return sharedLibraries != null || shareIdenticalLibraries;
+    }
+
+    public boolean isReuseServer() {
+        return reuseServer;
+    }
+
+    public void setReuseServer(boolean reuseServer) {
+        this.reuseServer = reuseServer;
+    }
+
+    public boolean isStandbyServer() {
+        return standbyServer;
+    }
+
+    public void setStandbyServer(boolean standbyServer) {
+        this.standbyServer = standbyServer;
+    }
+
+    public long getStandbyServerTimeoutMillis() {
+        return standbyServerTimeoutMillis;
+    }
+
+    public void setStandbyServerTimeoutMillis(long standbyServerTimeoutMillis) {
+        this.standbyServerTimeoutMillis = standbyServerTimeoutMillis;
+    }
+
+    public int getDeploymentConcurrency() {
+        return deploymentConcurrency;
+    }
+
+    public void setDeploymentConcurrency(int deploymentConcurrency) {
+        this.deploymentConcurrency = deploymentConcurrency;
+    }
+
+    public int getMinThreads() {
+        return minThreads;
+    }
+
+    public void setMinThreads(int minThreads) {
+        this.minThreads = minThreads;
+    }
+
+    public int getMaxThreads() {
+        return maxThreads;
+    }
+
+    public void setMaxThreads(int maxThreads) {
+        this.maxThreads = maxThreads;
+    }
+
+    public int getReservedThreads() {
+        return reservedThreads;
+    }
+
+    public void setReservedThreads(int reservedThreads) {
+        this.reservedThreads = reservedThreads;
+    }
+
+    public int getAcceptors() {
+        return acceptors;
+    }
+
+    public void setAcceptors(int acceptors) {
+        this.acceptors = acceptors;
+    }
+
+    public int getSelectors() {
+        return selectors;
+    }
+
+    public void setSelectors(int selectors) {
+        this.selectors = selectors;
+    }
+
+    public int getAcceptQueueSize() {
+        return acceptQueueSize;
+    }
+
+    public void setAcceptQueueSize(int acceptQueueSize) {
+        this.acceptQueueSize = acceptQueueSize;
+    }
+
+    public boolean isReuseAddress() {
+        return reuseAddress;
+    }
+
+    public void setReuseAddress(boolean reuseAddress) {
+        this.reuseAddress = reuseAddress;
+    }
+
+    public boolean isAcceptedTcpNoDelay() {
+        return acceptedTcpNoDelay;
+    }
+
+    public void setAcceptedTcpNoDelay(boolean acceptedTcpNoDelay) {
+        this.acceptedTcpNoDelay = acceptedTcpNoDelay;
+    }
+
+    public boolean isLocalConnectorEnabled() {
+        return localConnectorEnabled;
+    }
+
+    public void setLocalConnectorEnabled(boolean localConnectorEnabled) {
+        this.localConnectorEnabled = localConnectorEnabled;
+    }
+
+    public boolean isCompressionEnabled() {
+        return compressionEnabled;
+    }
+
+    public void setCompressionEnabled(boolean compressionEnabled) {
+        this.compressionEnabled = compressionEnabled;
+    }
+
+    public int getCompressionMinSize() {
+        return compressionMinSize;
+    }
+
+    public void setCompressionMinSize(int compressionMinSize) {
+        this.compressionMinSize = compressionMinSize;
+    }
+
+    /**
+     * @return the MIME types of the responses that are compressed, {@code null} for Jetty's default
+     */
+    public String[] getCompressionMimeTypes() {
+        return compressionMimeTypes == null || compressionMimeTypes.trim().isEmpty() ? null
+            : compressionMimeTypes.trim().split("\\s*,\\s*");
+    }
+
+    public void setCompressionMimeTypes(String compressionMimeTypes) {
+        this.compressionMimeTypes = compressionMimeTypes;
+    }
+
+    public int getCompressionDeflaterPoolCapacity() {
+        return compressionDeflaterPoolCapacity;
+    }
+
+    public void setCompressionDeflaterPoolCapacity(int compressionDeflaterPoolCapacity) {
+        this.compressionDeflaterPoolCapacity = compressionDeflaterPoolCapacity;
+    }
+
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    public void setCompressionLevel(int compressionLevel) {
+        this.compressionLevel = compressionLevel;
+    }
+
+    public boolean isQuickstart() {
+        return quickstart;
+    }
+
+    public void setQuickstart(boolean quickstart) {
+        this.quickstart = quickstart;
+    }
+
+    public boolean isAnnotationScanCacheEnabled() {
+        return annotationScanCacheEnabled;
+    }
+
+    public void setAnnotationScanCacheEnabled(boolean annotationScanCacheEnabled) {
+        this.annotationScanCacheEnabled = annotationScanCacheEnabled;
+    }
+
+    public String getContainerIncludeJarPattern() {
+        return containerIncludeJarPattern;
+    }
+
+    public void setContainerIncludeJarPattern(String containerIncludeJarPattern) {
+        this.containerIncludeJarPattern = jarPattern("containerIncludeJarPattern", containerIncludeJarPattern);
+    }
+
+    public String getWebInfIncludeJarPattern() {
+        return webInfIncludeJarPattern;
+    }
+
+    public void setWebInfIncludeJarPattern(String webInfIncludeJarPattern) {
+        this.webInfIncludeJarPattern = jarPattern("webInfIncludeJarPattern", webInfIncludeJarPattern);
+    }
+
+    public String getContainerInitializerExclusionPattern() {
+        return containerInitializerExclusionPattern;
+    }
+
+    public void setContainerInitializerExclusionPattern(String containerInitializerExclusionPattern) {
+        this.containerInitializerExclusionPattern =
+            jarPattern("containerInitializerExclusionPattern", containerInitializerExclusionPattern);
+    }
+
+    /**
+     * Checks a pattern the way Jetty compiles it, as a whole and as comma separated parts.
+     *
+     * @return the trimmed pattern, {@code null} if blank
+     */
+    private static String jarPattern(String property, String pattern) {
+        if (pattern == null || pattern.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            Pattern.compile(pattern.trim());
+            for (String part : pattern.trim().split(",")) {
+                Pattern.compile(part);
+            }
+        } catch (PatternSyntaxException e) {
+            throw new ConfigurationException(String.format(
+                "%s should be a regular expression but %s has been found.", property, pattern), e);
+        }
+        return pattern.trim();
+    }
 }
 
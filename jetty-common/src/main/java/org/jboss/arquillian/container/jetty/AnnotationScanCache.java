@@ -0,0 +1,469 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat Middleware LLC, and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.arquillian.container.jetty;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * A content addressed cache of the results of Jetty's annotation scanning of library jars.
+ * <p>
+ * Scanning a jar reports every class it contains, its annotations and the annotations of its methods and fields to the
+ * scan handlers, such as those discovering {@code @WebServlet}, {@code @WebFilter} and {@code @WebListener} classes or
+ * the classes matching the {@code @HandlesTypes} of servlet container initializers. These reports are recorded by jar
+ * digest, so an unchanged jar, like the Arquillian protocol or Weld, is answered by replaying them instead of parsing its
+ * class files again. Members without annotations are not recorded, since no scan handler looks at them.
+ * <p>
+ * Entries are published with an atomic rename, so several JVMs, such as forked test runs, can share one cache directory.
+ */
+public class AnnotationScanCache {
+
+    private static final Logger log = Logger.getLogger(AnnotationScanCache.class.getName());
+
+    private static final Map<File, AnnotationScanCache> CACHES = new HashMap<>();
+
+    private static final int FORMAT = 0x4a534331;
+
+    private static final String ENTRY_SUFFIX = ".scan";
+
+    private final Path directory;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Jar digests by path, size and modification time, so jars shared by deployments are digested once
+     */
+    private final Map<String, String> keys = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong nanosSaved = new AtomicLong();
+
+    AnnotationScanCache(File directory) {
+        this.directory = directory.toPath();
+        try {
+            Files.createDirectories(this.directory);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not create annotation scan cache directory " + directory, e);
+        }
+    }
+
+    /**
+     * Returns the cache kept in the given directory, shared by all containers of the JVM.
+     *
+     * @param directory the directory holding the cache entries
+     * @return the cache
+     */
+    public static AnnotationScanCache forDirectory(File directory) {
+        synchronized (CACHES) {
+            return CACHES.computeIfAbsent(directory.getAbsoluteFile(), AnnotationScanCache::new);
+        }
+    }
+
+    /**
+     * @param jar the jar to scan
+     * @return the key of the jar content, including the Java version scanning multi-release jars depends on
+     * @throws IOException if the jar could not be read
+     */
+    public String key(Path jar) throws IOException {
+        final String id = jar.toAbsolutePath() + ":" + Files.size(jar) + ":" + Files.getLastModifiedTime(jar).toMillis();
+        String key = keys.get(id);
+        if (key == null) {
+            key = new ArchiveDigest().update(System.getProperty("java.specification.version"))
+                .update(JarDigest.of(jar)).toHex();
+            keys.put(id, key);
+        }
+        return key;
+    }
+
+    /**
+     * @param key the key of the jar content
+     * @return the recorded scan of the jar, or {@code null} if the jar has to be scanned
+     */
+    public Entry get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            entry = read(key);
+            if (entry != null) {
+                entries.put(key, entry);
+            }
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+        }
+        return entry;
+    }
+
+    /**
+     * Records the scan of a jar.
+     *
+     * @param key the key of the jar content
+     * @param recorder the reports of the scan
+     * @param scanNanos how long the scan took
+     */
+    public void put(String key, Recorder recorder, long scanNanos) {
+        final Entry entry = new Entry(new ArrayList<>(recorder.classes.values()), scanNanos);
+        entries.put(key, entry);
+        write(key, entry);
+    }
+
+    /**
+     * Accounts for a scan answered from the cache.
+     *
+     * @param entry the replayed entry
+     * @param replayNanos how long replaying the entry took
+     */
+    public void replayed(Entry entry, long replayNanos) {
+        nanosSaved.addAndGet(Math.max(0, entry.scanNanos - replayNanos));
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return the time saved by replaying recorded scans instead of parsing jars, in milliseconds
+     */
+    public long getTimeSavedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(nanosSaved.get());
+    }
+
+    @Override
+    public String toString() {
+        return "annotation scan cache " + directory + " [hits=" + getHits() + ", misses=" + getMisses()
+            + ", timeSavedMillis=" + getTimeSavedMillis() + "]";
+    }
+
+    private Entry read(String key) {
+        final Path file = directory.resolve(key + ENTRY_SUFFIX);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != FORMAT) {
+                return null;
+            }
+            final long scanNanos = in.readLong();
+            final int count = in.readInt();
+            final List<ScannedClass> classes = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                final ScannedClass scanned = new ScannedClass(in.readUTF(), in.readInt(), in.readInt(), readString(in),
+                    readString(in), readStrings(in));
+                Collections.addAll(scanned.annotations, readStrings(in));
+                readMembers(in, scanned.methods);
+                readMembers(in, scanned.fields);
+                classes.add(scanned);
+            }
+            return new Entry(classes, scanNanos);
+        } catch (IOException e) {
+            log.warning("Ignoring unreadable annotation scan cache entry " + file + ": " + e);
+            return null;
+        }
+    }
+
+    private void write(String key, Entry entry) {
+        final Path staging = directory.resolve(key + ".tmp-" + UUID.randomUUID());
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(staging)))) {
+                out.writeInt(FORMAT);
+                out.writeLong(entry.scanNanos);
+                out.writeInt(entry.classes.size());
+                for (ScannedClass scanned : entry.classes) {
+                    out.writeUTF(scanned.name);
+                    out.writeInt(scanned.version);
+                    out.writeInt(scanned.access);
+                    writeString(out, scanned.signature);
+                    writeString(out, scanned.superName);
+                    writeStrings(out, scanned.interfaces);
+                    writeStrings(out, scanned.annotations.toArray(new String[0]));
+                    writeMembers(out, scanned.methods);
+                    writeMembers(out, scanned.fields);
+                }
+            }
+            try {
+                Files.move(staging, directory.resolve(key + ENTRY_SUFFIX), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(staging, directory.resolve(key + ENTRY_SUFFIX), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            log.warning("Could not write annotation scan cache entry " + key + ": " + e);
+            try {
+                Files.deleteIfExists(staging);
+            } catch (IOException ignored) {
+                // left for the next run to overwrite
+            }
+        }
+    }
+
+    private static void readMembers(DataInputStream in, Map<String, ScannedMember> members) throws IOException {
+        final int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            final ScannedMember member = new ScannedMember(in.readUTF(), in.readInt(), readString(in), readString(in),
+                readStrings(in));
+            Collections.addAll(member.annotations, readStrings(in));
+            members.put(member.name + member.descriptor, member);
+        }
+    }
+
+    private static void writeMembers(DataOutputStream out, Map<String, ScannedMember> members) throws IOException {
+        out.writeInt(members.size());
+        for (ScannedMember member : members.values()) {
+            out.writeUTF(member.name);
+            out.writeInt(member.access);
+            writeString(out, member.descriptor);
+            writeString(out, member.signature);
+            writeStrings(out, member.exceptions);
+            writeStrings(out, member.annotations.toArray(new String[0]));
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String[] readStrings(DataInputStream in) throws IOException {
+        final int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        final String[] values = new String[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = readString(in);
+        }
+        return values;
+    }
+
+    private static void writeStrings(DataOutputStream out, String[] values) throws IOException {
+        out.writeInt(values == null ? -1 : values.length);
+        if (values != null) {
+            for (String value : values) {
+                writeString(out, value);
+            }
+        }
+    }
+
+    /**
+     * The recorded scan of a jar.
+     */
+    public static final class Entry {
+        private final List<ScannedClass> classes;
+        private final long scanNanos;
+
+        private Entry(List<ScannedClass> classes, long scanNanos) {
+            this.classes = classes;
+            this.scanNanos = scanNanos;
+        }
+
+        /**
+         * @return the classes of the jar, in scan order
+         */
+        public List<ScannedClass> getClasses() {
+            return Collections.unmodifiableList(classes);
+        }
+    }
+
+    /**
+     * Collects the reports of a single jar scan, fed by a scan handler.
+     */
+    public static final class Recorder {
+        private final Map<String, ScannedClass> classes = new LinkedHashMap<>();
+
+        public void classFound(String className, int version, int access, String signature, String superName,
+            String[] interfaces) {
+            classes.put(className, new ScannedClass(className, version, access, signature, superName, interfaces));
+        }
+
+        public void classAnnotated(String className, String annotation) {
+            final ScannedClass scanned = classes.get(className);
+            if (scanned != null) {
+                scanned.annotations.add(annotation);
+            }
+        }
+
+        public void methodAnnotated(String className, String methodName, int access, String descriptor,
+            String signature, String[] exceptions, String annotation) {
+            final ScannedClass scanned = classes.get(className);
+            if (scanned != null) {
+                scanned.methods.computeIfAbsent(methodName + descriptor,
+                    k -> new ScannedMember(methodName, access, descriptor, signature, exceptions))
+                    .annotations.add(annotation);
+            }
+        }
+
+        public void fieldAnnotated(String className, String fieldName, int access, String type, String signature,
+            String annotation) {
+            final ScannedClass scanned = classes.get(className);
+            if (scanned != null) {
+                scanned.fields.computeIfAbsent(fieldName + type,
+                    k -> new ScannedMember(fieldName, access, type, signature, null))
+                    .annotations.add(annotation);
+            }
+        }
+    }
+
+    /**
+     * A class found by a scan.
+     */
+    public static final class ScannedClass {
+        private final String name;
+        private final int version;
+        private final int access;
+        private final String signature;
+        private final String superName;
+        private final String[] interfaces;
+        private final List<String> annotations = new ArrayList<>();
+        private final Map<String, ScannedMember> methods = new LinkedHashMap<>();
+        private final Map<String, ScannedMember> fields = new LinkedHashMap<>();
+
+        private ScannedClass(String name, int version, int access, String signature, String superName,
+            String[] interfaces) {
+            this.name = name;
+            this.version = version;
+            this.access = access;
+            this.signature = signature;
+            this.superName = superName;
+            this.interfaces = interfaces;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getVersion() {
+            return version;
+        }
+
+        public int getAccess() {
+            return access;
+        }
+
+        public String getSignature() {
+            return signature;
+        }
+
+        public String getSuperName() {
+            return superName;
+        }
+
+        public String[] getInterfaces() {
+            return interfaces;
+        }
+
+        public List<String> getAnnotations() {
+            return Collections.unmodifiableList(annotations);
+        }
+
+        /**
+         * @return the annotated methods of the class
+         */
+        public List<ScannedMember> getMethods() {
+            return new ArrayList<>(methods.values());
+        }
+
+        /**
+         * @return the annotated fields of the class
+         */
+        public List<ScannedMember> getFields() {
+            return new ArrayList<>(fields.values());
+        }
+    }
+
+    /**
+     * An annotated method or field of a scanned class.
+     */
+    public static final class ScannedMember {
+        private final String name;
+        private final int access;
+        private final String descriptor;
+        private final String signature;
+        private final String[] exceptions;
+        private final List<String> annotations = new ArrayList<>();
+
+        private ScannedMember(String name, int access, String descriptor, String signature, String[] exceptions) {
+            this.name = name;
+            this.access = access;
+            this.descriptor = descriptor;
+            this.signature = signature;
+            this.exceptions = exceptions;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getAccess() {
+            return access;
+        }
+
+        /**
+         * @return the method descriptor, or the type of a field
+         */
+        public String getDescriptor() {
+            return descriptor;
+        }
+
+        public String getSignature() {
+            return signature;
+        }
+
+        /**
+         * @return the exceptions a method declares, {@code null} for fields
+         */
+        public String[] getExceptions() {
+            return exceptions;
+        }
+
+        public List<String> getAnnotations() {
+            return Collections.unmodifiableList(annotations);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat Middleware LLC, and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.arquillian.container.jetty;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.jboss.shrinkwrap.api.Archive;
+import org.jboss.shrinkwrap.api.ArchivePath;
+import org.jboss.shrinkwrap.api.Node;
+import org.jboss.shrinkwrap.api.asset.ArchiveAsset;
+import org.jboss.shrinkwrap.api.asset.Asset;
+
+/**
+ * Content digests of ShrinkWrap archives and assets. Nested archives are digested by their content rather than by their
+ * ZIP representation, which carries export time stamps and so differs on every export.
+ */
+final class ArchiveDigest {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final MessageDigest digest;
+
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+
+    ArchiveDigest() {
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    ArchiveDigest update(String value) {
+        digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        return this;
+    }
+
+    /**
+     * Adds all nodes of the archive, in path order.
+     */
+    ArchiveDigest update(Archive<?> archive) {
+        Map<String, Node> content = new TreeMap<>();
+        for (Map.Entry<ArchivePath, Node> entry : archive.getContent().entrySet()) {
+            content.put(entry.getKey().get(), entry.getValue());
+        }
+        for (Map.Entry<String, Node> entry : content.entrySet()) {
+            update(entry.getKey());
+            update(entry.getKey(), entry.getValue().getAsset());
+        }
+        return this;
+    }
+
+    /**
+     * Adds a single node; a {@code null} asset denotes a directory.
+     */
+    ArchiveDigest update(String path, Asset asset) {
+        if (asset == null) {
+            digest.update((byte) 'd');
+        } else if (asset instanceof ArchiveAsset) {
+            digest.update((byte) 'a');
+            update(((ArchiveAsset) asset).getArchive());
+        } else {
+            digest.update((byte) 'f');
+            try (InputStream in = asset.openStream()) {
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    digest.update(buffer, 0, read);
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not read " + path, e);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Completes the digest, after which this instance can be reused.
+     *
+     * @return the digest as lower case hex string
+     */
+    String toHex() {
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+}
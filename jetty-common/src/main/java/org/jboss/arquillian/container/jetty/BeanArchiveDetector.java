@@ -0,0 +1,161 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat Middleware LLC, and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.arquillian.container.jetty;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.jboss.shrinkwrap.api.Archive;
+import org.jboss.shrinkwrap.api.ArchivePath;
+import org.jboss.shrinkwrap.api.Node;
+import org.jboss.shrinkwrap.api.asset.ArchiveAsset;
+import org.jboss.shrinkwrap.api.asset.Asset;
+
+/**
+ * Tells whether a deployment may need CDI, so containers can leave out the CDI integration, and with it Weld's class
+ * path discovery, for deployments which certainly have no beans.
+ * <p>
+ * An archive is taken as a bean archive if it has a {@code beans.xml} whose bean discovery mode is not {@code none}, or
+ * registers a portable or build compatible extension in {@code META-INF/services}, or has a class referring to a CDI or
+ * {@code jakarta.inject} type, be it a bean defining annotation, {@code @Inject} or a lookup by {@code CDI.current()}.
+ * Class files are searched for the package names of these types rather than parsed, so the detection errs on the side
+ * of wiring CDI. Only beans defined by stereotypes or scopes declared outside the deployment are not detected.
+ */
+public final class BeanArchiveDetector {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final String[] BEANS_XML = {
+        "/WEB-INF/beans.xml", "/WEB-INF/classes/META-INF/beans.xml", "/META-INF/beans.xml"};
+
+    private static final String JAR_BEANS_XML = "META-INF/beans.xml";
+
+    private static final Pattern DISCOVERY_MODE_NONE = Pattern.compile("bean-discovery-mode\\s*=\\s*[\"']none[\"']");
+
+    private static final String[] EXTENSIONS = {
+        "META-INF/services/jakarta.enterprise.inject.spi.Extension",
+        "META-INF/services/javax.enterprise.inject.spi.Extension",
+        "META-INF/services/jakarta.enterprise.inject.build.compatible.spi.BuildCompatibleExtension"};
+
+    // found in type descriptors and class references alike, the latter have no leading 'L'
+    private static final String[] CDI_PACKAGES = {
+        "jakarta/enterprise/", "javax/enterprise/", "jakarta/inject/", "javax/inject/",
+        "jakarta/interceptor/", "javax/interceptor/", "jakarta/decorator/", "javax/decorator/"};
+
+    private BeanArchiveDetector() {
+    }
+
+    /**
+     * @param archive the archive to deploy
+     * @return whether the archive, or one of its libraries, is a bean archive
+     */
+    public static boolean containsBeanArchive(Archive<?> archive) {
+        for (String beansXml : BEANS_XML) {
+            final Node node = archive.get(beansXml);
+            if (node != null && node.getAsset() != null && isBeanArchiveDescriptor(read(beansXml, node.getAsset()))) {
+                return true;
+            }
+        }
+        for (Map.Entry<ArchivePath, Node> entry : archive.getContent().entrySet()) {
+            final String path = entry.getKey().get();
+            final Asset asset = entry.getValue().getAsset();
+            if (asset instanceof ArchiveAsset) {
+                if (containsBeanArchive(((ArchiveAsset) asset).getArchive())) {
+                    return true;
+                }
+            } else if (asset != null && path.endsWith(".jar")) {
+                if (isBeanArchive(path, asset)) {
+                    return true;
+                }
+            } else if (asset != null && path.endsWith(".class")) {
+                if (refersToCdi(read(path, asset))) {
+                    return true;
+                }
+            } else if (asset != null && isExtension(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isBeanArchive(String path, Asset jar) {
+        try (ZipInputStream in = new ZipInputStream(jar.openStream())) {
+            for (ZipEntry entry = in.getNextEntry(); entry != null; entry = in.getNextEntry()) {
+                if (JAR_BEANS_XML.equals(entry.getName())) {
+                    if (isBeanArchiveDescriptor(read(in))) {
+                        return true;
+                    }
+                } else if (entry.getName().endsWith(".class") && refersToCdi(read(in))) {
+                    return true;
+                } else if (isExtension("/" + entry.getName())) {
+                    return true;
+                }
+            }
+            return false;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read " + path, e);
+        }
+    }
+
+    private static boolean isBeanArchiveDescriptor(byte[] beansXml) {
+        return !DISCOVERY_MODE_NONE.matcher(new String(beansXml, StandardCharsets.UTF_8)).find();
+    }
+
+    private static boolean isExtension(String path) {
+        for (String extension : EXTENSIONS) {
+            if (path.endsWith("/" + extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static boolean refersToCdi(byte[] classFile) {
+        // names are plain ASCII in the constant pool, so a byte per char keeps them intact
+        final String content = new String(classFile, StandardCharsets.ISO_8859_1);
+        for (String cdiPackage : CDI_PACKAGES) {
+            if (content.contains(cdiPackage)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static byte[] read(String path, Asset asset) {
+        try (InputStream in = asset.openStream()) {
+            return read(in);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read " + path, e);
+        }
+    }
+
+    private static byte[] read(InputStream in) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat Middleware LLC, and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.arquillian.container.jetty;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import org.jboss.arquillian.container.spi.Container;
+import org.jboss.arquillian.container.spi.ContainerRegistry;
+import org.jboss.arquillian.container.spi.client.container.DeployableContainer;
+import org.jboss.arquillian.container.spi.client.deployment.Deployment;
+import org.jboss.arquillian.container.spi.client.deployment.DeploymentDescription;
+import org.jboss.arquillian.container.spi.client.deployment.DeploymentScenario;
+import org.jboss.shrinkwrap.api.Archive;
+
+/**
+ * Deploys the archives of a test class at the same time rather than one after the other.
+ * <p>
+ * Arquillian hands the archives of a test class to the container one by one, each deployment waiting for the one
+ * before. As soon as the first is deployed, the archives of the container that are still to come with the same
+ * {@code @Deployment(order)} are exported, configured and started in the background, and later deployments just take
+ * the started result; archives of a later order are only started once the earlier ones are deployed. Archives with the
+ * same name, which share a context path and export location, are never started at the same time. Deployments started
+ * in the background but never taken, because an earlier deployment failed, are undeployed once the deployments of the
+ * next test class are started, or when the container stops.
+ *
+ * @param <T> the type of a started deployment
+ */
+public class ConcurrentDeployments<T> {
+
+    private static final Logger log = Logger.getLogger(ConcurrentDeployments.class.getName());
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    /**
+     * Exports, configures and starts a deployment.
+     *
+     * @param <T> the type of a started deployment
+     */
+    @FunctionalInterface
+    public interface Deployer<T> {
+        T deploy(Archive<?> archive) throws Exception;
+    }
+
+    /**
+     * Stops a deployment started by a {@link Deployer}.
+     *
+     * @param <T> the type of a started deployment
+     */
+    @FunctionalInterface
+    public interface Undeployer<T> {
+        void undeploy(Archive<?> archive, T deployment) throws Exception;
+    }
+
+    private final int concurrency;
+
+    private final Deployer<T> deployer;
+
+    private final Undeployer<T> undeployer;
+
+    /**
+     * Deployments started in the background, keyed by archive identity.
+     */
+    private final Map<Archive<?>, Prefetch> pending = new IdentityHashMap<>();
+
+    private ExecutorService executor;
+
+    /**
+     * @param concurrency the number of deployments started at the same time, 1 deploys every archive on the calling
+     * thread
+     * @param deployer starts a deployment
+     * @param undeployer stops a deployment that was started in the background but never taken
+     */
+    public ConcurrentDeployments(int concurrency, Deployer<T> deployer, Undeployer<T> undeployer) {
+        this.concurrency = concurrency;
+        this.deployer = deployer;
+        this.undeployer = undeployer;
+    }
+
+    /**
+     * Starts deploying the archives in the background, unless they are being deployed already. Deployments started
+     * earlier for archives that are not given anymore are undeployed.
+     *
+     * @param archives the archives still to be deployed, in deploy order
+     */
+    public void prefetch(List<Archive<?>> archives) {
+        if (concurrency <= 1) {
+            return;
+        }
+        final Set<Archive<?>> current = Collections.newSetFromMap(new IdentityHashMap<>());
+        current.addAll(archives);
+        final Map<Archive<?>, Prefetch> stale = new IdentityHashMap<>();
+        synchronized (this) {
+            for (Archive<?> archive : new ArrayList<>(pending.keySet())) {
+                if (!current.contains(archive)) {
+                    stale.put(archive, pending.remove(archive));
+                }
+            }
+            if (archives.size() > 1 || !pending.isEmpty()) {
+                final Set<String> names = new HashSet<>();
+                for (Archive<?> archive : pending.keySet()) {
+                    names.add(archive.getName());
+                }
+                // Threads are created by the deploying thread and inherit its context class loader
+                for (Archive<?> archive : archives) {
+                    if (!pending.containsKey(archive) && names.add(archive.getName())) {
+                        pending.put(archive, new Prefetch(archive));
+                    }
+                }
+            }
+        }
+        discard(stale);
+    }
+
+    /**
+     * Returns the deployment of the archive, waiting for it if it is being started in the background, or deploying it on
+     * the calling thread otherwise.
+     *
+     * @param archive the archive to deploy
+     * @return the started deployment
+     * @throws Exception if the archive could not be deployed
+     */
+    public T take(Archive<?> archive) throws Exception {
+        final Prefetch prefetch;
+        synchronized (this) {
+            prefetch = pending.remove(archive);
+        }
+        if (prefetch == null) {
+            return deployer.deploy(archive);
+        }
+        try {
+            return prefetch.future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Undeploys the deployments started in the background but never taken and stops the background threads.
+     */
+    public void close() {
+        final Map<Archive<?>, Prefetch> stale;
+        final ExecutorService stopped;
+        synchronized (this) {
+            stale = new IdentityHashMap<>(pending);
+            pending.clear();
+            stopped = executor;
+            executor = null;
+        }
+        discard(stale);
+        if (stopped != null) {
+            stopped.shutdown();
+        }
+    }
+
+    /**
+     * Lists the archives of the current test class the container has yet to deploy, in deploy order, as far as they
+     * share the order of the next one.
+     *
+     * @param scenario the deployments of the current test class, may be {@code null}
+     * @param registry the containers, may be {@code null}
+     * @param container the container deploying the archives
+     * @return the archives of the next order still to be deployed by the container
+     */
+    public static List<Archive<?>> pendingArchives(DeploymentScenario scenario, ContainerRegistry registry,
+        DeployableContainer<?> container) {
+        final List<Archive<?>> archives = new ArrayList<>();
+        if (scenario == null || registry == null) {
+            return archives;
+        }
+        int order = 0;
+        for (Deployment deployment : scenario.managedDeploymentsInDeployOrder()) {
+            final DeploymentDescription description = deployment.getDescription();
+            if (deployment.isDeployed() || deployment.hasDeploymentError() || !description.isArchiveDeployment()) {
+                continue;
+            }
+            final Container target = registry.getContainer(description.getTarget());
+            if (target != null && target.getDeployableContainer() == container) {
+                if (!archives.isEmpty() && description.getOrder() != order) {
+                    // deployed once the archives of the earlier order are
+                    break;
+                }
+                order = description.getOrder();
+                // the archive Arquillian hands to DeployableContainer.deploy
+                archives.add(description.getTestableArchive() != null ? description.getTestableArchive()
+                    : description.getArchive());
+            }
+        }
+        return archives;
+    }
+
+    private ExecutorService executor() {
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(concurrency, runnable -> {
+                Thread thread = new Thread(runnable, "arquillian-jetty-deploy-" + THREAD_COUNT.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
+    }
+
+    private void discard(Map<Archive<?>, Prefetch> stale) {
+        for (Map.Entry<Archive<?>, Prefetch> entry : stale.entrySet()) {
+            if (entry.getValue().claim()) {
+                // never started, cancelling a running task would leave its deployment started
+                entry.getValue().future.cancel(false);
+                continue;
+            }
+            try {
+                undeployer.undeploy(entry.getKey(), entry.getValue().future.get());
+                log.info("Undeployed " + entry.getKey().getName() + ", started in the background but never deployed");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                // failed in the background, nothing to undeploy
+            } catch (Exception e) {
+                log.warning("Could not undeploy " + entry.getKey().getName() + ": " + e);
+            }
+        }
+    }
+
+    /**
+     * A deployment submitted to the background threads, run unless it is discarded before it starts.
+     */
+    private final class Prefetch {
+
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        private final Future<T> future;
+
+        private Prefetch(Archive<?> archive) {
+            future = executor().submit(() -> claim() ? deployer.deploy(archive) : null);
+        }
+
+        /**
+         * @return {@code true} for the first caller only, either the background thread starting the deployment or the
+         * thread discarding it
+         */
+        private boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
+}
@@ -0,0 +1,424 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat Middleware LLC, and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.arquillian.container.jetty;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import org.jboss.shrinkwrap.api.Archive;
+
+/**
+ * A content addressed cache of exploded deployments.
+ * <p>
+ * Every node of an archive is hashed, nested archives by their content rather than by their (time stamped) ZIP
+ * representation, and a webapp directory exported earlier for the same digest is handed out again instead of writing
+ * the archive once more. Entries are evicted in least recently used order once the cache grows beyond its maximum size;
+ * entries that are still deployed are never evicted.
+ * <p>
+ * Entries are published with an atomic rename, so several JVMs, such as forked test runs, can share one cache directory.
+ * Each JVM holds a shared lock on the {@code .lock} file of every entry it has leased or is exporting, and an entry or
+ * a staging directory left behind is only deleted while no JVM holds that lock. The maximum size applies to the entries
+ * a JVM knows of, those found when the cache is created and those it exported itself.
+ */
+public class DeploymentCache {
+
+    private static final Logger log = Logger.getLogger(DeploymentCache.class.getName());
+
+    private static final Map<File, DeploymentCache> CACHES = new HashMap<>();
+
+    private static final int NAME_DIGEST_LENGTH = 16;
+
+    private static final String STAGING_INFIX = ".tmp-";
+
+    private static final String LOCK_SUFFIX = ".lock";
+
+    /**
+     * The locks this JVM holds on cache entries, by lock file. File locks are held on behalf of the whole JVM, so they
+     * are counted here for all caches.
+     */
+    private static final Map<Path, Lock> LOCKS = new HashMap<>();
+
+    private final Path directory;
+
+    private final ExplodedArchiveExporter exporter;
+
+    /**
+     * Cache entries by digest, in access order.
+     */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final Map<String, Statistics> statistics = new ConcurrentHashMap<>();
+
+    private volatile long maxSize;
+
+    private long size;
+
+    DeploymentCache(File directory, long maxSize) {
+        this(directory, maxSize, null);
+    }
+
+    DeploymentCache(File directory, long maxSize, JarStore jarStore) {
+        this.directory = directory.toPath();
+        this.maxSize = maxSize;
+        this.exporter = new ExplodedArchiveExporter(jarStore);
+        load();
+    }
+
+    /**
+     * Returns the cache stored in the given directory, creating it if needed. Caches are shared by all containers of the
+     * JVM, the most recently requested maximum size applies.
+     *
+     * @param directory the directory holding the cache entries
+     * @param maxSize the maximum size of all cache entries, in bytes
+     * @param jarStore if not {@code null}, libraries of new entries are linked from this store
+     * @return the cache
+     */
+    public static DeploymentCache forDirectory(File directory, long maxSize, JarStore jarStore) {
+        synchronized (CACHES) {
+            DeploymentCache cache = CACHES.get(directory.getAbsoluteFile());
+            if (cache == null) {
+                cache = new DeploymentCache(directory, maxSize, jarStore);
+                CACHES.put(directory.getAbsoluteFile(), cache);
+            } else {
+                cache.maxSize = maxSize;
+            }
+            return cache;
+        }
+    }
+
+    /**
+     * Returns an exploded webapp directory holding the content of the archive, exporting it only if no entry for the same
+     * content exists yet. The entry is leased until {@link #release(File)} is called and is not evicted meanwhile.
+     *
+     * @param archive the archive to deploy
+     * @param namePrefix if not {@code null}, the webapp directory is named after the prefix, the digest and the archive
+     * name, so the content gets a context path of its own; otherwise the directory is named like the archive
+     * @return the webapp directory
+     */
+    public File acquire(Archive<?> archive, String namePrefix) {
+        final String key = digest(archive, namePrefix);
+        final String webappName = namePrefix == null ? archive.getName()
+            : namePrefix + key.substring(0, NAME_DIGEST_LENGTH) + archive.getName();
+        final Statistics stats = statistics.computeIfAbsent(key, k -> new Statistics(webappName));
+
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                lock(key);
+                if (Files.isDirectory(entry.webapp)) {
+                    entry.leases++;
+                    // keeps the LRU order for runs that pick the cache up from disk
+                    entry.webapp.getParent().toFile().setLastModified(System.currentTimeMillis());
+                    stats.hits.incrementAndGet();
+                    log.info("Deployment cache hit for " + webappName + " " + stats);
+                    return entry.webapp.toFile();
+                }
+                // evicted by another JVM sharing the cache directory
+                unlock(key);
+                if (entry.leases == 0) {
+                    entries.remove(key);
+                    size -= entry.size;
+                }
+            }
+        }
+
+        stats.misses.incrementAndGet();
+        lock(key);
+        final Path webapp;
+        try {
+            webapp = export(archive, key, webappName);
+        } catch (RuntimeException e) {
+            unlock(key);
+            throw e;
+        }
+        long entrySize = ExportCleaner.sizeOf(webapp.getParent());
+        log.info("Deployment cache miss for " + webappName + " " + stats);
+
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                entry = new Entry(webapp, entrySize);
+                entries.put(key, entry);
+                size += entrySize;
+            }
+            entry.leases++;
+            evict();
+            return entry.webapp.toFile();
+        }
+    }
+
+    /**
+     * Ends the lease of a webapp directory handed out by {@link #acquire(Archive, String)}.
+     *
+     * @param webapp the webapp directory that is no longer deployed
+     */
+    public synchronized void release(File webapp) {
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            if (entry.getValue().webapp.toFile().equals(webapp) && entry.getValue().leases > 0) {
+                entry.getValue().leases--;
+                unlock(entry.getKey());
+                break;
+            }
+        }
+        evict();
+    }
+
+    /**
+     * @return the hit and miss counts of every entry requested from this cache, keyed by content digest
+     */
+    public Map<String, Statistics> getStatistics() {
+        return Collections.unmodifiableMap(new TreeMap<>(statistics));
+    }
+
+    /**
+     * @return the total size of the entries in the cache, in bytes
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    private Path export(Archive<?> archive, String key, String webappName) {
+        final Path entryDirectory = directory.resolve(key);
+        if (Files.isDirectory(entryDirectory.resolve(webappName))) {
+            // published meanwhile, e.g. by another JVM sharing the cache directory
+            return entryDirectory.resolve(webappName);
+        }
+        final Path staging = directory.resolve(key + STAGING_INFIX + UUID.randomUUID());
+        try {
+            exporter.export(archive, staging.resolve(webappName).toFile());
+            try {
+                Files.move(staging, entryDirectory, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(staging, entryDirectory);
+            }
+        } catch (FileAlreadyExistsException e) {
+            deleteQuietly(staging);
+        } catch (IOException e) {
+            deleteQuietly(staging);
+            if (!Files.isDirectory(entryDirectory.resolve(webappName))) {
+                throw new IllegalStateException("Could not add " + archive.getName() + " to deployment cache " + directory, e);
+            }
+        }
+        return entryDirectory.resolve(webappName);
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (size > maxSize && it.hasNext()) {
+            Map.Entry<String, Entry> eldest = it.next();
+            if (eldest.getValue().leases > 0 || !deleteUnlocked(eldest.getKey(), eldest.getValue().webapp.getParent())) {
+                continue;
+            }
+            it.remove();
+            size -= eldest.getValue().size;
+            log.fine("Evicted " + eldest.getValue().webapp.getFileName() + " from deployment cache");
+        }
+    }
+
+    /**
+     * Picks up entries published by earlier runs, oldest first so they are evicted first.
+     */
+    private void load() {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not create deployment cache directory " + directory, e);
+        }
+        List<Path> entryDirectories = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path entryDirectory : stream) {
+                if (!Files.isDirectory(entryDirectory)) {
+                    continue;
+                }
+                final String name = entryDirectory.getFileName().toString();
+                if (name.contains(STAGING_INFIX)) {
+                    // left behind by a JVM that stopped while exporting, unless another JVM is exporting it right now
+                    deleteUnlocked(name.substring(0, name.indexOf(STAGING_INFIX)), entryDirectory);
+                } else {
+                    entryDirectories.add(entryDirectory);
+                }
+            }
+        } catch (IOException e) {
+            log.warning("Could not read deployment cache directory " + directory + ": " + e);
+            return;
+        }
+        entryDirectories.sort(Comparator.comparingLong(path -> path.toFile().lastModified()));
+        for (Path entryDirectory : entryDirectories) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(entryDirectory)) {
+                for (Path webapp : stream) {
+                    long entrySize = ExportCleaner.sizeOf(entryDirectory);
+                    entries.put(entryDirectory.getFileName().toString(), new Entry(webapp, entrySize));
+                    size += entrySize;
+                    break;
+                }
+            } catch (IOException e) {
+                deleteQuietly(entryDirectory);
+            }
+        }
+        evict();
+    }
+
+    /**
+     * Takes a shared lock on the entry for this JVM, waiting while another JVM deletes it.
+     */
+    private void lock(String key) {
+        final Path lockFile = directory.resolve(key + LOCK_SUFFIX);
+        synchronized (LOCKS) {
+            Lock lock = LOCKS.get(lockFile);
+            if (lock == null) {
+                try {
+                    FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                        StandardOpenOption.WRITE);
+                    try {
+                        channel.lock(0, Long.MAX_VALUE, true);
+                    } catch (IOException | RuntimeException e) {
+                        channel.close();
+                        throw e;
+                    }
+                    lock = new Lock(channel);
+                } catch (IOException e) {
+                    throw new IllegalStateException("Could not lock deployment cache entry " + lockFile, e);
+                }
+                LOCKS.put(lockFile, lock);
+            }
+            lock.count++;
+        }
+    }
+
+    private void unlock(String key) {
+        final Path lockFile = directory.resolve(key + LOCK_SUFFIX);
+        synchronized (LOCKS) {
+            Lock lock = LOCKS.get(lockFile);
+            if (lock != null && --lock.count == 0) {
+                LOCKS.remove(lockFile);
+                try {
+                    lock.channel.close();
+                } catch (IOException e) {
+                    log.warning("Could not unlock deployment cache entry " + lockFile + ": " + e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Deletes a directory of the entry unless a JVM, this one included, holds a lock on the entry. The lock file is
+     * kept, since other JVMs may be waiting for a lock on it.
+     *
+     * @return {@code true} if the directory was deleted
+     */
+    private boolean deleteUnlocked(String key, Path path) {
+        final Path lockFile = directory.resolve(key + LOCK_SUFFIX);
+        synchronized (LOCKS) {
+            if (LOCKS.containsKey(lockFile)) {
+                return false;
+            }
+            try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                if (channel.tryLock() == null) {
+                    return false;
+                }
+                deleteQuietly(path);
+                return true;
+            } catch (IOException e) {
+                log.warning("Could not lock deployment cache entry " + lockFile + ": " + e);
+                return false;
+            }
+        }
+    }
+
+    static String digest(Archive<?> archive, String namePrefix) {
+        return new ArchiveDigest().update(namePrefix).update(archive.getName()).update(archive).toHex();
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            ExplodedArchiveExporter.deleteRecursively(path);
+        } catch (IOException e) {
+            log.warning("Could not delete " + path + ": " + e);
+        }
+    }
+
+    private static final class Lock {
+        private final FileChannel channel;
+        private int count;
+
+        private Lock(FileChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    private static final class Entry {
+        private final Path webapp;
+        private final long size;
+        private int leases;
+
+        private Entry(Path webapp, long size) {
+            this.webapp = webapp;
+            this.size = size;
+        }
+    }
+
+    /**
+     * Hit and miss counts of a single cache entry.
+     */
+    public static final class Statistics {
+        private final String webappName;
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+
+        private Statistics(String webappName) {
+            this.webappName = webappName;
+        }
+
+        public String getWebappName() {
+            return webappName;
+        }
+
+        public long getHits() {
+            return hits.get();
+        }
+
+        public long getMisses() {
+            return misses.get();
+        }
+
+        @Override
+        public String toString() {
+            return "[hits=" + hits.get() + ", misses=" + misses.get() + "]";
+        }
+    }
+}
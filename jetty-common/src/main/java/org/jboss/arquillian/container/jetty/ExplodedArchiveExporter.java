@@ -0,0 +1,389 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat Middleware LLC, and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.arquillian.container.jetty;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import org.jboss.shrinkwrap.api.Archive;
+import org.jboss.shrinkwrap.api.ArchivePath;
+import org.jboss.shrinkwrap.api.Node;
+import org.jboss.shrinkwrap.api.asset.Asset;
+import org.jboss.shrinkwrap.api.exporter.ArchiveExportException;
+
+/**
+ * Writes a ShrinkWrap {@link Archive} as an exploded web application directory, streaming every {@link Asset} straight
+ * out of the in-memory archive. No intermediate ZIP is produced, so Jetty can serve the directory as-is instead of
+ * extracting a freshly compressed WAR.
+ * <p>
+ * Unlike {@link org.jboss.shrinkwrap.api.exporter.ExplodedExporter}, nested archives (such as the libraries under
+ * {@code WEB-INF/lib}) are written as jar files rather than being exploded themselves, which is the layout Jetty expects.
+ */
+public class ExplodedArchiveExporter {
+
+    private static final Logger log = Logger.getLogger(ExplodedArchiveExporter.class.getName());
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final String MANIFEST_SUFFIX = ".manifest";
+
+    private static final String DIRECTORY_DIGEST = "-";
+
+    private static final String LIBRARY_PREFIX = "/WEB-INF/lib/";
+
+    private static final String LOCK_SUFFIX = ".lock";
+
+    /**
+     * Directories locked by this JVM, by lock file.
+     */
+    private static final Map<Path, FileChannel> LOCKS = new HashMap<>();
+
+    private final JarStore jarStore;
+
+    /**
+     * Digests of the content last exported incrementally, by webapp directory.
+     */
+    private final Map<File, String> contentDigests = new ConcurrentHashMap<>();
+
+    public ExplodedArchiveExporter() {
+        this(null);
+    }
+
+    /**
+     * @param jarStore if not {@code null}, the libraries under {@code WEB-INF/lib} are linked from this store
+     */
+    public ExplodedArchiveExporter(JarStore jarStore) {
+        this.jarStore = jarStore;
+    }
+
+    /**
+     * Exports the archive into the given directory. Any existing content of the directory is removed first.
+     *
+     * @param archive the archive to export
+     * @param directory the webapp directory to write to
+     * @return the webapp directory
+     */
+    public File export(Archive<?> archive, File directory) {
+        contentDigests.remove(directory);
+        try {
+            deleteRecursively(directory.toPath());
+            Files.createDirectories(directory.toPath());
+            final LinkReport report = new LinkReport();
+            for (Map.Entry<ArchivePath, Node> entry : archive.getContent().entrySet()) {
+                Path target = resolve(directory, entry.getKey());
+                Asset asset = entry.getValue().getAsset();
+                if (asset == null) {
+                    Files.createDirectories(target);
+                } else {
+                    Files.createDirectories(target.getParent());
+                    write(entry.getKey().get(), asset, target, report);
+                }
+            }
+            report.log(archive);
+        } catch (IOException e) {
+            throw new ArchiveExportException("Could not export " + archive.getName() + " to " + directory, e);
+        }
+        return directory;
+    }
+
+    /**
+     * Brings a directory written by an earlier export of the archive up to date. A manifest of the entry digests is kept
+     * next to the directory, so only the entries that changed are written and only the entries that are gone are
+     * deleted.
+     * <p>
+     * Falls back to a full {@link #export(Archive, File)} if there is no manifest of an earlier export or if the
+     * libraries under {@code WEB-INF/lib} changed, since jars are cached by the class loaders of earlier deployments and
+     * must not be rewritten in place.
+     *
+     * @param archive the archive to export
+     * @param directory the webapp directory to write to
+     * @return the webapp directory
+     */
+    public File exportIncrementally(Archive<?> archive, File directory) {
+        final Path manifest = directory.toPath().resolveSibling("." + directory.getName() + MANIFEST_SUFFIX);
+        final Map<String, String> current = digest(archive);
+        try {
+            final Map<String, String> previous = readManifest(manifest, directory);
+            // A manifest is only valid for a completely written directory
+            Files.deleteIfExists(manifest);
+            if (previous == null || !libraries(previous).equals(libraries(current))) {
+                export(archive, directory);
+                writeManifest(manifest, current);
+                contentDigests.put(directory, contentDigest(archive, current));
+                log.info("Exported " + archive.getName() + " to " + directory + ", " + current.size() + " entries written");
+                return directory;
+            }
+
+            int deleted = 0;
+            List<String> removed = new ArrayList<>(previous.keySet());
+            removed.removeAll(current.keySet());
+            // children sort after their parents, delete in reverse order to empty directories first
+            Collections.sort(removed, Collections.reverseOrder());
+            for (String path : removed) {
+                Path target = resolve(directory, path);
+                try {
+                    Files.deleteIfExists(target);
+                } catch (DirectoryNotEmptyException e) {
+                    deleteRecursively(target);
+                }
+                deleted++;
+            }
+
+            int written = 0;
+            final LinkReport report = new LinkReport();
+            for (Map.Entry<ArchivePath, Node> entry : archive.getContent().entrySet()) {
+                String path = entry.getKey().get();
+                Path target = resolve(directory, path);
+                Asset asset = entry.getValue().getAsset();
+                if (asset == null) {
+                    Files.createDirectories(target);
+                } else if (!current.get(path).equals(previous.get(path)) || !Files.isRegularFile(target)) {
+                    Files.createDirectories(target.getParent());
+                    write(path, asset, target, report);
+                    written++;
+                }
+            }
+            writeManifest(manifest, current);
+            contentDigests.put(directory, contentDigest(archive, current));
+            report.log(archive);
+            log.info("Incrementally exported " + archive.getName() + " to " + directory + ", " + written
+                + " entries written, " + deleted + " deleted, " + (current.size() - written) + " unchanged");
+        } catch (IOException e) {
+            throw new ArchiveExportException("Could not export " + archive.getName() + " to " + directory, e);
+        }
+        return directory;
+    }
+
+    /**
+     * Returns a digest of the archive name and of the entry digests an incremental export computed anyway, which
+     * identifies the content of the directory without reading the archive again.
+     *
+     * @param directory the webapp directory
+     * @return the digest, or {@code null} if the directory was not exported incrementally
+     */
+    public String getContentDigest(File directory) {
+        return contentDigests.get(directory);
+    }
+
+    /**
+     * Takes an exclusive lock on a directory reused by incremental exports, so that no other container, of this or of
+     * another JVM sharing the export directory, writes to it until it is {@link #unlock(File) unlocked}. The lock is
+     * held on a file next to the directory.
+     *
+     * @param directory the webapp directory to lock
+     * @return {@code false} if the directory is locked already
+     */
+    public static boolean tryLock(File directory) {
+        final Path lockFile = directory.toPath().resolveSibling("." + directory.getName() + LOCK_SUFFIX);
+        synchronized (LOCKS) {
+            if (LOCKS.containsKey(lockFile)) {
+                return false;
+            }
+            try {
+                Files.createDirectories(lockFile.getParent());
+                FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                try {
+                    if (channel.tryLock() == null) {
+                        channel.close();
+                        return false;
+                    }
+                } catch (IOException | RuntimeException e) {
+                    channel.close();
+                    throw e;
+                }
+                LOCKS.put(lockFile, channel);
+                return true;
+            } catch (IOException e) {
+                throw new ArchiveExportException("Could not lock " + directory, e);
+            }
+        }
+    }
+
+    /**
+     * Releases the lock taken by {@link #tryLock(File)}.
+     *
+     * @param directory the locked webapp directory
+     */
+    public static void unlock(File directory) {
+        final Path lockFile = directory.toPath().resolveSibling("." + directory.getName() + LOCK_SUFFIX);
+        final FileChannel channel;
+        synchronized (LOCKS) {
+            channel = LOCKS.remove(lockFile);
+        }
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warning("Could not unlock " + directory + ": " + e);
+            }
+        }
+    }
+
+    /**
+     * Deletes a file or a directory tree, ignoring paths that do not exist.
+     *
+     * @param path the file or directory to delete
+     * @throws IOException if a file could not be deleted
+     */
+    public static void deleteRecursively(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        Files.walkFileTree(path, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    static Path resolve(File directory, ArchivePath path) {
+        return resolve(directory, path.get());
+    }
+
+    private static Path resolve(File directory, String path) {
+        String relative = path;
+        while (relative.startsWith(ArchivePath.SEPARATOR_STRING)) {
+            relative = relative.substring(1);
+        }
+        return directory.toPath().resolve(relative);
+    }
+
+    private static Map<String, String> digest(Archive<?> archive) {
+        Map<String, String> digests = new TreeMap<>();
+        ArchiveDigest digest = new ArchiveDigest();
+        for (Map.Entry<ArchivePath, Node> entry : archive.getContent().entrySet()) {
+            Asset asset = entry.getValue().getAsset();
+            String path = entry.getKey().get();
+            digests.put(path, asset == null ? DIRECTORY_DIGEST : digest.update(path, asset).toHex());
+        }
+        return digests;
+    }
+
+    private static String contentDigest(Archive<?> archive, Map<String, String> digests) {
+        ArchiveDigest digest = new ArchiveDigest().update(archive.getName());
+        for (Map.Entry<String, String> entry : digests.entrySet()) {
+            digest.update(entry.getKey()).update(entry.getValue());
+        }
+        return digest.toHex();
+    }
+
+    private static Map<String, String> libraries(Map<String, String> digests) {
+        Map<String, String> libraries = new TreeMap<>();
+        for (Map.Entry<String, String> entry : digests.entrySet()) {
+            if (entry.getKey().startsWith(LIBRARY_PREFIX)) {
+                libraries.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return libraries;
+    }
+
+    private static Map<String, String> readManifest(Path manifest, File directory) throws IOException {
+        if (!Files.isRegularFile(manifest) || !directory.isDirectory()) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(manifest, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        Map<String, String> digests = new TreeMap<>();
+        for (String path : properties.stringPropertyNames()) {
+            digests.put(path, properties.getProperty(path));
+        }
+        return digests;
+    }
+
+    private static void writeManifest(Path manifest, Map<String, String> digests) throws IOException {
+        Properties properties = new Properties();
+        properties.putAll(digests);
+        try (Writer writer = Files.newBufferedWriter(manifest, StandardCharsets.UTF_8)) {
+            properties.store(writer, null);
+        }
+    }
+
+    private void write(String path, Asset asset, Path target, LinkReport report) throws IOException {
+        if (jarStore != null && path.startsWith(LIBRARY_PREFIX) && path.endsWith(".jar")) {
+            report.add(jarStore.link(path, asset, target));
+        } else {
+            write(asset, target);
+        }
+    }
+
+    private static void write(Asset asset, Path target) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = asset.openStream(); OutputStream out = Files.newOutputStream(target)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        }
+    }
+
+    /**
+     * Libraries linked from the jar store during a single export.
+     */
+    private final class LinkReport {
+        private int libraries;
+        private int linked;
+        private long nanosSaved;
+
+        private void add(long saved) {
+            libraries++;
+            if (saved >= 0) {
+                linked++;
+                nanosSaved += saved;
+            }
+        }
+
+        private void log(Archive<?> archive) {
+            if (libraries > 0) {
+                log.info("Linked " + linked + " of " + libraries + " libraries of " + archive.getName()
+                    + " from the jar store, saving " + TimeUnit.NANOSECONDS.toMillis(nanosSaved) + " ms, total " + jarStore);
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat Middleware LLC, and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.arquillian.container.jetty;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Deletes the exports of undeployed archives in the background, so undeploy does not wait for the file system.
+ * <p>
+ * Undeployed exports are measured and deleted by background threads. The disk space taken by undeployed exports that
+ * are not deleted yet is bounded by a budget: while the background deletion lags that far behind, undeploy waits for it
+ * to catch up.
+ */
+public class ExportCleaner {
+
+    private static final Logger log = Logger.getLogger(ExportCleaner.class.getName());
+
+    private static final ExecutorService SIZER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "arquillian-jetty-export-sizer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "arquillian-jetty-export-cleaner");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final long budget;
+
+    /**
+     * Bytes of the measured exports not deleted yet
+     */
+    private long pending;
+
+    /**
+     * @param budget the number of bytes undeployed exports may take while waiting for deletion
+     */
+    public ExportCleaner(long budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * Deletes an exported archive file or webapp directory in the background, first waiting for earlier deletions if
+     * they exceed the budget.
+     *
+     * @param export the export of an undeployed archive
+     */
+    public void delete(final File export) {
+        synchronized (this) {
+            try {
+                while (pending > budget) {
+                    wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // Measured on a thread of its own, so the budget accounts for it before the cleaner gets to it
+        SIZER.execute(() -> {
+            final long size = sizeOf(export.toPath());
+            synchronized (this) {
+                pending += size;
+            }
+            EXECUTOR.execute(() -> {
+                try {
+                    deleteQuietly(export);
+                } finally {
+                    synchronized (this) {
+                        pending -= size;
+                        notifyAll();
+                    }
+                }
+            });
+        });
+    }
+
+    /**
+     * @return the number of bytes of exports waiting for deletion
+     */
+    public synchronized long getPending() {
+        return pending;
+    }
+
+    private static void deleteQuietly(File export) {
+        try {
+            ExplodedArchiveExporter.deleteRecursively(export.toPath());
+        } catch (IOException e) {
+            log.warning("Could not delete export " + export + ": " + e);
+        }
+    }
+
+    static long sizeOf(Path path) {
+        final AtomicLong size = new AtomicLong();
+        try {
+            Files.walkFileTree(path, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    size.addAndGet(attrs.size());
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            log.warning("Could not determine size of " + path + ": " + e);
+        }
+        return size.get();
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat Middleware LLC, and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.arquillian.container.jetty;
+
+import java.io.File;
+import java.nio.file.Files;
+
+/**
+ * Resolves the directory into which deployments are exported.
+ */
+public final class ExportDirectory {
+
+    /**
+     * The RAM backed file system used when {@link AbstractJettyEmbeddedConfiguration#isExportToRamDisk()} is set
+     */
+    static final String RAM_DISK = "/dev/shm";
+
+    private static final String TEMP_DIR_NAME = "arquillian-jetty-temp";
+
+    private ExportDirectory() {
+    }
+
+    /**
+     * Returns the export directory for the given configuration, which is, in order of preference, the configured
+     * {@code exportDirectory}, a directory on the RAM disk if requested and available, or the default directory.
+     *
+     * @param config the container configuration
+     * @return the existing export directory
+     */
+    public static File resolve(AbstractJettyEmbeddedConfiguration config) {
+        File directory;
+        if (config.getExportDirectory() != null) {
+            directory = new File(config.getExportDirectory());
+        } else if (config.isExportToRamDisk() && Files.isWritable(new File(RAM_DISK).toPath())) {
+            // the user name keeps build agents shared by several users apart
+            directory = new File(RAM_DISK, TEMP_DIR_NAME + "-" + System.getProperty("user.name"));
+        } else {
+            directory = defaultDirectory();
+        }
+        directory.mkdirs();
+
+        // If the temp location doesn't exist or isn't a directory
+        if (!directory.exists() || !directory.isDirectory()) {
+            throw new IllegalStateException("Could not obtain export directory \"" + directory.getAbsolutePath() + "\"");
+        }
+        return directory;
+    }
+
+    private static File defaultDirectory() {
+        /*
+         * Use of java.io.tmpdir Should be a last-resort fallback for temp directory.
+         * 
+         * Use of java.io.tmpdir on CI systems is dangerous (overwrite possibility is extremely high)
+         * 
+         * Use of java.io.tmpdir on Unix systems is unreliable (due to common /tmp dir cleanup processes)
+         */
+        File systemDefaultTmpDir = new File(System.getProperty("java.io.tmpdir"));
+
+        // If running under maven + surefire, use information provided by surefire.
+        String baseDirVal = System.getProperty("basedir");
+
+        File mavenTmpDir = null;
+        if (baseDirVal != null) {
+            File baseDir = new File(baseDirVal);
+            if (baseDir.exists() && baseDir.isDirectory()) {
+                File targetDir = new File(baseDir, "target");
+                if (targetDir.exists() && targetDir.isDirectory()) {
+                    mavenTmpDir = new File(targetDir, TEMP_DIR_NAME);
+                    mavenTmpDir.mkdirs();
+                }
+            }
+        }
+
+        if ((mavenTmpDir != null) && mavenTmpDir.exists() && mavenTmpDir.isDirectory()) {
+            return mavenTmpDir;
+        }
+        return systemDefaultTmpDir;
+    }
+}
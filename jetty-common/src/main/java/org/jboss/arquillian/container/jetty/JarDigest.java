@@ -0,0 +1,53 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat Middleware LLC, and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.arquillian.container.jetty;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Content digests of jar files. The names, sizes and checksums of the entries identify the content, unlike the bytes of
+ * a jar ShrinkWrap zipped with the time stamps of its export; only the central directory of the jar is read.
+ */
+public final class JarDigest {
+
+    private JarDigest() {
+    }
+
+    /**
+     * @param jar the jar file
+     * @return the digest of the jar content as lower case hex string
+     * @throws IOException if the jar could not be read
+     */
+    public static String of(Path jar) throws IOException {
+        final ArchiveDigest digest = new ArchiveDigest();
+        try (ZipFile zip = new ZipFile(jar.toFile())) {
+            final List<ZipEntry> entries = new ArrayList<>(Collections.list(zip.entries()));
+            entries.sort(Comparator.comparing(ZipEntry::getName));
+            for (ZipEntry entry : entries) {
+                digest.update(entry.getName()).update(entry.getCrc() + ":" + entry.getSize());
+            }
+        }
+        return digest.toHex();
+    }
+}
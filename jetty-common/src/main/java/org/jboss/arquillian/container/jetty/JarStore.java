@@ -0,0 +1,261 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat Middleware LLC, and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.arquillian.container.jetty;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import org.jboss.shrinkwrap.api.asset.Asset;
+
+/**
+ * A content addressed store of the libraries found under {@code WEB-INF/lib}. Each distinct jar is written to the store
+ * once and hard linked into every exploded webapp that packages it, falling back to a copy where the file system does
+ * not support links.
+ * <p>
+ * Stored jars are pruned in least recently linked order once the store grows beyond its maximum size. Webapps linking a
+ * pruned jar keep their copy, as a hard link outlives the removal of the stored file; the jar is just stored again the
+ * next time it is needed.
+ */
+public class JarStore {
+
+    private static final Logger log = Logger.getLogger(JarStore.class.getName());
+
+    private static final String JAR_SUFFIX = ".jar";
+
+    private static final Map<File, JarStore> STORES = new HashMap<>();
+
+    private final Path directory;
+
+    /**
+     * Sizes of the stored jars by digest, in least recently linked order
+     */
+    private final LinkedHashMap<String, Long> sizes = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long size;
+
+    private volatile long maxSize;
+
+    /**
+     * How long writing a stored jar took, by digest, which is the time saved whenever it is linked instead
+     */
+    private final Map<String, Long> writeNanos = new ConcurrentHashMap<>();
+
+    private final AtomicLong bytesSaved = new AtomicLong();
+
+    private final AtomicLong nanosSaved = new AtomicLong();
+
+    JarStore(File directory, long maxSize) {
+        this.directory = directory.toPath();
+        this.maxSize = maxSize;
+        load();
+    }
+
+    /**
+     * Returns the jar store kept in the given directory, shared by all containers of the JVM, the most recently
+     * requested maximum size applies.
+     *
+     * @param directory the directory holding the stored jars
+     * @param maxSize the maximum size of all stored jars, in bytes, or {@code 0} to keep every stored jar
+     * @return the jar store
+     */
+    public static JarStore forDirectory(File directory, long maxSize) {
+        synchronized (STORES) {
+            JarStore store = STORES.get(directory.getAbsoluteFile());
+            if (store == null) {
+                store = new JarStore(directory, maxSize);
+                STORES.put(directory.getAbsoluteFile(), store);
+            } else {
+                store.maxSize = maxSize;
+            }
+            return store;
+        }
+    }
+
+    /**
+     * Places the library at the target path, linking it from the store.
+     *
+     * @param path the path of the library in the archive
+     * @param asset the library
+     * @param target the file to create
+     * @return the nanoseconds saved by linking an already stored copy, or {@code -1} if the library had to be stored
+     * @throws IOException if the library could not be stored or linked
+     */
+    public long link(String path, Asset asset, Path target) throws IOException {
+        final String digest = new ArchiveDigest().update(path, asset).toHex();
+        final Path stored = directory.resolve(digest + JAR_SUFFIX);
+        long saved = -1;
+        if (Files.isRegularFile(stored)) {
+            saved = writeNanos.getOrDefault(digest, 0L);
+            bytesSaved.addAndGet(Files.size(stored));
+            nanosSaved.addAndGet(saved);
+            used(digest, stored);
+        } else {
+            store(digest, asset, stored);
+        }
+        try {
+            place(stored, target);
+        } catch (NoSuchFileException e) {
+            // pruned meanwhile, by another container or JVM sharing the store
+            store(digest, asset, stored);
+            place(stored, target);
+        }
+        return saved;
+    }
+
+    /**
+     * @return the size of all stored jars, in bytes
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    /**
+     * @return the disk space saved by linking stored jars instead of writing them again, in bytes
+     */
+    public long getBytesSaved() {
+        return bytesSaved.get();
+    }
+
+    /**
+     * @return the time saved by linking stored jars instead of writing them again, in milliseconds
+     */
+    public long getTimeSavedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(nanosSaved.get());
+    }
+
+    private void store(String digest, Asset asset, Path stored) throws IOException {
+        Files.createDirectories(directory);
+        final Path staging = directory.resolve(digest + ".tmp-" + UUID.randomUUID());
+        final long start = System.nanoTime();
+        try (InputStream in = asset.openStream()) {
+            Files.copy(in, staging);
+            try {
+                Files.move(staging, stored, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(staging, stored);
+            }
+        } catch (FileAlreadyExistsException e) {
+            // stored concurrently, e.g. by another deployment
+        } finally {
+            Files.deleteIfExists(staging);
+        }
+        writeNanos.put(digest, System.nanoTime() - start);
+        used(digest, stored);
+    }
+
+    private static void place(Path stored, Path target) throws IOException {
+        Files.deleteIfExists(target);
+        try {
+            Files.createLink(target, stored);
+        } catch (NoSuchFileException e) {
+            throw e;
+        } catch (IOException | UnsupportedOperationException e) {
+            Files.copy(stored, target);
+        }
+    }
+
+    /**
+     * Marks the stored jar as most recently linked, pruning the least recently linked jars if the store grew too large.
+     */
+    private synchronized void used(String digest, Path stored) throws IOException {
+        // moves a known jar to the most recently linked end
+        if (sizes.get(digest) == null) {
+            // stored by this call or by another JVM sharing the store
+            final long jarSize = Files.size(stored);
+            sizes.put(digest, jarSize);
+            size += jarSize;
+        }
+        prune(digest);
+    }
+
+    private void prune(String keep) {
+        if (maxSize <= 0) {
+            return;
+        }
+        Iterator<Map.Entry<String, Long>> it = sizes.entrySet().iterator();
+        while (size > maxSize && it.hasNext()) {
+            Map.Entry<String, Long> eldest = it.next();
+            if (eldest.getKey().equals(keep)) {
+                continue;
+            }
+            try {
+                Files.deleteIfExists(directory.resolve(eldest.getKey() + JAR_SUFFIX));
+            } catch (IOException e) {
+                log.warning("Could not prune " + eldest.getKey() + JAR_SUFFIX + " from " + directory + ": " + e);
+                continue;
+            }
+            it.remove();
+            size -= eldest.getValue();
+            writeNanos.remove(eldest.getKey());
+            log.fine("Pruned " + eldest.getKey() + JAR_SUFFIX + " from jar store");
+        }
+    }
+
+    /**
+     * Picks up jars stored by earlier runs, oldest first so they are pruned first.
+     */
+    private void load() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        List<Path> jars = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + JAR_SUFFIX)) {
+            for (Path jar : stream) {
+                jars.add(jar);
+            }
+        } catch (IOException e) {
+            log.warning("Could not read jar store directory " + directory + ": " + e);
+            return;
+        }
+        jars.sort(Comparator.comparingLong(jar -> jar.toFile().lastModified()));
+        synchronized (this) {
+            for (Path jar : jars) {
+                final String name = jar.getFileName().toString();
+                final long jarSize = jar.toFile().length();
+                sizes.put(name.substring(0, name.length() - JAR_SUFFIX.length()), jarSize);
+                size += jarSize;
+            }
+            prune(null);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "jar store " + directory + " [size=" + getSize() + ", bytesSaved=" + getBytesSaved() + ", timeSavedMillis=" + getTimeSavedMillis()
+            + "]";
+    }
+}
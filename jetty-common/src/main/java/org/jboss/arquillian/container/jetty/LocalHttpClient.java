@@ -0,0 +1,83 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat Middleware LLC, and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.arquillian.container.jetty;
+
+/**
+ * Sends HTTP requests to a deployment through the in-memory {@code LocalConnector} of the server, so neither a port nor
+ * the network stack of the operating system is involved. Client tests get it as an
+ * {@link org.jboss.arquillian.test.api.ArquillianResource} when the container is configured with
+ * {@code localConnectorEnabled}.
+ * <p>
+ * Requests and responses are exchanged as raw HTTP text in ISO-8859-1.
+ */
+public final class LocalHttpClient {
+
+    /**
+     * Hands a raw request to the connector and returns the raw response.
+     */
+    public interface Transport {
+        String getResponse(String rawRequest) throws Exception;
+    }
+
+    private static final String CRLF = "\r\n";
+
+    private final Transport transport;
+
+    private final String contextPath;
+
+    public LocalHttpClient(Transport transport, String contextPath) {
+        this.transport = transport;
+        this.contextPath = contextPath == null || "/".equals(contextPath) ? "" : contextPath;
+    }
+
+    /**
+     * Sends a complete raw HTTP request, headers and body included.
+     *
+     * @param rawRequest the request
+     * @return the raw response, status line and headers included
+     * @throws Exception if the request could not be handled
+     */
+    public String getResponse(String rawRequest) throws Exception {
+        return transport.getResponse(rawRequest);
+    }
+
+    /**
+     * Sends a {@code GET} request for a path of the deployment. HTTP/1.0 is used, so the response body is never chunked
+     * and follows the first empty line.
+     *
+     * @param path the path below the context path of the deployment
+     * @return the raw response, status line and headers included
+     * @throws Exception if the request could not be handled
+     */
+    public String get(String path) throws Exception {
+        return getResponse("GET " + resolve(path) + " HTTP/1.0" + CRLF + CRLF);
+    }
+
+    /**
+     * @return the context path of the deployment, empty for the root context
+     */
+    public String getContextPath() {
+        return contextPath;
+    }
+
+    String resolve(String path) {
+        if (path == null || path.isEmpty()) {
+            return contextPath.isEmpty() ? "/" : contextPath + "/";
+        }
+        return contextPath + (path.startsWith("/") ? path : "/" + path);
+    }
+}
@@ -0,0 +1,333 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat Middleware LLC, and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.arquillian.container.jetty;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import org.jboss.shrinkwrap.api.Archive;
+import org.jboss.shrinkwrap.api.ArchivePath;
+import org.jboss.shrinkwrap.api.Node;
+import org.jboss.shrinkwrap.api.asset.Asset;
+import org.jboss.shrinkwrap.api.exporter.ArchiveExportException;
+
+/**
+ * Exports a ShrinkWrap {@link Archive} as ZIP file, compressing the entries concurrently on a bounded pool of threads
+ * and writing them to the file in archive order.
+ * <p>
+ * Entries can also be written {@link Compression#STORED uncompressed}, which is cheapest when the file is only read
+ * back from the local disk. Neither ZIP64 nor more than 65535 entries are supported, and every entry is held in memory
+ * while it is compressed, so the exporter is only used when enabled by {@code parallelZipExport}. The threads are
+ * shared by all exporters of the JVM.
+ */
+public class ParallelZipExporter {
+
+    /**
+     * How entries are written.
+     */
+    public enum Compression {
+        DEFLATED(8),
+        STORED(0);
+
+        private final int method;
+
+        Compression(int method) {
+            this.method = method;
+        }
+    }
+
+    private static final int LOCAL_FILE_HEADER = 0x04034b50;
+    private static final int CENTRAL_DIRECTORY_HEADER = 0x02014b50;
+    private static final int END_OF_CENTRAL_DIRECTORY = 0x06054b50;
+    private static final int VERSION = 20;
+    private static final int UTF8_NAMES = 0x0800;
+    private static final int DIRECTORY_ATTRIBUTE = 0x10;
+    private static final long MAX_SIZE = 0xFFFFFFFFL;
+    private static final int MAX_ENTRIES = 0xFFFF;
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    /**
+     * Threads compressing entries, shared by every exporter of the JVM and grown to the largest number of threads
+     * requested.
+     */
+    private static final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "arquillian-jetty-zip-" + THREAD_COUNT.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+    static {
+        EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
+    private final Compression compression;
+
+    /**
+     * Entries compressed ahead of the one being written, bounding the memory held by compressed entries.
+     */
+    private final int window;
+
+    /**
+     * @param threads the number of threads compressing entries
+     * @param compression how entries are written
+     */
+    public ParallelZipExporter(int threads, Compression compression) {
+        this.compression = compression;
+        this.window = threads * 2;
+        synchronized (EXECUTOR) {
+            if (EXECUTOR.getMaximumPoolSize() < threads) {
+                EXECUTOR.setMaximumPoolSize(threads);
+                EXECUTOR.setCorePoolSize(threads);
+            }
+        }
+    }
+
+    /**
+     * Exports the archive to the target file, overwriting it if it exists.
+     *
+     * @param archive the archive to export
+     * @param target the ZIP file to write
+     */
+    public void exportTo(Archive<?> archive, File target) {
+        final List<Entry> written = new ArrayList<>();
+        final Queue<Future<Entry>> pending = new ArrayDeque<>();
+        final long time = dosTime(System.currentTimeMillis());
+        try (CountingOutputStream out = new CountingOutputStream(Files.newOutputStream(target.toPath()))) {
+            for (Map.Entry<ArchivePath, Node> node : archive.getContent().entrySet()) {
+                final Asset asset = node.getValue().getAsset();
+                final String name = entryName(node.getKey(), asset == null);
+                pending.add(EXECUTOR.submit(() -> compress(name, asset, time)));
+                if (pending.size() >= window) {
+                    write(pending.remove().get(), out, written);
+                }
+            }
+            while (!pending.isEmpty()) {
+                write(pending.remove().get(), out, written);
+            }
+            writeCentralDirectory(written, out);
+        } catch (IOException | ExecutionException e) {
+            throw new ArchiveExportException("Could not export " + archive.getName() + " to " + target, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ArchiveExportException("Interrupted exporting " + archive.getName() + " to " + target, e);
+        } finally {
+            for (Future<Entry> future : pending) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private Entry compress(String name, Asset asset, long time) throws IOException {
+        final Entry entry = new Entry(name, time);
+        if (asset == null) {
+            entry.method = Compression.STORED.method;
+            entry.data = new byte[0];
+            return entry;
+        }
+        final byte[] content;
+        try (InputStream in = asset.openStream()) {
+            content = readFully(in);
+        }
+        final CRC32 crc = new CRC32();
+        crc.update(content, 0, content.length);
+        entry.crc = crc.getValue();
+        entry.size = content.length;
+        entry.method = compression.method;
+        if (compression == Compression.STORED) {
+            entry.data = content;
+        } else {
+            Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            try {
+                deflater.setInput(content);
+                deflater.finish();
+                ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, content.length / 2));
+                byte[] buffer = new byte[8192];
+                while (!deflater.finished()) {
+                    int length = deflater.deflate(buffer);
+                    compressed.write(buffer, 0, length);
+                }
+                entry.data = compressed.toByteArray();
+            } finally {
+                deflater.end();
+            }
+        }
+        if (entry.size > MAX_SIZE || entry.data.length > MAX_SIZE) {
+            throw new IOException("Entry " + name + " is too large for a ZIP file without ZIP64 support");
+        }
+        return entry;
+    }
+
+    private static void write(Entry entry, CountingOutputStream out, List<Entry> written) throws IOException {
+        if (written.size() >= MAX_ENTRIES) {
+            throw new IOException("More than " + MAX_ENTRIES + " entries are not supported");
+        }
+        entry.offset = out.count;
+        entry.compressedSize = entry.data.length;
+        writeInt(out, LOCAL_FILE_HEADER);
+        writeShort(out, VERSION);
+        writeShort(out, UTF8_NAMES);
+        writeShort(out, entry.method);
+        writeInt(out, entry.time);
+        writeInt(out, entry.crc);
+        writeInt(out, entry.compressedSize);
+        writeInt(out, entry.size);
+        writeShort(out, entry.name.length);
+        writeShort(out, 0);
+        out.write(entry.name);
+        out.write(entry.data);
+        // Only the header is needed for the central directory
+        entry.data = null;
+        written.add(entry);
+    }
+
+    private static void writeCentralDirectory(List<Entry> entries, CountingOutputStream out) throws IOException {
+        final long start = out.count;
+        for (Entry entry : entries) {
+            writeInt(out, CENTRAL_DIRECTORY_HEADER);
+            writeShort(out, VERSION);
+            writeShort(out, VERSION);
+            writeShort(out, UTF8_NAMES);
+            writeShort(out, entry.method);
+            writeInt(out, entry.time);
+            writeInt(out, entry.crc);
+            writeInt(out, entry.compressedSize);
+            writeInt(out, entry.size);
+            writeShort(out, entry.name.length);
+            writeShort(out, 0);
+            writeShort(out, 0);
+            writeShort(out, 0);
+            writeShort(out, 0);
+            writeInt(out, entry.directory ? DIRECTORY_ATTRIBUTE : 0);
+            writeInt(out, entry.offset);
+            out.write(entry.name);
+        }
+        final long size = out.count - start;
+        if (start > MAX_SIZE || out.count > MAX_SIZE) {
+            throw new IOException("Archive is too large for a ZIP file without ZIP64 support");
+        }
+        writeInt(out, END_OF_CENTRAL_DIRECTORY);
+        writeShort(out, 0);
+        writeShort(out, 0);
+        writeShort(out, entries.size());
+        writeShort(out, entries.size());
+        writeInt(out, size);
+        writeInt(out, start);
+        writeShort(out, 0);
+    }
+
+    private static String entryName(ArchivePath path, boolean directory) {
+        String name = path.get();
+        while (name.startsWith(ArchivePath.SEPARATOR_STRING)) {
+            name = name.substring(1);
+        }
+        return directory ? name + ArchivePath.SEPARATOR : name;
+    }
+
+    private static byte[] readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static long dosTime(long millis) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(millis);
+        int year = calendar.get(Calendar.YEAR);
+        if (year < 1980) {
+            return (1 << 21) | (1 << 16);
+        }
+        return (year - 1980) << 25 | (calendar.get(Calendar.MONTH) + 1) << 21 | calendar.get(Calendar.DAY_OF_MONTH) << 16
+            | calendar.get(Calendar.HOUR_OF_DAY) << 11 | calendar.get(Calendar.MINUTE) << 5
+            | calendar.get(Calendar.SECOND) >> 1;
+    }
+
+    private static void writeShort(OutputStream out, int value) throws IOException {
+        out.write(value & 0xFF);
+        out.write((value >>> 8) & 0xFF);
+    }
+
+    private static void writeInt(OutputStream out, long value) throws IOException {
+        out.write((int) (value & 0xFF));
+        out.write((int) ((value >>> 8) & 0xFF));
+        out.write((int) ((value >>> 16) & 0xFF));
+        out.write((int) ((value >>> 24) & 0xFF));
+    }
+
+    private static final class Entry {
+        private final byte[] name;
+        private final boolean directory;
+        private final long time;
+        private int method;
+        private long crc;
+        private long size;
+        private long compressedSize;
+        private long offset;
+        private byte[] data;
+
+        private Entry(String name, long time) {
+            this.name = name.getBytes(StandardCharsets.UTF_8);
+            this.directory = name.endsWith(ArchivePath.SEPARATOR_STRING);
+            this.time = time;
+        }
+    }
+
+    private static final class CountingOutputStream extends BufferedOutputStream {
+        private long count;
+
+        private CountingOutputStream(OutputStream out) {
+            super(out, 65536);
+        }
+
+        @Override
+        public synchronized void write(int b) throws IOException {
+            super.write(b);
+            count++;
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) throws IOException {
+            super.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat Middleware LLC, and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.arquillian.container.jetty;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import org.jboss.shrinkwrap.api.Archive;
+
+/**
+ * A content addressed store of the {@code WEB-INF/quickstart-web.xml} descriptors generated by Jetty's quickstart
+ * module.
+ * <p>
+ * The first deployment of some archive content starts as usual, scanning annotations and descriptors, while the
+ * descriptor is generated into its exploded webapp directory; the descriptor is collected into the store once the
+ * archive is undeployed. Later deployments of the same content get the stored descriptor restored into their webapp
+ * directory, so Jetty can start them without scanning.
+ * <p>
+ * Descriptors are published with an atomic rename, so several JVMs, such as forked test runs, can share one directory.
+ */
+public class QuickStartCache {
+
+    private static final Logger log = Logger.getLogger(QuickStartCache.class.getName());
+
+    /**
+     * The location of the quickstart descriptor in a webapp directory.
+     */
+    public static final String QUICKSTART_WEB_XML = "WEB-INF/quickstart-web.xml";
+
+    private static final String DESCRIPTOR_SUFFIX = ".xml";
+
+    private final Path directory;
+
+    /**
+     * Descriptors still to be generated, keyed by archive name.
+     */
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * @param directory the directory holding the descriptors
+     */
+    public QuickStartCache(File directory) {
+        this.directory = directory.toPath();
+        try {
+            Files.createDirectories(this.directory);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not create quickstart cache directory " + directory, e);
+        }
+    }
+
+    /**
+     * Restores the descriptor stored for the content of the archive into its webapp directory. Without a stored
+     * descriptor any descriptor left in the webapp directory by other content is removed, and the descriptor Jetty
+     * generates is collected by {@link #collect(Archive)}.
+     *
+     * @param archive the archive to deploy
+     * @param webapp the exploded webapp directory of the archive
+     * @return {@code true} if the descriptor has been restored, {@code false} if it has yet to be generated
+     */
+    public boolean restore(Archive<?> archive, File webapp) {
+        return restore(archive, webapp, null);
+    }
+
+    /**
+     * Same as {@link #restore(Archive, File)}, keyed by a digest of the archive content the export computed already.
+     *
+     * @param archive the archive to deploy
+     * @param webapp the exploded webapp directory of the archive
+     * @param contentDigest a digest identifying the name and content of the archive, or {@code null} to digest the
+     * archive
+     * @return {@code true} if the descriptor has been restored, {@code false} if it has yet to be generated
+     */
+    public boolean restore(Archive<?> archive, File webapp, String contentDigest) {
+        final String key = contentDigest != null ? contentDigest
+            : new ArchiveDigest().update(archive.getName()).update(archive).toHex();
+        final Path descriptor = webapp.toPath().resolve(QUICKSTART_WEB_XML);
+        final Path stored = directory.resolve(key + DESCRIPTOR_SUFFIX);
+        try {
+            if (Files.isRegularFile(stored)) {
+                Files.createDirectories(descriptor.getParent());
+                Files.copy(stored, descriptor, StandardCopyOption.REPLACE_EXISTING);
+                hits.incrementAndGet();
+                log.info("Quickstart cache hit for " + archive.getName() + " " + this);
+                return true;
+            }
+            Files.deleteIfExists(descriptor);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not restore the quickstart descriptor of " + archive.getName(), e);
+        }
+        misses.incrementAndGet();
+        pending.put(archive.getName(), new Pending(key, descriptor));
+        log.info("Quickstart cache miss for " + archive.getName() + " " + this);
+        return false;
+    }
+
+    /**
+     * Stores the descriptor generated for an archive that missed the cache, if Jetty generated one.
+     *
+     * @param archive the archive that is undeployed
+     */
+    public void collect(Archive<?> archive) {
+        final Pending generated = pending.remove(archive.getName());
+        if (generated == null || !Files.isRegularFile(generated.descriptor)) {
+            return;
+        }
+        final Path target = directory.resolve(generated.key + DESCRIPTOR_SUFFIX);
+        final Path staging = directory.resolve(generated.key + ".tmp-" + UUID.randomUUID());
+        try {
+            Files.copy(generated.descriptor, staging);
+            try {
+                Files.move(staging, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(staging, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            log.warning("Could not store the quickstart descriptor of " + archive.getName() + ": " + e);
+            try {
+                Files.deleteIfExists(staging);
+            } catch (IOException ignored) {
+                // left for the next run to overwrite
+            }
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    @Override
+    public String toString() {
+        return "[hits=" + hits.get() + ", misses=" + misses.get() + "]";
+    }
+
+    private static final class Pending {
+        private final String key;
+        private final Path descriptor;
+
+        private Pending(String key, Path descriptor) {
+            this.key = key;
+            this.descriptor = descriptor;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat Middleware LLC, and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.arquillian.container.jetty;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.logging.Logger;
+
+/**
+ * Shares running embedded Jetty servers among containers, so containers configured alike deploy into one server rather
+ * than starting and stopping a server of their own.
+ * <p>
+ * Servers are registered by a key derived from the configuration that shapes the server itself: bind address and port,
+ * SSL, h2c, realm and HTTP configuration. Deployment related settings are not part of the key, they apply per
+ * container start. A server is counted as used from its acquisition to its release, and is to be stopped once the
+ * last container using it releases it. As the containers deploy into the same handler collection, each context path
+ * can only be deployed by one of them at a time.
+ */
+public final class ServerRegistry {
+
+    private static final Logger log = Logger.getLogger(ServerRegistry.class.getName());
+
+    private static final Map<String, Registration> SERVERS = new HashMap<>();
+
+    /**
+     * Starts a server for the registry.
+     *
+     * @param <T> the type holding the running server
+     */
+    @FunctionalInterface
+    public interface ServerFactory<T> {
+        T start() throws Exception;
+    }
+
+    private ServerRegistry() {
+    }
+
+    /**
+     * Returns the running server registered for the key, starting and registering a new one if there is none. The
+     * server is started by the first user of the key without holding the registry lock, later users of the key wait
+     * for it to be started and fail alike if it could not be.
+     *
+     * @param key the key of the server, see {@link #key(AbstractJettyEmbeddedConfiguration, Object...)}
+     * @param type the type holding the running server
+     * @param factory starts the server if none is registered for the key
+     * @return the running server
+     * @throws Exception if the server could not be started
+     */
+    public static <T> T acquire(String key, Class<T> type, ServerFactory<T> factory) throws Exception {
+        final Registration registration;
+        final boolean starting;
+        synchronized (SERVERS) {
+            Registration registered = SERVERS.get(key);
+            starting = registered == null;
+            if (starting) {
+                registered = new Registration();
+                SERVERS.put(key, registered);
+            } else {
+                log.info("Reusing running Jetty Embedded Server, acquired " + (registered.acquisitions + 1) + " times, "
+                    + registered.users + " other users");
+            }
+            registered.acquisitions++;
+            registered.users++;
+            registration = registered;
+        }
+        // started outside of the lock, so servers of other keys start meanwhile and users of this key wait for it
+        if (starting) {
+            try {
+                registration.server.complete(factory.start());
+            } catch (Exception | Error e) {
+                synchronized (SERVERS) {
+                    SERVERS.remove(key, registration);
+                }
+                registration.server.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return type.cast(registration.server.get());
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw (Exception) cause;
+        }
+    }
+
+    /**
+     * Releases a server returned by {@link #acquire(String, Class, ServerFactory)}. The server is unregistered once its
+     * last user releases it, and is then returned to be stopped by the caller.
+     *
+     * @param key the key of the server
+     * @param type the type holding the running server
+     * @return the server to stop, or {@code null} if other containers still use it
+     */
+    public static <T> T release(String key, Class<T> type) {
+        synchronized (SERVERS) {
+            Registration registration = SERVERS.get(key);
+            if (registration == null || --registration.users > 0) {
+                return null;
+            }
+            SERVERS.remove(key);
+            return type.cast(registration.server.getNow(null));
+        }
+    }
+
+    /**
+     * Claims a context path on a server for a deployment, as all users of the server deploy into the same handler
+     * collection.
+     *
+     * @param key the key of the server
+     * @param contextPath the context path of the deployment
+     * @param deployment the deployment, releasing the claim by {@link #releaseContextPath(String, Object)}
+     * @return {@code false} if another deployment on the server has the context path
+     */
+    public static boolean claimContextPath(String key, String contextPath, Object deployment) {
+        synchronized (SERVERS) {
+            Registration registration = SERVERS.get(key);
+            if (registration == null) {
+                return true;
+            }
+            Object claimed = registration.contextPaths.get(contextPath);
+            if (claimed != null && claimed != deployment) {
+                return false;
+            }
+            registration.contextPaths.put(contextPath, deployment);
+            return true;
+        }
+    }
+
+    /**
+     * Releases the context path claimed for a deployment.
+     *
+     * @param key the key of the server
+     * @param deployment the undeployed deployment
+     */
+    public static void releaseContextPath(String key, Object deployment) {
+        synchronized (SERVERS) {
+            Registration registration = SERVERS.get(key);
+            if (registration == null) {
+                return;
+            }
+            Iterator<Object> it = registration.contextPaths.values().iterator();
+            while (it.hasNext()) {
+                if (it.next() == deployment) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Derives the key of the server for a container configuration.
+     *
+     * @param config the container configuration
+     * @param serverSettings further settings of the server kept by the version specific configuration, such as the
+     * idle timeout, and the container class
+     * @return the key
+     */
+    public static String key(AbstractJettyEmbeddedConfiguration config, Object... serverSettings) {
+        ArchiveDigest digest = new ArchiveDigest()
+            .update(config.getBindAddress())
+            .update(String.valueOf(config.getBindHttpPort()))
+            .update(String.valueOf(config.isSsl()))
+            .update(absolutePath(config.getKeystorePath()))
+            .update(config.getKeystorePassword())
+            .update(absolutePath(config.getTrustStorePath()))
+            .update(config.getTrustStorePassword())
+            .update(String.valueOf(config.isNeedClientAuth()))
+            .update(String.valueOf(config.isSniRequired()))
+            .update(String.valueOf(config.isSniHostCheck()))
+            .update(String.valueOf(config.isH2cEnabled()))
+            .update(String.valueOf(config.isH2Enabled()))
+            .update(config.getHttp2MaxConcurrentStreams() + "/" + config.getHttp2InitialSessionRecvWindow() + "/"
+                + config.getHttp2InitialStreamRecvWindow() + "/" + config.getHttp2HpackTableCapacity() + "/"
+                + config.getHttp2MaxFrameSize() + "/" + config.getHttp2RateControlMaxEventsPerSecond())
+            .update(config.isRealmPropertiesFileSet() ? config.getRealmProperties().getAbsolutePath() : null)
+            .update(config.isHeaderBufferSizeSet() ? String.valueOf(config.getHeaderBufferSize()) : null)
+            .update(config.getRequestCookieCompliance())
+            .update(config.getResponseCookieCompliance())
+            .update(sorted(config.getHttpConfigurationProperties()))
+            .update(config.areInferredEncodings() ? sorted(config.getInferredEncodings()) : null)
+            .update(config.getConfigurationClasses())
+            .update(config.getMinThreads() + "/" + config.getMaxThreads() + "/" + config.getReservedThreads())
+            .update(config.getAcceptors() + "/" + config.getSelectors() + "/" + config.getAcceptQueueSize())
+            .update(config.isReuseAddress() + "/" + config.isAcceptedTcpNoDelay())
+            .update(String.valueOf(config.isLocalConnectorEnabled()))
+            .update(config.isCompressionEnabled() + "/" + config.getCompressionMinSize() + "/"
+                + Arrays.toString(config.getCompressionMimeTypes()) + "/" + config.getCompressionDeflaterPoolCapacity() + "/"
+                + config.getCompressionLevel());
+        for (Object setting : serverSettings) {
+            digest.update(String.valueOf(setting));
+        }
+        return digest.toHex();
+    }
+
+    static int getUsers(String key) {
+        synchronized (SERVERS) {
+            Registration registration = SERVERS.get(key);
+            return registration == null ? 0 : registration.users;
+        }
+    }
+
+    private static String absolutePath(String path) {
+        return path == null ? null : new File(path).getAbsolutePath();
+    }
+
+    private static String sorted(Map<String, String> map) {
+        return map == null ? null : new TreeMap<>(map).toString();
+    }
+
+    private static final class Registration {
+        private final CompletableFuture<Object> server = new CompletableFuture<>();
+        private int users;
+        private int acquisitions;
+        private final Map<String, Object> contextPaths = new HashMap<>();
+    }
+}
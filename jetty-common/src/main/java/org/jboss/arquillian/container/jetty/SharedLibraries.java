@@ -0,0 +1,277 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat Middleware LLC, and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.arquillian.container.jetty;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+import org.jboss.shrinkwrap.api.Archive;
+import org.jboss.shrinkwrap.api.ArchivePath;
+import org.jboss.shrinkwrap.api.Node;
+import org.jboss.shrinkwrap.api.asset.Asset;
+
+/**
+ * Loads {@code WEB-INF/lib} jars that many deployments have in common once, through a class loader that all webapp class
+ * loaders use as parent, instead of defining their classes again for every deployment.
+ * <p>
+ * A jar is shared if its file name matches the configured pattern, or, if enabled, once a jar with identical content
+ * is found in a second deployment. The jars stay in {@code WEB-INF/lib} so they are still scanned for annotations and
+ * web fragments, but must be left out of the class path of the webapp class loader, see {@link #isShared(URL, Set)}, so
+ * their classes and resources are found once, through the shared class loader.
+ * <p>
+ * A deployment bringing a jar that differs from the shared ones but defines classes in their packages, such as another
+ * version of a shared library, would silently get the shared classes, at least with the {@code JAVA_SPEC} class loader
+ * behavior. It is deployed with a class loader of its own instead, without the shared class loader as parent, and a
+ * warning names the conflicting jars.
+ */
+public class SharedLibraries {
+
+    private static final Logger log = Logger.getLogger(SharedLibraries.class.getName());
+
+    private static final String LIBRARY_PREFIX = "/WEB-INF/lib/";
+
+    private final Path directory;
+
+    private final Pattern pattern;
+
+    private final boolean shareIdentical;
+
+    /**
+     * Names of the archives each library was found in, by digest
+     */
+    private final Map<String, Set<String>> foundIn = new HashMap<>();
+
+    private final Set<String> shared = new HashSet<>();
+
+    /**
+     * File names of the shared jars by the classes they define, such as {@code org/example/Foo.class}
+     */
+    private final Map<String, String> sharedClasses = new HashMap<>();
+
+    /**
+     * File names of the shared jars by the packages they define classes in, such as {@code org/example/}
+     */
+    private final Map<String, String> sharedPackages = new HashMap<>();
+
+    private SharedClassLoader classLoader;
+
+    /**
+     * @param directory the directory the shared jars are written to
+     * @param pattern the pattern matching the file names of jars to share, or {@code null}
+     * @param shareIdentical whether jars found with identical content in several deployments are shared
+     */
+    public SharedLibraries(File directory, Pattern pattern, boolean shareIdentical) {
+        this.directory = directory.toPath();
+        this.pattern = pattern;
+        this.shareIdentical = shareIdentical;
+    }
+
+    /**
+     * Adds the libraries of the archive that are to be shared to the shared class loader.
+     *
+     * @param archive the archive about to be deployed
+     * @return the file names of the libraries of the archive that are loaded by the shared class loader, or {@code null}
+     * if a library of the archive conflicts with the shared ones, in which case the archive must be deployed with a class
+     * loader of its own, without the shared class loader as parent
+     */
+    public synchronized Set<String> share(Archive<?> archive) {
+        final Map<String, Asset> libraries = new LinkedHashMap<>();
+        for (Map.Entry<ArchivePath, Node> entry : archive.getContent().entrySet()) {
+            final String path = entry.getKey().get();
+            final Asset asset = entry.getValue().getAsset();
+            if (asset != null && path.startsWith(LIBRARY_PREFIX) && path.endsWith(".jar")) {
+                libraries.put(path, asset);
+            }
+        }
+        final Map<String, String> digests = new HashMap<>();
+        if (!sharedPackages.isEmpty()) {
+            for (Map.Entry<String, Asset> library : libraries.entrySet()) {
+                final String path = library.getKey();
+                final String digest = new ArchiveDigest().update(path, library.getValue()).toHex();
+                digests.put(path, digest);
+                final String conflict = shared.contains(digest) ? null : findConflict(library.getValue());
+                if (conflict != null) {
+                    log.warning(path.substring(path.lastIndexOf('/') + 1) + " of " + archive.getName() + " " + conflict
+                        + ", so " + archive.getName() + " is deployed without the shared library class loader");
+                    return null;
+                }
+            }
+        }
+        final Set<String> names = new HashSet<>();
+        for (Map.Entry<String, Asset> library : libraries.entrySet()) {
+            final String path = library.getKey();
+            final Asset asset = library.getValue();
+            final String name = path.substring(path.lastIndexOf('/') + 1);
+            final boolean matches = pattern != null && pattern.matcher(name).matches();
+            if (!matches && !shareIdentical) {
+                continue;
+            }
+            final String digest = digests.computeIfAbsent(path, p -> new ArchiveDigest().update(p, asset).toHex());
+            final Set<String> archives = foundIn.computeIfAbsent(digest, d -> new HashSet<>());
+            archives.add(archive.getName());
+            if (!shared.contains(digest) && (matches || archives.size() > 1) && add(digest, name, asset)) {
+                log.info("Sharing " + name + " of " + archive.getName() + " through the shared library class loader");
+            }
+            if (shared.contains(digest)) {
+                names.add(name);
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Tells whether a class path entry of a webapp class loader is a library loaded by the shared class loader.
+     *
+     * @param url the class path entry
+     * @param names the file names returned by {@link #share(Archive)} for the deployment
+     * @return {@code true} if the entry is to be left out of the class path of the webapp class loader
+     */
+    public static boolean isShared(URL url, Set<String> names) {
+        String path = url.toExternalForm();
+        if (path.endsWith("!/")) {
+            path = path.substring(0, path.length() - 2);
+        }
+        return path.contains(LIBRARY_PREFIX) && names.contains(path.substring(path.lastIndexOf('/') + 1));
+    }
+
+    /**
+     * @return the class loader to use as parent of the webapp class loaders
+     */
+    public synchronized ClassLoader getClassLoader() {
+        if (classLoader == null) {
+            // The parent Jetty would otherwise give the webapp class loader
+            ClassLoader parent = Thread.currentThread().getContextClassLoader();
+            classLoader = new SharedClassLoader(parent != null ? parent : SharedLibraries.class.getClassLoader());
+        }
+        return classLoader;
+    }
+
+    private boolean add(String digest, String name, Asset asset) {
+        final Path jar = directory.resolve(digest + "-" + name);
+        try {
+            if (!Files.isRegularFile(jar)) {
+                Files.createDirectories(directory);
+                Path staging = Files.createTempFile(directory, digest, ".tmp");
+                try (InputStream in = asset.openStream()) {
+                    Files.copy(in, staging, StandardCopyOption.REPLACE_EXISTING);
+                }
+                Files.move(staging, jar, StandardCopyOption.REPLACE_EXISTING);
+            }
+            if (isProvidedByParent(jar)) {
+                // Its classes are loaded from the server class path anyway, a second copy would only duplicate resources
+                log.fine("Not sharing " + name + ", the server class path provides it");
+                return false;
+            }
+            ((SharedClassLoader) getClassLoader()).addURL(jar.toUri().toURL());
+            shared.add(digest);
+            try (JarFile jarFile = new JarFile(jar.toFile())) {
+                Enumeration<JarEntry> entries = jarFile.entries();
+                while (entries.hasMoreElements()) {
+                    String entryName = entries.nextElement().getName();
+                    if (isClass(entryName)) {
+                        sharedClasses.put(entryName, name);
+                        sharedPackages.put(entryName.substring(0, entryName.lastIndexOf('/') + 1), name);
+                    }
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            log.warning("Could not share " + name + ", it is loaded by the webapp class loader: " + e);
+            return false;
+        }
+    }
+
+    /**
+     * @return what a library that is not shared has in common with the shared ones, or {@code null} if it can be loaded
+     * side by side with them
+     */
+    private String findConflict(Asset library) {
+        try (ZipInputStream in = new ZipInputStream(library.openStream())) {
+            ZipEntry entry;
+            while ((entry = in.getNextEntry()) != null) {
+                final String entryName = entry.getName();
+                if (!isClass(entryName)) {
+                    continue;
+                }
+                if (sharedClasses.containsKey(entryName)) {
+                    return "defines " + entryName + " like the shared " + sharedClasses.get(entryName);
+                }
+                final String packageName = entryName.substring(0, entryName.lastIndexOf('/') + 1);
+                if (sharedPackages.containsKey(packageName)) {
+                    return "defines classes in " + packageName + " like the shared " + sharedPackages.get(packageName);
+                }
+            }
+            return null;
+        } catch (IOException e) {
+            return "could not be read to compare it with the shared libraries: " + e;
+        }
+    }
+
+    /**
+     * @return whether the jar entry is a class of a named package, multi-release variants and module descriptors aside
+     */
+    private static boolean isClass(String entryName) {
+        return entryName.endsWith(".class") && entryName.indexOf('/') > 0 && !entryName.startsWith("META-INF/");
+    }
+
+    private boolean isProvidedByParent(Path jar) throws IOException {
+        try (JarFile jarFile = new JarFile(jar.toFile())) {
+            Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                String entryName = entries.nextElement().getName();
+                if (entryName.endsWith(".class") && !entryName.startsWith("META-INF/")) {
+                    return getClassLoader().getParent().getResource(entryName) != null;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static final class SharedClassLoader extends URLClassLoader {
+
+        static {
+            ClassLoader.registerAsParallelCapable();
+        }
+
+        private SharedClassLoader(ClassLoader parent) {
+            super(new URL[0], parent);
+        }
+
+        @Override
+        protected void addURL(URL url) {
+            super.addURL(url);
+        }
+    }
+}
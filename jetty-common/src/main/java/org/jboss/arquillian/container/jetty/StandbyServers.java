@@ -0,0 +1,168 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat Middleware LLC, and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.arquillian.container.jetty;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+
+/**
+ * Starts servers in the background, while the current container runs, so the next container start with the same
+ * server configuration takes a started and warmed up server instead of waiting for one.
+ * <p>
+ * Only one standby server is kept per key, see {@link ServerRegistry#key(AbstractJettyEmbeddedConfiguration, Object...)}.
+ * It has to bind to a random port, as it runs alongside the server of the current container. A standby server that is
+ * not taken within a timeout after the container preparing it stopped is stopped, so the last one prepared in a run
+ * does not keep running until the JVM exits.
+ */
+public final class StandbyServers {
+
+    private static final Logger log = Logger.getLogger(StandbyServers.class.getName());
+
+    private static final String WARM_UP_ARCHIVE_NAME = "arquillian-jetty-warm-up.war";
+
+    private static final Map<String, Standby<?>> STANDBY = new HashMap<>();
+
+    private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "arquillian-jetty-standby");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private StandbyServers() {
+    }
+
+    /**
+     * Stops a standby server that was never taken.
+     *
+     * @param <T> the type holding the running server
+     */
+    @FunctionalInterface
+    public interface ServerStopper<T> {
+        void stop(T server) throws Exception;
+    }
+
+    /**
+     * Starts a standby server in the background, unless one is already started or being started for the key.
+     *
+     * @param key the key of the server
+     * @param factory starts and warms up the server
+     * @param stopper stops the server if it is not taken in time, see {@link #expire(String, long)}
+     */
+    public static <T> void prepare(String key, ServerRegistry.ServerFactory<T> factory, ServerStopper<T> stopper) {
+        synchronized (STANDBY) {
+            if (!STANDBY.containsKey(key)) {
+                STANDBY.put(key, new Standby<>(EXECUTOR.submit(() -> {
+                    final long start = System.nanoTime();
+                    T server = factory.start();
+                    log.info("Standby Jetty Embedded Server ready after "
+                        + (System.nanoTime() - start) / 1_000_000 + " ms");
+                    return server;
+                }), stopper));
+            }
+        }
+    }
+
+    /**
+     * Stops the standby server prepared for the key unless it is taken within the timeout, which is called for when the
+     * container that prepared it stops.
+     *
+     * @param key the key of the server
+     * @param timeoutMillis how long the standby server waits to be taken
+     */
+    public static void expire(String key, long timeoutMillis) {
+        synchronized (STANDBY) {
+            final Standby<?> standby = STANDBY.get(key);
+            if (standby != null && standby.expiry == null) {
+                standby.expiry = EXECUTOR.schedule(() -> stop(key, standby), timeoutMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Takes the standby server prepared for the key, waiting for it if it is still being started.
+     *
+     * @param key the key of the server
+     * @param type the type holding the running server
+     * @return the standby server, or {@code null} if none was prepared or it could not be started
+     * @throws InterruptedException if interrupted while waiting for the standby server
+     */
+    public static <T> T take(String key, Class<T> type) throws InterruptedException {
+        final Standby<?> standby;
+        synchronized (STANDBY) {
+            standby = STANDBY.remove(key);
+            if (standby != null && standby.expiry != null) {
+                standby.expiry.cancel(false);
+            }
+        }
+        if (standby == null) {
+            return null;
+        }
+        try {
+            return type.cast(standby.server.get());
+        } catch (ExecutionException e) {
+            log.warning("Could not start standby Jetty Embedded Server, starting a new one: " + e.getCause());
+            return null;
+        }
+    }
+
+    private static <T> void stop(String key, Standby<T> standby) {
+        synchronized (STANDBY) {
+            if (STANDBY.get(key) != standby) {
+                return;
+            }
+            STANDBY.remove(key);
+        }
+        try {
+            standby.stopper.stop(standby.server.get());
+            log.info("Stopped standby Jetty Embedded Server, no container took it over");
+        } catch (ExecutionException e) {
+            // never started, nothing to stop
+        } catch (Exception e) {
+            log.warning("Could not stop standby Jetty Embedded Server: " + e);
+        }
+    }
+
+    /**
+     * @return a minimal web archive to take a standby server through a deployment and undeployment
+     */
+    public static WebArchive createWarmUpArchive() {
+        return ShrinkWrap.create(WebArchive.class, WARM_UP_ARCHIVE_NAME)
+            .addAsWebResource(new StringAsset("warm-up"), "index.html");
+    }
+
+    private static final class Standby<T> {
+        private final Future<T> server;
+        private final ServerStopper<T> stopper;
+        private ScheduledFuture<?> expiry;
+
+        private Standby(Future<T> server, ServerStopper<T> stopper) {
+            this.server = server;
+            this.stopper = stopper;
+        }
+    }
+}
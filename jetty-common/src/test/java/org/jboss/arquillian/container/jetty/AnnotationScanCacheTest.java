@@ -0,0 +1,91 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat Middleware LLC, and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.arquillian.container.jetty;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+
+/**
+ * Tests for {@link AnnotationScanCache}.
+ */
+public class AnnotationScanCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void shouldReplayRecordedScanAcrossCacheInstances() throws Exception {
+        Path jar = createJar("lib.jar", "content", 0L);
+        AnnotationScanCache cache = new AnnotationScanCache(tempDir.resolve("cache").toFile());
+        String key = cache.key(jar);
+        assertThat(cache.get(key), nullValue());
+
+        AnnotationScanCache.Recorder recorder = new AnnotationScanCache.Recorder();
+        recorder.classFound("org.example.HelloServlet", 52, 1, null, "jakarta.servlet.http.HttpServlet", new String[0]);
+        recorder.classAnnotated("org.example.HelloServlet", "jakarta.servlet.annotation.WebServlet");
+        recorder.methodAnnotated("org.example.HelloServlet", "init", 1, "()V", null, null, "jakarta.annotation.PostConstruct");
+        cache.put(key, recorder, 1000L);
+
+        // as seen by a forked JVM sharing the cache directory
+        AnnotationScanCache fork = new AnnotationScanCache(tempDir.resolve("cache").toFile());
+        AnnotationScanCache.Entry entry = fork.get(fork.key(jar));
+        assertThat(entry.getClasses().size(), is(1));
+        AnnotationScanCache.ScannedClass scanned = entry.getClasses().get(0);
+        assertThat(scanned.getName(), is("org.example.HelloServlet"));
+        assertThat(scanned.getSuperName(), is("jakarta.servlet.http.HttpServlet"));
+        assertThat(scanned.getSignature(), nullValue());
+        assertThat(scanned.getAnnotations(), contains("jakarta.servlet.annotation.WebServlet"));
+        assertThat(scanned.getMethods().get(0).getDescriptor(), is("()V"));
+        assertThat(scanned.getMethods().get(0).getAnnotations(), contains("jakarta.annotation.PostConstruct"));
+        assertThat(fork.getHits(), is(1L));
+    }
+
+    @Test
+    public void shouldKeyJarsByEntryContent() throws Exception {
+        AnnotationScanCache cache = new AnnotationScanCache(tempDir.resolve("cache").toFile());
+        Path first = createJar("first.jar", "content", 0L);
+        Path reexported = createJar("reexported.jar", "content", 1_000_000_000_000L);
+        Path changed = createJar("changed.jar", "changed", 0L);
+
+        assertThat("time stamps of a new export are ignored", cache.key(reexported), is(cache.key(first)));
+        assertThat(cache.key(changed), not(cache.key(first)));
+    }
+
+    private Path createJar(String name, String content, long time) throws Exception {
+        Path jar = tempDir.resolve(name);
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(jar))) {
+            ZipEntry entry = new ZipEntry("org/example/Hello.class");
+            entry.setTime(time);
+            out.putNextEntry(entry);
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+            out.closeEntry();
+        }
+        return jar;
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat Middleware LLC, and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.arquillian.container.jetty;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.ByteArrayAsset;
+import org.jboss.shrinkwrap.api.asset.EmptyAsset;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Tests for {@link BeanArchiveDetector}.
+ */
+public class BeanArchiveDetectorTest {
+
+    @Test
+    public void shouldDetectBeansXmlOfWebappAndLibraries() {
+        assertThat(BeanArchiveDetector.containsBeanArchive(servletArchive()), is(false));
+        assertThat(BeanArchiveDetector.containsBeanArchive(
+            servletArchive().addAsWebInfResource(EmptyAsset.INSTANCE, "beans.xml")), is(true));
+        assertThat(BeanArchiveDetector.containsBeanArchive(servletArchive().addAsWebInfResource(
+            new StringAsset("<beans bean-discovery-mode=\"none\"/>"), "beans.xml")), is(false));
+        assertThat(BeanArchiveDetector.containsBeanArchive(servletArchive().addAsLibrary(
+            ShrinkWrap.create(JavaArchive.class, "beans.jar").addAsManifestResource(EmptyAsset.INSTANCE, "beans.xml"))),
+            is(true));
+    }
+
+    @Test
+    public void shouldDetectBeanDefiningAnnotations() throws Exception {
+        assertThat(BeanArchiveDetector.containsBeanArchive(servletArchive()
+            .add(classFile("Ljakarta/enterprise/context/RequestScoped;"), "/WEB-INF/classes/Bean.class")), is(true));
+
+        ByteArrayOutputStream jar = new ByteArrayOutputStream();
+        try (ZipOutputStream out = new ZipOutputStream(jar)) {
+            out.putNextEntry(new ZipEntry("org/acme/Bean.class"));
+            out.write(classFile("Ljavax/enterprise/context/ApplicationScoped;").getSource());
+        }
+        assertThat(BeanArchiveDetector.containsBeanArchive(servletArchive()
+            .add(new ByteArrayAsset(jar.toByteArray()), "/WEB-INF/lib/acme.jar")), is(true));
+
+        assertThat(BeanArchiveDetector.refersToCdi(
+            "Ljakarta/servlet/http/HttpServlet;".getBytes(StandardCharsets.US_ASCII)), is(false));
+    }
+
+    @Test
+    public void shouldDetectInjectionAndLookupsWithoutBeanDefiningAnnotations() {
+        assertThat(BeanArchiveDetector.containsBeanArchive(servletArchive()
+            .add(classFile("Ljakarta/inject/Inject;"), "/WEB-INF/classes/InjectedServlet.class")), is(true));
+        assertThat(BeanArchiveDetector.containsBeanArchive(servletArchive()
+            .add(classFile("jakarta/enterprise/inject/spi/CDI"), "/WEB-INF/classes/LookupServlet.class")), is(true));
+    }
+
+    @Test
+    public void shouldDetectExtensionOnlyArchives() throws Exception {
+        assertThat(BeanArchiveDetector.containsBeanArchive(servletArchive().addAsLibrary(
+            ShrinkWrap.create(JavaArchive.class, "extension.jar").addAsServiceProvider(
+                "jakarta.enterprise.inject.spi.Extension", "org.acme.AcmeExtension"))), is(true));
+        assertThat(BeanArchiveDetector.containsBeanArchive(servletArchive().addAsResource(
+            new StringAsset("org.acme.AcmeExtension"), "META-INF/services/javax.enterprise.inject.spi.Extension")),
+            is(true));
+
+        ByteArrayOutputStream jar = new ByteArrayOutputStream();
+        try (ZipOutputStream out = new ZipOutputStream(jar)) {
+            out.putNextEntry(new ZipEntry("META-INF/services/jakarta.enterprise.inject.spi.Extension"));
+            out.write("org.acme.AcmeExtension".getBytes(StandardCharsets.US_ASCII));
+        }
+        assertThat(BeanArchiveDetector.containsBeanArchive(servletArchive()
+            .add(new ByteArrayAsset(jar.toByteArray()), "/WEB-INF/lib/extension.jar")), is(true));
+    }
+
+    @Test
+    public void shouldDetectBeansDefinedByStereotypesAndCustomScopes() {
+        assertThat(BeanArchiveDetector.containsBeanArchive(servletArchive()
+            .add(classFile("Ljakarta/enterprise/inject/Stereotype;"), "/WEB-INF/classes/org/acme/Action.class")
+            .add(classFile("Lorg/acme/Action;"), "/WEB-INF/classes/org/acme/Bean.class")), is(true));
+        assertThat(BeanArchiveDetector.containsBeanArchive(servletArchive()
+            .add(classFile("Ljavax/enterprise/context/NormalScope;"), "/WEB-INF/classes/org/acme/TenantScoped.class")),
+            is(true));
+    }
+
+    private static WebArchive servletArchive() {
+        return ShrinkWrap.create(WebArchive.class, "servlet.war")
+            .add(classFile("Ljakarta/servlet/http/HttpServlet;"), "/WEB-INF/classes/MyServlet.class")
+            .addAsLibrary(ShrinkWrap.create(JavaArchive.class, "plain.jar")
+                .add(classFile("Ljava/lang/Object;"), "/org/acme/Plain.class"));
+    }
+
+    /**
+     * Stands in for a class file whose constant pool holds the given descriptor.
+     */
+    private static ByteArrayAsset classFile(String descriptor) {
+        return new ByteArrayAsset(("\u00ca\u00fe\u00ba\u00be" + descriptor).getBytes(StandardCharsets.ISO_8859_1));
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat Middleware LLC, and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.arquillian.container.jetty;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.arquillian.container.spi.Container;
+import org.jboss.arquillian.container.spi.ContainerRegistry;
+import org.jboss.arquillian.container.spi.client.container.DeployableContainer;
+import org.jboss.arquillian.container.spi.client.deployment.DeploymentDescription;
+import org.jboss.arquillian.container.spi.client.deployment.DeploymentScenario;
+import org.jboss.arquillian.container.spi.client.deployment.TargetDescription;
+import org.jboss.shrinkwrap.api.Archive;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for {@link ConcurrentDeployments}.
+ */
+public class ConcurrentDeploymentsTest {
+
+    @Test
+    public void shouldStartPendingDeploymentsAtTheSameTime() throws Exception {
+        final Archive<?> first = ShrinkWrap.create(WebArchive.class, "first.war");
+        final Archive<?> second = ShrinkWrap.create(WebArchive.class, "second.war");
+        final CountDownLatch started = new CountDownLatch(2);
+        ConcurrentDeployments<String> deployments = new ConcurrentDeployments<>(2, archive -> {
+            started.countDown();
+            // completes only if the other archive is being deployed meanwhile
+            if (!started.await(10, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("deployed one after the other");
+            }
+            return Thread.currentThread().getName() + " " + archive.getName();
+        }, (archive, deployment) -> {
+        });
+
+        deployments.prefetch(Arrays.<Archive<?>>asList(first, second));
+
+        assertThat(deployments.take(first), startsWith("arquillian-jetty-deploy-"));
+        deployments.prefetch(Collections.<Archive<?>>singletonList(second));
+        assertThat(deployments.take(second).endsWith("second.war"), is(true));
+        deployments.close();
+    }
+
+    @Test
+    public void shouldDeployOnCallingThreadWithoutConcurrency() throws Exception {
+        final Archive<?> first = ShrinkWrap.create(WebArchive.class, "first.war");
+        final Archive<?> second = ShrinkWrap.create(WebArchive.class, "second.war");
+        ConcurrentDeployments<String> deployments = new ConcurrentDeployments<>(1,
+            archive -> Thread.currentThread().getName(), (archive, deployment) -> {
+            });
+
+        deployments.prefetch(Arrays.<Archive<?>>asList(first, second));
+
+        assertThat(deployments.take(first), is(Thread.currentThread().getName()));
+        deployments.close();
+    }
+
+    @Test
+    public void shouldUndeployDeploymentsNeverTaken() throws Exception {
+        final Archive<?> first = ShrinkWrap.create(WebArchive.class, "first.war");
+        final Archive<?> second = ShrinkWrap.create(WebArchive.class, "second.war");
+        final Archive<?> next = ShrinkWrap.create(WebArchive.class, "next.war");
+        final Archive<?> last = ShrinkWrap.create(WebArchive.class, "last.war");
+        final List<String> undeployed = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch deployed = new CountDownLatch(4);
+        final CountDownLatch started = new CountDownLatch(2);
+        ConcurrentDeployments<String> deployments = new ConcurrentDeployments<>(2, archive -> {
+            deployed.countDown();
+            // the first two return once both are started, so none of them can be cancelled before it runs
+            started.countDown();
+            started.await(10, TimeUnit.SECONDS);
+            return archive.getName();
+        }, (archive, deployment) -> undeployed.add(deployment));
+
+        deployments.prefetch(Arrays.<Archive<?>>asList(first, second));
+        deployments.take(first);
+        // the next test class, the second archive was never deployed
+        deployments.prefetch(Arrays.<Archive<?>>asList(next, last));
+        assertThat(undeployed, contains("second.war"));
+
+        assertThat(awaitCount(deployed, 0), is(true));
+
+        deployments.close();
+        assertThat(undeployed, containsInAnyOrder("second.war", "next.war", "last.war"));
+    }
+
+    @Test
+    public void shouldUndeployDeploymentsStillStartingWhenClosed() throws Exception {
+        final Archive<?> first = ShrinkWrap.create(WebArchive.class, "first.war");
+        final Archive<?> second = ShrinkWrap.create(WebArchive.class, "second.war");
+        final List<String> undeployed = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch starting = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        ConcurrentDeployments<String> deployments = new ConcurrentDeployments<>(2, archive -> {
+            if (archive == second) {
+                starting.countDown();
+                release.await(10, TimeUnit.SECONDS);
+            }
+            return archive.getName();
+        }, (archive, deployment) -> undeployed.add(deployment));
+
+        deployments.prefetch(Arrays.<Archive<?>>asList(first, second));
+        deployments.take(first);
+        assertThat(starting.await(10, TimeUnit.SECONDS), is(true));
+        Thread closing = new Thread(deployments::close);
+        closing.start();
+        // still starting while it is discarded
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (closing.isAlive() && closing.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+        closing.join(TimeUnit.SECONDS.toMillis(10));
+
+        assertThat(undeployed, contains("second.war"));
+    }
+
+    @Test
+    public void shouldNotStartArchivesSharingContextPathAtTheSameTime() throws Exception {
+        final Archive<?> first = ShrinkWrap.create(WebArchive.class, "same.war");
+        final Archive<?> second = ShrinkWrap.create(WebArchive.class, "same.war");
+        final AtomicInteger deploying = new AtomicInteger();
+        final AtomicInteger overlaps = new AtomicInteger();
+        ConcurrentDeployments<String> deployments = new ConcurrentDeployments<>(2, archive -> {
+            if (deploying.incrementAndGet() > 1) {
+                overlaps.incrementAndGet();
+            }
+            Thread.sleep(100);
+            deploying.decrementAndGet();
+            return Thread.currentThread().getName();
+        }, (archive, deployment) -> {
+        });
+
+        deployments.prefetch(Arrays.<Archive<?>>asList(first, second));
+        assertThat(deployments.take(first), startsWith("arquillian-jetty-deploy-"));
+        deployments.prefetch(Collections.<Archive<?>>singletonList(second));
+
+        // left to the calling thread once the first is deployed
+        assertThat(deployments.take(second), is(Thread.currentThread().getName()));
+        assertThat(overlaps.get(), is(0));
+        deployments.close();
+    }
+
+    @Test
+    public void shouldFailTakeOfFailedDeploymentAndUndeployTheOthers() throws Exception {
+        final Archive<?> first = ShrinkWrap.create(WebArchive.class, "first.war");
+        final Archive<?> second = ShrinkWrap.create(WebArchive.class, "second.war");
+        final IllegalStateException failure = new IllegalStateException("first failed");
+        final List<String> undeployed = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch started = new CountDownLatch(2);
+        ConcurrentDeployments<String> deployments = new ConcurrentDeployments<>(2, archive -> {
+            // both run before either completes, so the second can not be cancelled before it runs
+            started.countDown();
+            if (!started.await(10, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("deployed one after the other");
+            }
+            if (archive == first) {
+                throw failure;
+            }
+            return archive.getName();
+        }, (archive, deployment) -> undeployed.add(deployment));
+
+        deployments.prefetch(Arrays.<Archive<?>>asList(first, second));
+
+        assertThat(assertThrows(IllegalStateException.class, () -> deployments.take(first)), sameInstance(failure));
+        // Arquillian does not deploy the rest of the test class after a failure
+        deployments.close();
+        assertThat(undeployed, contains("second.war"));
+    }
+
+    @Test
+    public void shouldListPendingArchivesOfTheNextOrderOnly() {
+        final Archive<?> first = ShrinkWrap.create(WebArchive.class, "first.war");
+        final Archive<?> second = ShrinkWrap.create(WebArchive.class, "second.war");
+        final Archive<?> later = ShrinkWrap.create(WebArchive.class, "later.war");
+        final DeployableContainer<?> container = proxy(DeployableContainer.class, null, null);
+        final Container target = proxy(Container.class, "getDeployableContainer", container);
+        final ContainerRegistry registry = proxy(ContainerRegistry.class, "getContainer", target);
+        final DeploymentScenario scenario = new DeploymentScenario()
+            .addDeployment(new DeploymentDescription("later", later).setOrder(2).setTarget(TargetDescription.DEFAULT))
+            .addDeployment(new DeploymentDescription("first", first).setOrder(1).setTarget(TargetDescription.DEFAULT))
+            .addDeployment(new DeploymentDescription("second", second).setOrder(1).setTarget(TargetDescription.DEFAULT));
+
+        assertThat(ConcurrentDeployments.pendingArchives(scenario, registry, container),
+            containsInAnyOrder(first, second));
+    }
+
+    /**
+     * @return a proxy answering calls of the named method with the given result
+     */
+    private static <T> T proxy(Class<T> type, String methodName, Object result) {
+        return type.cast(Proxy.newProxyInstance(ConcurrentDeploymentsTest.class.getClassLoader(), new Class<?>[] {type},
+            (proxy, method, args) -> method.getName().equals(methodName) ? result : null));
+    }
+
+    private static boolean awaitCount(CountDownLatch latch, long count) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (latch.getCount() > count) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat Middleware LLC, and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.arquillian.container.jetty;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
+
+/**
+ * Tests for {@link DeploymentCache}.
+ */
+public class DeploymentCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void shouldReuseExportForSameContent() {
+        DeploymentCache cache = new DeploymentCache(tempDir.toFile(), Long.MAX_VALUE);
+
+        File first = cache.acquire(createArchive("test.war", "hello"), null);
+        cache.release(first);
+        File second = cache.acquire(createArchive("test.war", "hello"), null);
+
+        assertThat(second, is(first));
+        assertThat(second.getName(), is("test.war"));
+        DeploymentCache.Statistics stats = cache.getStatistics().values().iterator().next();
+        assertThat(stats.getHits(), is(1L));
+        assertThat(stats.getMisses(), is(1L));
+    }
+
+    @Test
+    public void shouldExportChangedContentAgain() {
+        DeploymentCache cache = new DeploymentCache(tempDir.toFile(), Long.MAX_VALUE);
+
+        File first = cache.acquire(createArchive("test.war", "hello"), "export");
+        File second = cache.acquire(createArchive("test.war", "changed"), "export");
+
+        assertThat(second, not(first));
+        assertThat(first.getName(), startsWith("export"));
+        assertThat(first.getName(), endsWith("test.war"));
+        assertThat(cache.getStatistics().size(), is(2));
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedReleasedEntries() {
+        DeploymentCache cache = new DeploymentCache(tempDir.toFile(), 1);
+
+        File first = cache.acquire(createArchive("first.war", "hello"), null);
+        File second = cache.acquire(createArchive("second.war", "hello"), null);
+        assertThat("leased entries are kept", first.isDirectory(), is(true));
+
+        cache.release(first);
+        assertThat(first.exists(), is(false));
+        assertThat(second.isDirectory(), is(true));
+    }
+
+    @Test
+    public void shouldPickUpEntriesOfEarlierRuns() {
+        File first = new DeploymentCache(tempDir.toFile(), Long.MAX_VALUE).acquire(createArchive("test.war", "hello"), null);
+
+        DeploymentCache cache = new DeploymentCache(tempDir.toFile(), Long.MAX_VALUE);
+        File second = cache.acquire(createArchive("test.war", "hello"), null);
+
+        assertThat(second, is(first));
+        assertThat(cache.getStatistics().values().iterator().next().getHits(), is(1L));
+    }
+
+    @Test
+    public void shouldKeepEntriesLeasedByAnotherCache() throws Exception {
+        DeploymentCache leasing = new DeploymentCache(tempDir.toFile(), Long.MAX_VALUE);
+        File leased = leasing.acquire(createArchive("test.war", "hello"), null);
+        Path staging = Files.createDirectories(tempDir.resolve(leased.getParentFile().getName() + ".tmp-exporting"));
+        Path stale = Files.createDirectories(tempDir.resolve("0123456789abcdef.tmp-stale"));
+
+        new DeploymentCache(tempDir.toFile(), 0);
+
+        assertThat(leased.isDirectory(), is(true));
+        assertThat(Files.isDirectory(staging), is(true));
+        assertThat(Files.exists(stale), is(false));
+
+        leasing.release(leased);
+        new DeploymentCache(tempDir.toFile(), 0);
+        assertThat(leased.exists(), is(false));
+        assertThat(Files.exists(staging), is(false));
+    }
+
+    private static WebArchive createArchive(String name, String content) {
+        return ShrinkWrap.create(WebArchive.class, name)
+            .addAsWebResource(new StringAsset(content), "index.html")
+            .addAsLibrary(ShrinkWrap.create(JavaArchive.class, "lib.jar")
+                .addAsManifestResource(new StringAsset(content), "marker.txt"));
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat Middleware LLC, and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.arquillian.container.jetty;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.jar.JarFile;
+
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+
+/**
+ * Tests for {@link ExplodedArchiveExporter}.
+ */
+public class ExplodedArchiveExporterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void shouldWriteAssetsAsFiles() throws Exception {
+        WebArchive war = ShrinkWrap.create(WebArchive.class, "root.war")
+            .addAsWebResource(new StringAsset("hello"), "index.html")
+            .addAsWebInfResource(new StringAsset("<web-app/>"), "web.xml");
+
+        File exploded = new ExplodedArchiveExporter().export(war, tempDir.resolve(war.getName()).toFile());
+
+        assertThat(exploded.isDirectory(), is(true));
+        assertThat(exploded.getName(), is("root.war"));
+        assertThat(new String(Files.readAllBytes(exploded.toPath().resolve("index.html")), StandardCharsets.UTF_8),
+            is("hello"));
+        assertThat(Files.isRegularFile(exploded.toPath().resolve("WEB-INF/web.xml")), is(true));
+    }
+
+    @Test
+    public void shouldKeepLibrariesAsJarFiles() throws Exception {
+        JavaArchive lib = ShrinkWrap.create(JavaArchive.class, "lib.jar")
+            .addAsManifestResource(new StringAsset("marker"), "marker.txt");
+        WebArchive war = ShrinkWrap.create(WebArchive.class, "test.war").addAsLibrary(lib);
+
+        File exploded = new ExplodedArchiveExporter().export(war, tempDir.resolve(war.getName()).toFile());
+
+        Path jar = exploded.toPath().resolve("WEB-INF/lib/lib.jar");
+        assertThat(Files.isRegularFile(jar), is(true));
+        try (JarFile jarFile = new JarFile(jar.toFile())) {
+            assertThat(jarFile.getEntry("META-INF/marker.txt"), notNullValue());
+        }
+    }
+
+    @Test
+    public void shouldReplacePreviousContent() throws Exception {
+        File directory = tempDir.resolve("test.war").toFile();
+        new ExplodedArchiveExporter().export(
+            ShrinkWrap.create(WebArchive.class).addAsWebResource(new StringAsset("old"), "old.html"), directory);
+
+        new ExplodedArchiveExporter().export(
+            ShrinkWrap.create(WebArchive.class).addAsWebResource(new StringAsset("new"), "new.html"), directory);
+
+        assertThat(Files.exists(directory.toPath().resolve("old.html")), is(false));
+        assertThat(Files.exists(directory.toPath().resolve("new.html")), is(true));
+    }
+
+    @Test
+    public void shouldOnlyWriteChangedEntriesIncrementally() throws Exception {
+        File directory = tempDir.resolve("test.war").toFile();
+        ExplodedArchiveExporter exporter = new ExplodedArchiveExporter();
+        exporter.exportIncrementally(createIncrementalArchive("lib")
+            .addAsWebResource(new StringAsset("removed"), "removed.html"), directory);
+        Path unchanged = directory.toPath().resolve("unchanged.html");
+        Files.write(unchanged, "not rewritten".getBytes(StandardCharsets.UTF_8));
+
+        exporter.exportIncrementally(createIncrementalArchive("lib")
+            .addAsWebResource(new StringAsset("added"), "added.html"), directory);
+
+        assertThat(new String(Files.readAllBytes(unchanged), StandardCharsets.UTF_8), is("not rewritten"));
+        assertThat(Files.exists(directory.toPath().resolve("removed.html")), is(false));
+        assertThat(Files.isRegularFile(directory.toPath().resolve("added.html")), is(true));
+    }
+
+    @Test
+    public void shouldExportFullyWhenLibrariesChange() throws Exception {
+        File directory = tempDir.resolve("test.war").toFile();
+        ExplodedArchiveExporter exporter = new ExplodedArchiveExporter();
+        exporter.exportIncrementally(createIncrementalArchive("lib"), directory);
+        Path unchanged = directory.toPath().resolve("unchanged.html");
+        Files.write(unchanged, "stale".getBytes(StandardCharsets.UTF_8));
+
+        exporter.exportIncrementally(createIncrementalArchive("changed lib"), directory);
+
+        assertThat(new String(Files.readAllBytes(unchanged), StandardCharsets.UTF_8), is("unchanged"));
+    }
+
+    @Test
+    public void shouldLockDirectoryForOneExportAtATime() {
+        File directory = tempDir.resolve("export.war").toFile();
+
+        assertThat(ExplodedArchiveExporter.tryLock(directory), is(true));
+        assertThat(ExplodedArchiveExporter.tryLock(directory), is(false));
+
+        ExplodedArchiveExporter.unlock(directory);
+        assertThat(ExplodedArchiveExporter.tryLock(directory), is(true));
+        ExplodedArchiveExporter.unlock(directory);
+    }
+
+    @Test
+    public void shouldLinkLibrariesFromJarStore() throws Exception {
+        JarStore jarStore = new JarStore(tempDir.resolve("jar-store").toFile(), 0);
+        ExplodedArchiveExporter exporter = new ExplodedArchiveExporter(jarStore);
+
+        File first = exporter.export(createIncrementalArchive("lib"), tempDir.resolve("first.war").toFile());
+        File second = exporter.export(createIncrementalArchive("lib"), tempDir.resolve("second.war").toFile());
+
+        Path firstJar = first.toPath().resolve("WEB-INF/lib/lib.jar");
+        Path secondJar = second.toPath().resolve("WEB-INF/lib/lib.jar");
+        assertThat(Files.isSameFile(firstJar, secondJar), is(true));
+        assertThat(jarStore.getBytesSaved(), is(Files.size(secondJar)));
+    }
+
+    private static WebArchive createIncrementalArchive(String libraryContent) {
+        return ShrinkWrap.create(WebArchive.class, "test.war")
+            .addAsWebResource(new StringAsset("unchanged"), "unchanged.html")
+            .addAsLibrary(ShrinkWrap.create(JavaArchive.class, "lib.jar")
+                .addAsManifestResource(new StringAsset(libraryContent), "marker.txt"));
+    }
+}
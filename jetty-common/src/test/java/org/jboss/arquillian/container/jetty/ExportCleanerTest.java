@@ -0,0 +1,77 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat Middleware LLC, and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.arquillian.container.jetty;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Tests for {@link ExportCleaner}.
+ */
+public class ExportCleanerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void shouldWaitForEarlierDeletionsBeyondBudget() throws Exception {
+        File first = createExport("first.war");
+        File second = createExport("second.war");
+        ExportCleaner cleaner = new ExportCleaner(0);
+
+        cleaner.delete(first);
+        for (int i = 0; i < 100 && cleaner.getPending() == 0 && first.exists(); i++) {
+            Thread.sleep(10);
+        }
+        cleaner.delete(second);
+
+        // the first export exceeded the budget, the second undeploy waited until it was deleted
+        assertThat(first.exists(), is(false));
+        for (int i = 0; i < 100 && second.exists(); i++) {
+            Thread.sleep(50);
+        }
+        assertThat(second.exists(), is(false));
+        assertThat(cleaner.getPending(), is(0L));
+    }
+
+    @Test
+    public void shouldDeleteInBackgroundWithinBudget() throws Exception {
+        File export = createExport("test.war");
+        ExportCleaner cleaner = new ExportCleaner(Long.MAX_VALUE);
+
+        cleaner.delete(export);
+
+        for (int i = 0; i < 100 && export.exists(); i++) {
+            Thread.sleep(50);
+        }
+        assertThat(export.exists(), is(false));
+        assertThat(cleaner.getPending(), is(0L));
+    }
+
+    private File createExport(String name) throws Exception {
+        Path export = Files.createDirectories(tempDir.resolve(name).resolve("WEB-INF"));
+        Files.write(export.resolve("web.xml"), "<web-app/>".getBytes());
+        return export.getParent().toFile();
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat Middleware LLC, and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.arquillian.container.jetty;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.jboss.shrinkwrap.api.asset.ByteArrayAsset;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Tests for {@link JarStore}.
+ */
+public class JarStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void shouldPruneLeastRecentlyLinkedJars() throws Exception {
+        File directory = tempDir.resolve("jar-store").toFile();
+        JarStore jarStore = new JarStore(directory, 2500);
+        Files.createDirectories(tempDir.resolve("webapp"));
+
+        jarStore.link("/WEB-INF/lib/first.jar", jar(1), tempDir.resolve("webapp/first.jar"));
+        jarStore.link("/WEB-INF/lib/second.jar", jar(2), tempDir.resolve("webapp/second.jar"));
+        jarStore.link("/WEB-INF/lib/first.jar", jar(1), tempDir.resolve("webapp/first-again.jar"));
+        jarStore.link("/WEB-INF/lib/third.jar", jar(3), tempDir.resolve("webapp/third.jar"));
+
+        assertThat(jarStore.getSize(), is(2000L));
+        assertThat(directory.list().length, is(2));
+        // linked webapps keep the pruned jar
+        assertThat(Files.size(tempDir.resolve("webapp/second.jar")), is(1000L));
+        // and it is stored again when needed
+        assertThat(jarStore.link("/WEB-INF/lib/second.jar", jar(2), tempDir.resolve("webapp/second-again.jar")),
+            is(-1L));
+    }
+
+    @Test
+    public void shouldPruneJarsOfEarlierRunsFirst() throws Exception {
+        File directory = tempDir.resolve("jar-store").toFile();
+        Files.createDirectories(tempDir.resolve("webapp"));
+        new JarStore(directory, 0).link("/WEB-INF/lib/first.jar", jar(1), tempDir.resolve("webapp/first.jar"));
+
+        JarStore jarStore = new JarStore(directory, 1500);
+        assertThat(jarStore.getSize(), is(1000L));
+        jarStore.link("/WEB-INF/lib/second.jar", jar(2), tempDir.resolve("webapp/second.jar"));
+
+        assertThat(jarStore.getSize(), is(1000L));
+        assertThat(directory.list().length, is(1));
+    }
+
+    private static ByteArrayAsset jar(int content) {
+        byte[] bytes = new byte[1000];
+        bytes[0] = (byte) content;
+        return new ByteArrayAsset(bytes);
+    }
+}
@@ -1,11 +1,17 @@
 package org.jboss.arquillian.container.jetty;
 
+import org.jboss.arquillian.container.spi.ConfigurationException;
 import org.junit.jupiter.api.Test;
 
 import java.util.Map;
+import java.util.regex.Pattern;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class JettyEmbeddedConfigurationTest {
 
@@ -22,4 +28,66 @@ public class JettyEmbeddedConfigurationTest {
         assertThat(mimeTypes.get("txt"), is("text/plain"));
         assertThat(mimeTypes.get("html"), is("text/html"));
     }
+
+    @Test
+    public void shouldRejectThreadPoolTooSmallForAcceptorsAndSelectors() {
+        DummyJettyEmbeddedConfiguration dummyJettyEmbeddedConfiguration = new DummyJettyEmbeddedConfiguration();
+        dummyJettyEmbeddedConfiguration.setMinThreads(4);
+        dummyJettyEmbeddedConfiguration.setMaxThreads(8);
+        dummyJettyEmbeddedConfiguration.setAcceptors(2);
+        dummyJettyEmbeddedConfiguration.setSelectors(4);
+        dummyJettyEmbeddedConfiguration.validate();
+
+        dummyJettyEmbeddedConfiguration.setSelectors(6);
+        assertThrows(ConfigurationException.class, dummyJettyEmbeddedConfiguration::validate);
+
+        dummyJettyEmbeddedConfiguration.setSelectors(4);
+        dummyJettyEmbeddedConfiguration.setMinThreads(16);
+        assertThrows(ConfigurationException.class, dummyJettyEmbeddedConfiguration::validate);
+    }
+
+    @Test
+    public void shouldRequireSslForHttp2() {
+        DummyJettyEmbeddedConfiguration dummyJettyEmbeddedConfiguration = new DummyJettyEmbeddedConfiguration();
+        dummyJettyEmbeddedConfiguration.setH2Enabled(true);
+        assertThrows(ConfigurationException.class, dummyJettyEmbeddedConfiguration::validate);
+
+        dummyJettyEmbeddedConfiguration.setSsl(true);
+        dummyJettyEmbeddedConfiguration.validate();
+    }
+
+    @Test
+    public void shouldRequireExplodedExportForQuickstart() {
+        DummyJettyEmbeddedConfiguration dummyJettyEmbeddedConfiguration = new DummyJettyEmbeddedConfiguration();
+        dummyJettyEmbeddedConfiguration.setQuickstart(true);
+        assertThrows(ConfigurationException.class, dummyJettyEmbeddedConfiguration::validate);
+
+        dummyJettyEmbeddedConfiguration.setExportExploded(true);
+        dummyJettyEmbeddedConfiguration.validate();
+    }
+
+    @Test
+    public void shouldRejectQuickstartWithDeploymentCache() {
+        DummyJettyEmbeddedConfiguration dummyJettyEmbeddedConfiguration = new DummyJettyEmbeddedConfiguration();
+        dummyJettyEmbeddedConfiguration.setQuickstart(true);
+        dummyJettyEmbeddedConfiguration.setExportExploded(true);
+        dummyJettyEmbeddedConfiguration.setDeploymentCacheMaxSizeMb(64);
+        assertThrows(ConfigurationException.class, dummyJettyEmbeddedConfiguration::validate);
+    }
+
+    @Test
+    public void shouldSkipTestInfrastructureJarsByDefault() {
+        DummyJettyEmbeddedConfiguration dummyJettyEmbeddedConfiguration = new DummyJettyEmbeddedConfiguration();
+        Pattern webInfIncludeJarPattern = Pattern.compile(dummyJettyEmbeddedConfiguration.getWebInfIncludeJarPattern());
+        assertTrue(webInfIncludeJarPattern.matcher("file:///tmp/app.war/WEB-INF/lib/weld-core-impl-5.1.2.Final.jar").matches());
+        assertTrue(webInfIncludeJarPattern.matcher("file:///tmp/app.war/WEB-INF/lib/arquillian-jakarta-servlet-protocol.jar").matches());
+        assertFalse(webInfIncludeJarPattern.matcher("file:///tmp/app.war/WEB-INF/lib/arquillian-core.jar").matches());
+        assertFalse(webInfIncludeJarPattern.matcher("file:///tmp/app.war/WEB-INF/lib/junit-4.13.2.jar").matches());
+        assertFalse(webInfIncludeJarPattern.matcher("jar:file:///tmp/app.war/WEB-INF/lib/shrinkwrap-api.jar!/").matches());
+
+        dummyJettyEmbeddedConfiguration.setWebInfIncludeJarPattern(" ");
+        assertNull(dummyJettyEmbeddedConfiguration.getWebInfIncludeJarPattern());
+        assertThrows(ConfigurationException.class,
+            () -> dummyJettyEmbeddedConfiguration.setContainerIncludeJarPattern(".*/jakarta.servlet-api-[^/]*\\.jar$,(unclosed"));
+    }
 }
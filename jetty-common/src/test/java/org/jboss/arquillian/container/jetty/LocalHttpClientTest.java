@@ -0,0 +1,55 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat Middleware LLC, and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.arquillian.container.jetty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Tests for {@link LocalHttpClient}.
+ */
+public class LocalHttpClientTest {
+
+    @Test
+    public void shouldSendGetRequestBelowContextPath() throws Exception {
+        final List<String> requests = new ArrayList<>();
+        LocalHttpClient client = new LocalHttpClient(request -> {
+            requests.add(request);
+            return "HTTP/1.1 200 OK\r\n\r\n";
+        }, "/test");
+
+        assertThat(client.get("Test"), is("HTTP/1.1 200 OK\r\n\r\n"));
+        client.get("/Test?x=1");
+
+        assertThat(requests, contains("GET /test/Test HTTP/1.0\r\n\r\n", "GET /test/Test?x=1 HTTP/1.0\r\n\r\n"));
+    }
+
+    @Test
+    public void shouldResolvePathsOfRootContext() {
+        LocalHttpClient client = new LocalHttpClient(request -> null, "/");
+
+        assertThat(client.getContextPath(), is(""));
+        assertThat(client.resolve(""), is("/"));
+        assertThat(client.resolve("Test"), is("/Test"));
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat Middleware LLC, and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.arquillian.container.jetty;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Scanner;
+import java.util.jar.JarInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+
+/**
+ * Tests for {@link ParallelZipExporter}.
+ */
+public class ParallelZipExporterTest {
+
+    private static final int PAGES = 500;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void shouldExportDeflated() throws Exception {
+        assertExport(ParallelZipExporter.Compression.DEFLATED, ZipEntry.DEFLATED);
+    }
+
+    @Test
+    public void shouldExportStored() throws Exception {
+        assertExport(ParallelZipExporter.Compression.STORED, ZipEntry.STORED);
+    }
+
+    private void assertExport(ParallelZipExporter.Compression compression, int method) throws Exception {
+        WebArchive war = ShrinkWrap.create(WebArchive.class, "test.war")
+            .addAsLibrary(ShrinkWrap.create(JavaArchive.class, "lib.jar")
+                .addAsManifestResource(new StringAsset("marker"), "marker.txt"));
+        for (int i = 0; i < PAGES; i++) {
+            war.addAsWebResource(new StringAsset("page " + i), "pages/" + i + ".html");
+        }
+        File target = tempDir.resolve(war.getName()).toFile();
+
+        new ParallelZipExporter(4, compression).exportTo(war, target);
+
+        try (ZipFile zip = new ZipFile(target)) {
+            assertThat(zip.size(), is(war.getContent().size()));
+            for (int i = 0; i < PAGES; i++) {
+                ZipEntry page = zip.getEntry("pages/" + i + ".html");
+                assertThat(page.getMethod(), is(method));
+                assertThat(read(zip.getInputStream(page)), is("page " + i));
+            }
+            assertThat(zip.getEntry("pages/").isDirectory(), is(true));
+            try (JarInputStream lib = new JarInputStream(zip.getInputStream(zip.getEntry("WEB-INF/lib/lib.jar")))) {
+                ZipEntry entry = lib.getNextEntry();
+                while (entry != null && !entry.getName().equals("META-INF/marker.txt")) {
+                    entry = lib.getNextEntry();
+                }
+                assertThat(entry, notNullValue());
+            }
+        }
+    }
+
+    private static String read(InputStream in) {
+        try (Scanner scanner = new Scanner(in, "UTF-8")) {
+            return scanner.useDelimiter("\\A").next();
+        }
+    }
+}
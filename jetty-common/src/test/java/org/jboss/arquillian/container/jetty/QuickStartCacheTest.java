@@ -0,0 +1,80 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat Middleware LLC, and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.arquillian.container.jetty;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Tests for {@link QuickStartCache}.
+ */
+public class QuickStartCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void shouldRestoreGeneratedDescriptorForSameContent() throws Exception {
+        QuickStartCache cache = new QuickStartCache(tempDir.resolve("cache").toFile());
+        File first = tempDir.resolve("first.war").toFile();
+        File second = tempDir.resolve("second.war").toFile();
+
+        assertThat(cache.restore(createArchive("hello"), first), is(false));
+        // stands in for the descriptor Jetty generates while starting the webapp
+        Path generated = first.toPath().resolve(QuickStartCache.QUICKSTART_WEB_XML);
+        Files.createDirectories(generated.getParent());
+        Files.write(generated, "<web-app/>".getBytes(StandardCharsets.UTF_8));
+        cache.collect(createArchive("hello"));
+
+        assertThat(cache.restore(createArchive("hello"), second), is(true));
+        assertThat(new String(Files.readAllBytes(second.toPath().resolve(QuickStartCache.QUICKSTART_WEB_XML)),
+            StandardCharsets.UTF_8), is("<web-app/>"));
+        assertThat(cache.getHits(), is(1L));
+        assertThat(cache.getMisses(), is(1L));
+    }
+
+    @Test
+    public void shouldRemoveDescriptorOfOtherContent() throws Exception {
+        QuickStartCache cache = new QuickStartCache(tempDir.resolve("cache").toFile());
+        File webapp = tempDir.resolve("test.war").toFile();
+        Path stale = webapp.toPath().resolve(QuickStartCache.QUICKSTART_WEB_XML);
+        Files.createDirectories(stale.getParent());
+        Files.write(stale, "<web-app/>".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(cache.restore(createArchive("changed"), webapp), is(false));
+        assertThat(Files.exists(stale), is(false));
+
+        cache.collect(createArchive("changed"));
+        assertThat(cache.restore(createArchive("changed"), webapp), is(false));
+    }
+
+    private static WebArchive createArchive(String content) {
+        return ShrinkWrap.create(WebArchive.class, "test.war")
+            .add(new StringAsset(content), "index.html");
+    }
+}
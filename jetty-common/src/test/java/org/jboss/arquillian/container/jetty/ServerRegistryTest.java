@@ -0,0 +1,148 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat Middleware LLC, and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.arquillian.container.jetty;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for {@link ServerRegistry}.
+ */
+public class ServerRegistryTest {
+
+    @Test
+    public void shouldReuseServerStartedForSameKey() throws Exception {
+        String key = ServerRegistry.key(new DummyJettyEmbeddedConfiguration(), "shouldReuseServerStartedForSameKey");
+        AtomicInteger starts = new AtomicInteger();
+
+        Object first = ServerRegistry.acquire(key, Object.class, () -> {
+            starts.incrementAndGet();
+            return new Object();
+        });
+        Object second = ServerRegistry.acquire(key, Object.class, () -> {
+            starts.incrementAndGet();
+            return new Object();
+        });
+
+        assertThat(second, is(sameInstance(first)));
+        assertThat(starts.get(), is(1));
+        assertThat(ServerRegistry.getUsers(key), is(2));
+        assertThat(ServerRegistry.release(key, Object.class), is(nullValue()));
+        assertThat(ServerRegistry.getUsers(key), is(1));
+    }
+
+    @Test
+    public void shouldHandOutServerToStopOnLastRelease() throws Exception {
+        String key = ServerRegistry.key(new DummyJettyEmbeddedConfiguration(), "shouldHandOutServerToStopOnLastRelease");
+        Object server = ServerRegistry.acquire(key, Object.class, Object::new);
+        ServerRegistry.acquire(key, Object.class, Object::new);
+
+        assertThat(ServerRegistry.release(key, Object.class), is(nullValue()));
+        assertThat(ServerRegistry.release(key, Object.class), is(sameInstance(server)));
+        assertThat(ServerRegistry.getUsers(key), is(0));
+        assertThat(ServerRegistry.acquire(key, Object.class, Object::new), is(not(sameInstance(server))));
+        ServerRegistry.release(key, Object.class);
+    }
+
+    @Test
+    public void shouldStartServersOfOtherKeysWhileOneIsStarting() throws Exception {
+        String starting = ServerRegistry.key(new DummyJettyEmbeddedConfiguration(), "shouldStartServersOfOtherKeysWhileOneIsStarting");
+        String other = ServerRegistry.key(new DummyJettyEmbeddedConfiguration(), "other");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            Future<Object> first = executor.submit(() -> ServerRegistry.acquire(starting, Object.class, () -> {
+                started.countDown();
+                release.await(10, TimeUnit.SECONDS);
+                return new Object();
+            }));
+            assertThat(started.await(10, TimeUnit.SECONDS), is(true));
+            Future<Object> second = executor.submit(() -> ServerRegistry.acquire(starting, Object.class, Object::new));
+
+            // not blocked by the server still starting
+            Object server = executor.submit(() -> ServerRegistry.acquire(other, Object.class, Object::new))
+                .get(5, TimeUnit.SECONDS);
+            assertThat(ServerRegistry.release(other, Object.class), is(sameInstance(server)));
+
+            release.countDown();
+            assertThat(second.get(10, TimeUnit.SECONDS), is(sameInstance(first.get(10, TimeUnit.SECONDS))));
+            assertThat(ServerRegistry.getUsers(starting), is(2));
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+        ServerRegistry.release(starting, Object.class);
+        ServerRegistry.release(starting, Object.class);
+    }
+
+    @Test
+    public void shouldUnregisterServerFailingToStart() throws Exception {
+        String key = ServerRegistry.key(new DummyJettyEmbeddedConfiguration(), "shouldUnregisterServerFailingToStart");
+        IllegalStateException failure = new IllegalStateException("port in use");
+
+        assertThat(assertThrows(IllegalStateException.class, () -> ServerRegistry.acquire(key, Object.class, () -> {
+            throw failure;
+        })), is(sameInstance(failure)));
+        assertThat(ServerRegistry.getUsers(key), is(0));
+
+        Object server = ServerRegistry.acquire(key, Object.class, Object::new);
+        assertThat(ServerRegistry.release(key, Object.class), is(sameInstance(server)));
+    }
+
+    @Test
+    public void shouldRejectContextPathDeployedByAnotherContainer() throws Exception {
+        String key = ServerRegistry.key(new DummyJettyEmbeddedConfiguration(), "shouldRejectContextPathDeployedByAnotherContainer");
+        ServerRegistry.acquire(key, Object.class, Object::new);
+        Object first = new Object();
+        Object second = new Object();
+
+        assertThat(ServerRegistry.claimContextPath(key, "/test", first), is(true));
+        assertThat(ServerRegistry.claimContextPath(key, "/test", second), is(false));
+        assertThat(ServerRegistry.claimContextPath(key, "/other", second), is(true));
+
+        ServerRegistry.releaseContextPath(key, first);
+        assertThat(ServerRegistry.claimContextPath(key, "/test", second), is(true));
+        ServerRegistry.release(key, Object.class);
+    }
+
+    @Test
+    public void shouldKeyOnServerConfigurationOnly() {
+        DummyJettyEmbeddedConfiguration config = new DummyJettyEmbeddedConfiguration();
+        String key = ServerRegistry.key(config);
+
+        config.setExportExploded(true);
+        config.setDeleteExportOnUndeploy(true);
+        assertThat(ServerRegistry.key(config), is(key));
+
+        config.setBindHttpPort(8181);
+        assertThat(ServerRegistry.key(config), is(not(key)));
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat Middleware LLC, and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.arquillian.container.jetty;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+/**
+ * Tests for {@link SharedLibraries}.
+ */
+public class SharedLibrariesTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void shouldShareMatchingLibraries() throws Exception {
+        SharedLibraries libraries = new SharedLibraries(tempDir.toFile(), Pattern.compile("shared-.*\\.jar"), false);
+
+        Set<String> shared = libraries.share(createArchive("first.war", "shared-lib.jar"));
+        libraries.share(createArchive("first.war", "other-lib.jar"));
+
+        assertThat(shared, contains("shared-lib.jar"));
+        assertThat(urlCount(libraries), is(1));
+        assertThat(libraries.getClassLoader().getResource("lib.txt"), is(notNullValue()));
+    }
+
+    @Test
+    public void shouldShareIdenticalLibrariesOnceFoundInSecondDeployment() throws Exception {
+        SharedLibraries libraries = new SharedLibraries(tempDir.toFile(), null, true);
+
+        libraries.share(createArchive("first.war", "lib.jar"));
+        assertThat(urlCount(libraries), is(0));
+
+        libraries.share(createArchive("first.war", "lib.jar"));
+        assertThat(urlCount(libraries), is(0));
+
+        libraries.share(createArchive("second.war", "lib.jar"));
+        libraries.share(createArchive("third.war", "lib.jar"));
+        assertThat(urlCount(libraries), is(1));
+    }
+
+    @Test
+    public void shouldNotShareWithDeploymentBringingOtherVersionOfSharedLibrary() throws Exception {
+        SharedLibraries libraries = new SharedLibraries(tempDir.toFile(), Pattern.compile("lib-.*\\.jar"), false);
+
+        assertThat(libraries.share(createArchive("first.war", "lib-1.0.jar", "org/example/Library.class", "1.0")),
+            contains("lib-1.0.jar"));
+        assertThat(libraries.share(createArchive("second.war", "lib-2.0.jar", "org/example/Library.class", "2.0")),
+            is(nullValue()));
+        assertThat(libraries.share(createArchive("third.war", "lib-1.0.jar", "org/example/Library.class", "1.0")),
+            contains("lib-1.0.jar"));
+        assertThat(urlCount(libraries), is(1));
+    }
+
+    @Test
+    public void shouldNotShareWithDeploymentDefiningClassesInSharedPackage() throws Exception {
+        SharedLibraries libraries = new SharedLibraries(tempDir.toFile(), Pattern.compile("lib-.*\\.jar"), false);
+
+        libraries.share(createArchive("first.war", "lib-1.0.jar", "org/example/Library.class", "1.0"));
+
+        assertThat(libraries.share(createArchive("second.war", "other.jar", "org/example/Other.class", "other")),
+            is(nullValue()));
+        assertThat(libraries.share(createArchive("third.war", "other.jar", "org/other/Other.class", "other")),
+            is(Collections.<String>emptySet()));
+    }
+
+    @Test
+    public void shouldRecognizeSharedClassPathEntries() throws Exception {
+        Set<String> shared = Collections.singleton("lib.jar");
+
+        assertThat(SharedLibraries.isShared(new URL("file:/tmp/test/WEB-INF/lib/lib.jar"), shared), is(true));
+        assertThat(SharedLibraries.isShared(new URL("jar:file:/tmp/test/WEB-INF/lib/lib.jar!/"), shared), is(true));
+        assertThat(SharedLibraries.isShared(new URL("file:/tmp/test/WEB-INF/lib/other.jar"), shared), is(false));
+        assertThat(SharedLibraries.isShared(new URL("file:/tmp/test/WEB-INF/classes/"), shared), is(false));
+    }
+
+    private static int urlCount(SharedLibraries libraries) {
+        return ((URLClassLoader) libraries.getClassLoader()).getURLs().length;
+    }
+
+    private static WebArchive createArchive(String name, String libraryName, String className, String content) {
+        return ShrinkWrap.create(WebArchive.class, name)
+            .addAsLibrary(ShrinkWrap.create(JavaArchive.class, libraryName)
+                .add(new StringAsset(content), className));
+    }
+
+    private static WebArchive createArchive(String name, String libraryName) {
+        return ShrinkWrap.create(WebArchive.class, name)
+            .addAsLibrary(ShrinkWrap.create(JavaArchive.class, libraryName)
+                .addAsResource(new StringAsset("library"), "lib.txt"));
+    }
+}
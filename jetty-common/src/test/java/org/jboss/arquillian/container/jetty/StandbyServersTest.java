@@ -0,0 +1,74 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat Middleware LLC, and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.arquillian.container.jetty;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+/**
+ * Tests for {@link StandbyServers}.
+ */
+public class StandbyServersTest {
+
+    @Test
+    public void shouldHandOutPreparedServerOnce() throws Exception {
+        StandbyServers.prepare("shouldHandOutPreparedServerOnce", () -> "standby", server -> {
+        });
+
+        assertThat(StandbyServers.take("shouldHandOutPreparedServerOnce", String.class), is("standby"));
+        assertThat(StandbyServers.take("shouldHandOutPreparedServerOnce", String.class), is(nullValue()));
+    }
+
+    @Test
+    public void shouldHandOutNothingIfStandbyServerFailed() throws Exception {
+        StandbyServers.prepare("shouldHandOutNothingIfStandbyServerFailed", () -> {
+            throw new IllegalStateException("port in use");
+        }, server -> {
+        });
+
+        assertThat(StandbyServers.take("shouldHandOutNothingIfStandbyServerFailed", String.class), is(nullValue()));
+    }
+
+    @Test
+    public void shouldStopStandbyServerNotTakenInTime() throws Exception {
+        final CountDownLatch stopped = new CountDownLatch(1);
+        StandbyServers.prepare("shouldStopStandbyServerNotTakenInTime", () -> "standby", server -> stopped.countDown());
+
+        StandbyServers.expire("shouldStopStandbyServerNotTakenInTime", 0);
+
+        assertThat(stopped.await(10, TimeUnit.SECONDS), is(true));
+        assertThat(StandbyServers.take("shouldStopStandbyServerNotTakenInTime", String.class), is(nullValue()));
+    }
+
+    @Test
+    public void shouldKeepStandbyServerTakenInTime() throws Exception {
+        final AtomicBoolean stopped = new AtomicBoolean();
+        StandbyServers.prepare("shouldKeepStandbyServerTakenInTime", () -> "standby", server -> stopped.set(true));
+
+        StandbyServers.expire("shouldKeepStandbyServerTakenInTime", TimeUnit.MINUTES.toMillis(1));
+
+        assertThat(StandbyServers.take("shouldKeepStandbyServerTakenInTime", String.class), is("standby"));
+        assertThat(stopped.get(), is(false));
+    }
+}
@@ -33,27 +33,41 @@ import org.eclipse.jetty.http.MimeTypes;
 import org.eclipse.jetty.security.HashLoginService;
 import org.eclipse.jetty.server.ConnectionFactory;
 import org.eclipse.jetty.server.Connector;
+import org.eclipse.jetty.server.Handler;
 import org.eclipse.jetty.server.HttpConfiguration;
 import org.eclipse.jetty.server.HttpConnectionFactory;
+import org.eclipse.jetty.server.LocalConnector;
 import org.eclipse.jetty.server.Server;
 import org.eclipse.jetty.server.ServerConnector;
 import org.eclipse.jetty.server.handler.ContextHandler;
 import org.eclipse.jetty.server.handler.ContextHandlerCollection;
 import org.eclipse.jetty.server.handler.DefaultHandler;
+import org.eclipse.jetty.server.handler.gzip.GzipHandler;
 import org.eclipse.jetty.server.handler.HandlerList;
 import org.eclipse.jetty.servlet.ServletHandler;
 import org.eclipse.jetty.servlet.ServletHolder;
 import org.eclipse.jetty.util.TypeUtil;
+import org.eclipse.jetty.util.compression.CompressionPool;
+import org.eclipse.jetty.util.compression.DeflaterPool;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.eclipse.jetty.util.thread.ThreadPool;
 import org.eclipse.jetty.webapp.WebAppContext;
+import org.jboss.arquillian.container.jetty.ConcurrentDeployments;
 import org.jboss.arquillian.container.jetty.EnvUtil;
+import org.jboss.arquillian.container.jetty.LocalHttpClient;
+import org.jboss.arquillian.container.jetty.ServerRegistry;
+import org.jboss.arquillian.container.jetty.StandbyServers;
+import org.jboss.arquillian.container.spi.ContainerRegistry;
 import org.jboss.arquillian.container.spi.client.container.DeployableContainer;
 import org.jboss.arquillian.container.spi.client.container.DeploymentException;
 import org.jboss.arquillian.container.spi.client.container.LifecycleException;
+import org.jboss.arquillian.container.spi.client.deployment.DeploymentScenario;
 import org.jboss.arquillian.container.spi.client.protocol.ProtocolDescription;
 import org.jboss.arquillian.container.spi.client.protocol.metadata.HTTPContext;
 import org.jboss.arquillian.container.spi.client.protocol.metadata.ProtocolMetaData;
 import org.jboss.arquillian.container.spi.client.protocol.metadata.Servlet;
 import org.jboss.arquillian.container.spi.context.annotation.DeploymentScoped;
+import org.jboss.arquillian.core.api.Instance;
 import org.jboss.arquillian.core.api.InstanceProducer;
 import org.jboss.arquillian.core.api.annotation.ApplicationScoped;
 import org.jboss.arquillian.core.api.annotation.Inject;
@@ -89,8 +103,12 @@ public class JettyEmbeddedContainer implements DeployableContainer<JettyEmbedded
     private Server server;
     private String listeningHost;
     private int listeningPort;
+    private LocalConnector localConnector;
+    private String serverKey;
+    private String standbyKey;
     private DeploymentManager deployer;
     private ArquillianAppProvider appProvider;
+    private ConcurrentDeployments<App> concurrentDeployments;
 
     private JettyEmbeddedConfiguration containerConfig;
 
@@ -102,6 +120,16 @@ public class JettyEmbeddedContainer implements DeployableContainer<JettyEmbedded
     @ApplicationScoped
     private InstanceProducer<ServletContext> servletContextInstanceProducer;
 
+    @Inject
+    @DeploymentScoped
+    private InstanceProducer<LocalHttpClient> localHttpClientProducer;
+
+    @Inject
+    private Instance<DeploymentScenario> deploymentScenario;
+
+    @Inject
+    private Instance<ContainerRegistry> containerRegistry;
+
     /*
      * (non-Javadoc)
      * 
@@ -131,78 +159,191 @@ public class JettyEmbeddedContainer implements DeployableContainer<JettyEmbedded
         EnvUtil.assertMinimumJettyVersion(Server.getVersion(), "10.0");
 
         try {
-            server = new Server();
-
-            // Setup HTTP Configuration
-            HttpConfiguration httpConfig = containerConfig.getHttpConfiguration();
-            if (httpConfig == null) {
-                httpConfig = new HttpConfiguration();
-                if (this.containerConfig.isHeaderBufferSizeSet()) {
-                    httpConfig.setRequestHeaderSize(containerConfig.getHeaderBufferSize());
-                    httpConfig.setResponseHeaderSize(containerConfig.getHeaderBufferSize());
-                }
-                if(this.containerConfig.getRequestCookieCompliance()!=null) {
-                    httpConfig.setRequestCookieCompliance(CookieCompliance.from(containerConfig.getRequestCookieCompliance()));
-                }
-                if(this.containerConfig.getResponseCookieCompliance()!=null) {
-                    httpConfig.setResponseCookieCompliance(CookieCompliance.from(containerConfig.getResponseCookieCompliance()));
-                }
+            final RunningServer running;
+            if (containerConfig.isReuseServer()) {
+                serverKey = getServerKey();
+                running = ServerRegistry.acquire(serverKey, RunningServer.class, this::startServer);
+            } else if (containerConfig.isStandbyServer()) {
+                standbyKey = getServerKey();
+                final RunningServer standby = StandbyServers.take(standbyKey, RunningServer.class);
+                running = standby != null ? standby : startServer();
+                // Started and warmed up while this container runs, for the next start to take over
+                StandbyServers.prepare(standbyKey, () -> warmUp(startServer()),
+                    standbyServer -> standbyServer.server.stop());
+            } else {
+                running = startServer();
+            }
+            server = running.server;
+            deployer = running.deployer;
+            listeningHost = running.listeningHost;
+            listeningPort = running.listeningPort;
+            localConnector = running.localConnector;
 
-                if(containerConfig.getHttpConfigurationProperties()!=null){
-                    for(Map.Entry<String, String> propertyEntry:containerConfig.getHttpConfigurationProperties().entrySet()){
-                        Method setter = ReflectionUtils.getSetter(propertyEntry.getKey(), httpConfig.getClass());
-                        Class<?> setterClass = ReflectionUtils.getSetterType(setter);
-                        Object value = TypeUtil.valueOf(setterClass, propertyEntry.getValue());
-                        try {
-                            setter.invoke(httpConfig, value);
-                        } catch (IllegalAccessException | InvocationTargetException e) {
-                            log.log(Level.WARNING, "Ignore error setting field with name " + propertyEntry.getKey() + " with value " + propertyEntry.getValue(), e);
-                        }
+            appProvider = new ArquillianAppProvider(containerConfig);
+            appProvider.setDeploymentManager(deployer);
+            concurrentDeployments = new ConcurrentDeployments<>(containerConfig.getDeploymentConcurrency(),
+                this::startApp, this::stopApp);
+        } catch (Exception e) {
+            throw new LifecycleException("Could not start container", e);
+        }
+    }
+
+    private RunningServer startServer() throws Exception {
+        final Server server = new Server(createThreadPool());
+        if (containerConfig.isReuseServer() || containerConfig.isStandbyServer()) {
+            // Reused and standby servers outlive the container, they must neither keep the JVM alive nor outlive it
+            if (server.getThreadPool() instanceof QueuedThreadPool) {
+                ((QueuedThreadPool) server.getThreadPool()).setDaemon(true);
+            }
+            server.setStopAtShutdown(true);
+        }
+
+        // Setup HTTP Configuration
+        HttpConfiguration httpConfig = containerConfig.getHttpConfiguration();
+        if (httpConfig == null) {
+            httpConfig = new HttpConfiguration();
+            if (this.containerConfig.isHeaderBufferSizeSet()) {
+                httpConfig.setRequestHeaderSize(containerConfig.getHeaderBufferSize());
+                httpConfig.setResponseHeaderSize(containerConfig.getHeaderBufferSize());
+            }
+            if(this.containerConfig.getRequestCookieCompliance()!=null) {
+                httpConfig.setRequestCookieCompliance(CookieCompliance.from(containerConfig.getRequestCookieCompliance()));
+            }
+            if(this.containerConfig.getResponseCookieCompliance()!=null) {
+                httpConfig.setResponseCookieCompliance(CookieCompliance.from(containerConfig.getResponseCookieCompliance()));
+            }
+
+            if(containerConfig.getHttpConfigurationProperties()!=null){
+                for(Map.Entry<String, String> propertyEntry:containerConfig.getHttpConfigurationProperties().entrySet()){
+                    Method setter = ReflectionUtils.getSetter(propertyEntry.getKey(), httpConfig.getClass());
+                    Class<?> setterClass = ReflectionUtils.getSetterType(setter);
+                    Object value = TypeUtil.valueOf(setterClass, propertyEntry.getValue());
+                    try {
+                        setter.invoke(httpConfig, value);
+                    } catch (IllegalAccessException | InvocationTargetException e) {
+                        log.log(Level.WARNING, "Ignore error setting field with name " + propertyEntry.getKey() + " with value " + propertyEntry.getValue(), e);
                     }
                 }
-
             }
 
-            ConnectionFactory connectionFactory = new HttpConnectionFactory(httpConfig);
-            // Setup Connector
-            ServerConnector connector = new ServerConnector(server, connectionFactory);
+        }
 
-            connector.setHost(containerConfig.getBindAddress());
-            connector.setPort(containerConfig.getBindHttpPort());
-            connector.setIdleTimeout(containerConfig.getIdleTimeoutMillis());
-            server.setConnectors(new Connector[] {connector});
+        ConnectionFactory connectionFactory = new HttpConnectionFactory(httpConfig);
+        // Setup Connector
+        ServerConnector connector = new ServerConnector(server, containerConfig.getAcceptors(), containerConfig.getSelectors(),
+                connectionFactory);
+
+        connector.setHost(containerConfig.getBindAddress());
+        connector.setPort(containerConfig.getBindHttpPort());
+        connector.setIdleTimeout(containerConfig.getIdleTimeoutMillis());
+        connector.setAcceptQueueSize(containerConfig.getAcceptQueueSize());
+        connector.setReuseAddress(containerConfig.isReuseAddress());
+        connector.setAcceptedTcpNoDelay(containerConfig.isAcceptedTcpNoDelay());
+        server.setConnectors(new Connector[] {connector});
+        LocalConnector localConnector = null;
+        if (containerConfig.isLocalConnectorEnabled()) {
+            localConnector = new LocalConnector(server, new HttpConnectionFactory(httpConfig));
+            server.addConnector(localConnector);
+        }
 
-            // Handler Tree location for all webapps
-            ContextHandlerCollection contexts = new ContextHandlerCollection();
+        // Handler Tree location for all webapps
+        ContextHandlerCollection contexts = new ContextHandlerCollection();
 
-            // Deployment Management
-            deployer = new DeploymentManager();
-            deployer.setContexts(contexts);
-            appProvider = new ArquillianAppProvider(containerConfig);
-            deployer.addAppProvider(appProvider);
-            server.addBean(deployer);
+        // Deployment Management
+        final DeploymentManager deployer = new DeploymentManager();
+        deployer.setContexts(contexts);
+        server.addBean(deployer);
 
-            server.setHandler(new HandlerList(contexts, new DefaultHandler()));
+        server.setHandler(new HandlerList(wrapCompression(contexts), new DefaultHandler()));
 
-            if (containerConfig.isRealmPropertiesFileSet()) {
-                String realmName = getRealmName();
-                HashLoginService hashUserRealm =
-                    new HashLoginService(realmName, containerConfig.getRealmProperties().getAbsolutePath());
-                server.addBean(hashUserRealm);
-            }
+        if (containerConfig.isRealmPropertiesFileSet()) {
+            String realmName = getRealmName();
+            HashLoginService hashUserRealm =
+                new HashLoginService(realmName, containerConfig.getRealmProperties().getAbsolutePath());
+            server.addBean(hashUserRealm);
+        }
 
-            server.setDumpAfterStart(containerConfig.isDumpServerAfterStart());
-            log.info("Starting Jetty Embedded Server " + Server.getVersion() + " [id:" + server.hashCode() + "]");
-            server.start();
+        server.setDumpAfterStart(containerConfig.isDumpServerAfterStart());
+        log.info("Starting Jetty Embedded Server " + Server.getVersion() + " [id:" + server.hashCode() + "]");
+        server.start();
+        logSizing(server, connector);
 
-            listeningHost = connector.getHost();
-            if (listeningHost == null) {
-                listeningHost = containerConfig.getBindAddress();
-            }
-            listeningPort = connector.getLocalPort();
-        } catch (Exception e) {
-            throw new LifecycleException("Could not start container", e);
+        String listeningHost = connector.getHost();
+        if (listeningHost == null) {
+            listeningHost = containerConfig.getBindAddress();
+        }
+
+        return new RunningServer(server, deployer, listeningHost, connector.getLocalPort(), localConnector);
+    }
+
+    /**
+     * Wraps the contexts in a {@link GzipHandler} if responses are to be compressed.
+     */
+    private Handler wrapCompression(Handler contexts) {
+        if (!containerConfig.isCompressionEnabled()) {
+            return contexts;
+        }
+        final GzipHandler gzipHandler = new GzipHandler();
+        if (containerConfig.getCompressionMinSize() > 0) {
+            gzipHandler.setMinGzipSize(containerConfig.getCompressionMinSize());
+        }
+        if (containerConfig.getCompressionMimeTypes() != null) {
+            gzipHandler.setIncludedMimeTypes(containerConfig.getCompressionMimeTypes());
+        }
+        gzipHandler.setDeflaterPool(new DeflaterPool(containerConfig.getCompressionDeflaterPoolCapacity() > 0
+            ? containerConfig.getCompressionDeflaterPoolCapacity() : CompressionPool.DEFAULT_CAPACITY,
+            containerConfig.getCompressionLevel(), true));
+        gzipHandler.setHandler(contexts);
+        return gzipHandler;
+    }
+
+    /**
+     * Logs the effective sizing of the thread pool and the connector of a started server.
+     */
+    private static void logSizing(Server server, ServerConnector connector) {
+        final String threads;
+        if (server.getThreadPool() instanceof QueuedThreadPool) {
+            final QueuedThreadPool threadPool = (QueuedThreadPool) server.getThreadPool();
+            threads = "minThreads=" + threadPool.getMinThreads() + ", maxThreads=" + threadPool.getMaxThreads()
+                + ", reservedThreads=" + threadPool.getMaxReservedThreads();
+        } else {
+            threads = "threadPool=" + server.getThreadPool().getClass().getSimpleName();
         }
+        log.info("Jetty Embedded Server [id:" + server.hashCode() + "] sized with " + threads + ", acceptors="
+            + connector.getAcceptors() + ", selectors=" + connector.getSelectorManager().getSelectorCount()
+            + ", acceptQueueSize=" + connector.getAcceptQueueSize() + ", reuseAddress=" + connector.getReuseAddress()
+            + ", acceptedTcpNoDelay=" + connector.getAcceptedTcpNoDelay());
+    }
+
+    private String getServerKey() {
+        return ServerRegistry.key(containerConfig, getClass().getName(), containerConfig.getIdleTimeoutMillis(),
+            containerConfig.getHttpConfiguration());
+    }
+
+    /**
+     * Creates the thread pool of the server, sized as configured.
+     */
+    private ThreadPool createThreadPool() {
+        final QueuedThreadPool threadPool = new QueuedThreadPool(containerConfig.getMaxThreads(),
+            containerConfig.getMinThreads());
+        threadPool.setReservedThreads(containerConfig.getReservedThreads());
+        return threadPool;
+    }
+
+    /**
+     * Takes a standby server through the deployment and undeployment of a minimal archive, so the first deployment of
+     * the container taking it over does not pay for loading and compiling the deployment code.
+     */
+    private RunningServer warmUp(RunningServer running) throws Exception {
+        ArquillianAppProvider warmUpProvider = new ArquillianAppProvider(containerConfig);
+        Archive<?> archive = StandbyServers.createWarmUpArchive();
+        warmUpProvider.setDeploymentManager(running.deployer);
+        App app = warmUpProvider.createApp(archive);
+        running.deployer.addApp(app);
+        running.deployer.requestAppGoal(app, AppLifeCycle.STARTED);
+        running.deployer.removeApp(app);
+        warmUpProvider.release(archive);
+        return running;
     }
 
     private String getRealmName() {
@@ -216,6 +357,26 @@ public class JettyEmbeddedContainer implements DeployableContainer<JettyEmbedded
     }
 
     public void stop() throws LifecycleException {
+        if (concurrentDeployments != null) {
+            concurrentDeployments.close();
+        }
+        if (appProvider != null) {
+            appProvider.logStatistics();
+        }
+        if (standbyKey != null) {
+            // Stopped unless the next container start takes it over in time
+            StandbyServers.expire(standbyKey, containerConfig.getStandbyServerTimeoutMillis());
+            standbyKey = null;
+        }
+        if (serverKey != null) {
+            final RunningServer last = ServerRegistry.release(serverKey, RunningServer.class);
+            serverKey = null;
+            if (last == null) {
+                log.info("Keeping Jetty Embedded Server running for the other containers using it [id:" + server.hashCode()
+                    + "]");
+                return;
+            }
+        }
         try {
             log.info("Stopping Jetty Embedded Server [id:" + server.hashCode() + "]");
             server.stop();
@@ -244,20 +405,16 @@ public class JettyEmbeddedContainer implements DeployableContainer<JettyEmbedded
 
     public ProtocolMetaData deploy(final Archive<?> archive) throws DeploymentException {
         try {
-            App app = appProvider.createApp(archive);
-            deployer.removeApp(app);
+            concurrentDeployments.prefetch(
+                ConcurrentDeployments.pendingArchives(deploymentScenario.get(), containerRegistry.get(), this));
+            App app = concurrentDeployments.take(archive);
             WebAppContext webAppContext = getWebAppContext(app);
 
-            if (containerConfig.areMimeTypesSet()) {
-                MimeTypes mimeTypes = getMimeTypes();
-                webAppContext.setMimeTypes(mimeTypes);
-            }
-
-            deployer.addApp(app);
-            deployer.requestAppGoal(app, AppLifeCycle.STARTED);
-
             webAppContextProducer.set(app);
             servletContextInstanceProducer.set(webAppContext.getServletContext());
+            if (localConnector != null) {
+                localHttpClientProducer.set(new LocalHttpClient(localConnector::getResponse, webAppContext.getContextPath()));
+            }
 
             HTTPContext httpContext = new HTTPContext(listeningHost, listeningPort);
             ServletHandler servletHandler = webAppContext.getServletHandler();
@@ -274,6 +431,57 @@ public class JettyEmbeddedContainer implements DeployableContainer<JettyEmbedded
         }
     }
 
+    /**
+     * Exports, configures and starts the deployment of an archive. Runs on a thread of its own if the deployments of a
+     * test class are started concurrently; the deployment manager adds the context to the shared collection under
+     * Jetty's lock and starts it outside of it.
+     */
+    private App startApp(Archive<?> archive) throws Exception {
+        App app = appProvider.createApp(archive);
+        deployer.removeApp(app);
+        WebAppContext webAppContext = getWebAppContext(app);
+
+        if (containerConfig.areMimeTypesSet()) {
+            MimeTypes mimeTypes = getMimeTypes();
+            webAppContext.setMimeTypes(mimeTypes);
+        }
+
+        claimContextPath(archive, app, webAppContext);
+        try {
+            deployer.addApp(app);
+            deployer.requestAppGoal(app, AppLifeCycle.STARTED);
+        } catch (RuntimeException e) {
+            releaseContextPath(app);
+            throw e;
+        }
+        return app;
+    }
+
+    private void stopApp(Archive<?> archive, App app) {
+        if (app != null) {
+            deployer.requestAppGoal(app, AppLifeCycle.UNDEPLOYED);
+            releaseContextPath(app);
+        }
+        appProvider.release(archive);
+    }
+
+    /**
+     * Keeps the deployment from taking the context path of a deployment of another container sharing the reused server.
+     */
+    private void claimContextPath(Archive<?> archive, App app, WebAppContext webAppContext) throws DeploymentException {
+        if (serverKey != null && !ServerRegistry.claimContextPath(serverKey, webAppContext.getContextPath(), app)) {
+            appProvider.release(archive);
+            throw new DeploymentException("Context path " + webAppContext.getContextPath()
+                + " is deployed already by another container sharing the reused server");
+        }
+    }
+
+    private void releaseContextPath(App app) {
+        if (serverKey != null) {
+            ServerRegistry.releaseContextPath(serverKey, app);
+        }
+    }
+
     private WebAppContext getWebAppContext(App app) throws Exception {
         ContextHandler handler = app.getContextHandler();
         WebAppContext webAppContext;
@@ -295,9 +503,26 @@ public class JettyEmbeddedContainer implements DeployableContainer<JettyEmbedded
     }
 
     public void undeploy(Archive<?> archive) throws DeploymentException {
-        App app = webAppContextProducer.get();
-        if (app != null) {
-            deployer.requestAppGoal(app, AppLifeCycle.UNDEPLOYED);
+        stopApp(archive, webAppContextProducer.get());
+    }
+
+    /**
+     * A started server, kept in the {@link ServerRegistry} if it is reused.
+     */
+    private static final class RunningServer {
+        private final Server server;
+        private final DeploymentManager deployer;
+        private final String listeningHost;
+        private final int listeningPort;
+        private final LocalConnector localConnector;
+
+        private RunningServer(Server server, DeploymentManager deployer, String listeningHost, int listeningPort,
+            LocalConnector localConnector) {
+            this.server = server;
+            this.deployer = deployer;
+            this.listeningHost = listeningHost;
+            this.listeningPort = listeningPort;
+            this.localConnector = localConnector;
         }
     }
 }
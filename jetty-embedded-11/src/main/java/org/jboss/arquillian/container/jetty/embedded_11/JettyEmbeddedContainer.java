@@ -26,18 +26,25 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.codehaus.plexus.util.ReflectionUtils;
+import org.eclipse.jetty.alpn.server.ALPNServerConnectionFactory;
 import org.eclipse.jetty.deploy.App;
 import org.eclipse.jetty.deploy.AppLifeCycle;
 import org.eclipse.jetty.deploy.DeploymentManager;
 import org.eclipse.jetty.http.CookieCompliance;
 import org.eclipse.jetty.http.HttpVersion;
 import org.eclipse.jetty.http.MimeTypes;
+import org.eclipse.jetty.http2.HTTP2Cipher;
+import org.eclipse.jetty.http2.parser.WindowRateControl;
+import org.eclipse.jetty.http2.server.AbstractHTTP2ServerConnectionFactory;
 import org.eclipse.jetty.http2.server.HTTP2CServerConnectionFactory;
+import org.eclipse.jetty.http2.server.HTTP2ServerConnectionFactory;
 import org.eclipse.jetty.security.HashLoginService;
 import org.eclipse.jetty.server.ConnectionFactory;
 import org.eclipse.jetty.server.Connector;
+import org.eclipse.jetty.server.Handler;
 import org.eclipse.jetty.server.HttpConfiguration;
 import org.eclipse.jetty.server.HttpConnectionFactory;
+import org.eclipse.jetty.server.LocalConnector;
 import org.eclipse.jetty.server.SecureRequestCustomizer;
 import org.eclipse.jetty.server.Server;
 import org.eclipse.jetty.server.ServerConnector;
@@ -45,17 +52,28 @@ import org.eclipse.jetty.server.SslConnectionFactory;
 import org.eclipse.jetty.server.handler.ContextHandler;
 import org.eclipse.jetty.server.handler.ContextHandlerCollection;
 import org.eclipse.jetty.server.handler.DefaultHandler;
+import org.eclipse.jetty.server.handler.gzip.GzipHandler;
 import org.eclipse.jetty.server.handler.HandlerCollection;
 import org.eclipse.jetty.server.handler.HandlerList;
 import org.eclipse.jetty.servlet.ServletHandler;
 import org.eclipse.jetty.servlet.ServletHolder;
 import org.eclipse.jetty.util.TypeUtil;
+import org.eclipse.jetty.util.compression.CompressionPool;
+import org.eclipse.jetty.util.compression.DeflaterPool;
 import org.eclipse.jetty.util.ssl.SslContextFactory;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.eclipse.jetty.util.thread.ThreadPool;
 import org.eclipse.jetty.webapp.WebAppContext;
+import org.jboss.arquillian.container.jetty.ConcurrentDeployments;
 import org.jboss.arquillian.container.jetty.EnvUtil;
+import org.jboss.arquillian.container.jetty.LocalHttpClient;
+import org.jboss.arquillian.container.jetty.ServerRegistry;
+import org.jboss.arquillian.container.jetty.StandbyServers;
+import org.jboss.arquillian.container.spi.ContainerRegistry;
 import org.jboss.arquillian.container.spi.client.container.DeployableContainer;
 import org.jboss.arquillian.container.spi.client.container.DeploymentException;
 import org.jboss.arquillian.container.spi.client.container.LifecycleException;
+import org.jboss.arquillian.container.spi.client.deployment.DeploymentScenario;
 import org.jboss.arquillian.container.spi.client.protocol.ProtocolDescription;
 import org.jboss.arquillian.container.spi.client.protocol.metadata.HTTPContext;
 import org.jboss.arquillian.container.spi.client.protocol.metadata.ProtocolMetaData;
@@ -98,8 +116,12 @@ public class JettyEmbeddedContainer implements DeployableContainer<JettyEmbedded
     private Server server;
     private String listeningHost;
     private int listeningPort;
+    private LocalConnector localConnector;
+    private String serverKey;
+    private String standbyKey;
     private DeploymentManager deployer;
     private ArquillianAppProvider appProvider;
+    private ConcurrentDeployments<App> concurrentDeployments;
 
     private JettyEmbeddedConfiguration containerConfig;
 
@@ -111,9 +133,19 @@ public class JettyEmbeddedContainer implements DeployableContainer<JettyEmbedded
     @ApplicationScoped
     private InstanceProducer<ServletContext> servletContextInstanceProducer;
 
+    @Inject
+    @DeploymentScoped
+    private InstanceProducer<LocalHttpClient> localHttpClientProducer;
+
     @Inject
     private Instance<ServiceLoader> serviceLoader;
 
+    @Inject
+    private Instance<DeploymentScenario> deploymentScenario;
+
+    @Inject
+    private Instance<ContainerRegistry> containerRegistry;
+
     /*
      * (non-Javadoc)
      * 
@@ -142,69 +174,235 @@ public class JettyEmbeddedContainer implements DeployableContainer<JettyEmbedded
         EnvUtil.assertMinimumJettyVersion(Server.getVersion(), "11.0");
 
         try {
-            server = new Server();
+            final Collection<WebAppContextProcessor> webAppContextProcessors = serviceLoader.get().all(WebAppContextProcessor.class);
+            final RunningServer running;
+            if (containerConfig.isReuseServer()) {
+                serverKey = getServerKey();
+                running = ServerRegistry.acquire(serverKey, RunningServer.class, this::startServer);
+            } else if (containerConfig.isStandbyServer()) {
+                standbyKey = getServerKey();
+                final RunningServer standby = StandbyServers.take(standbyKey, RunningServer.class);
+                running = standby != null ? standby : startServer();
+                // Started and warmed up while this container runs, for the next start to take over
+                StandbyServers.prepare(standbyKey, () -> warmUp(startServer(), webAppContextProcessors),
+                    standbyServer -> standbyServer.server.stop());
+            } else {
+                running = startServer();
+            }
+            server = running.server;
+            deployer = running.deployer;
+            listeningHost = running.listeningHost;
+            listeningPort = running.listeningPort;
+            localConnector = running.localConnector;
 
-            HttpConfiguration httpConfig = getHttpConfiguration();
+            appProvider = new ArquillianAppProvider(containerConfig, webAppContextProcessors);
+            appProvider.setDeploymentManager(deployer);
+            concurrentDeployments = new ConcurrentDeployments<>(containerConfig.getDeploymentConcurrency(),
+                this::startApp, this::stopApp);
+        } catch (Exception e) {
+            throw new LifecycleException("Could not start container", e);
+        }
+    }
 
-            ConnectionFactory connectionFactory = new HttpConnectionFactory(httpConfig);
-            // Setup Connector
-            ServerConnector connector;
-            if (containerConfig.isSsl()) {
-                SslContextFactory.Server sslContextFactory = getSslContextFactory();
-                server.addBean(sslContextFactory);
-                SslConnectionFactory sslConnectionFactory = new SslConnectionFactory(sslContextFactory, HttpVersion.HTTP_1_1.asString());
+    private RunningServer startServer() throws Exception {
+        final Server server = new Server(createThreadPool());
+        if (containerConfig.isReuseServer() || containerConfig.isStandbyServer()) {
+            // Reused and standby servers outlive the container, they must neither keep the JVM alive nor outlive it
+            if (server.getThreadPool() instanceof QueuedThreadPool) {
+                ((QueuedThreadPool) server.getThreadPool()).setDaemon(true);
+            }
+            server.setStopAtShutdown(true);
+        }
+
+        HttpConfiguration httpConfig = getHttpConfiguration();
+
+        ConnectionFactory connectionFactory = new HttpConnectionFactory(httpConfig);
+        // Setup Connector
+        ServerConnector connector;
+        if (containerConfig.isSsl()) {
+            SslContextFactory.Server sslContextFactory = getSslContextFactory();
+            server.addBean(sslContextFactory);
+            if (containerConfig.isH2Enabled()) {
+                // HTTP/2 is negotiated through ALPN, clients that do not offer it keep using HTTP/1.1
+                sslContextFactory.setCipherComparator(HTTP2Cipher.COMPARATOR);
+                ALPNServerConnectionFactory alpnConnectionFactory = createAlpnConnectionFactory();
+                alpnConnectionFactory.setDefaultProtocol(connectionFactory.getProtocol());
+                SslConnectionFactory sslConnectionFactory = new SslConnectionFactory(sslContextFactory, alpnConnectionFactory.getProtocol());
                 sslConnectionFactory.setEnsureSecureRequestCustomizer(containerConfig.isSniRequired());
-                connector = new ServerConnector(server, sslConnectionFactory, connectionFactory);
+                connector = new ServerConnector(server, containerConfig.getAcceptors(), containerConfig.getSelectors(),
+                    sslConnectionFactory, alpnConnectionFactory, configureHttp2(new HTTP2ServerConnectionFactory(httpConfig)),
+                    connectionFactory);
             } else {
-                connector = new ServerConnector(server, connectionFactory);
+                SslConnectionFactory sslConnectionFactory = new SslConnectionFactory(sslContextFactory, HttpVersion.HTTP_1_1.asString());
+                sslConnectionFactory.setEnsureSecureRequestCustomizer(containerConfig.isSniRequired());
+                connector = new ServerConnector(server, containerConfig.getAcceptors(), containerConfig.getSelectors(),
+                    sslConnectionFactory, connectionFactory);
             }
+        } else {
+            connector = new ServerConnector(server, containerConfig.getAcceptors(), containerConfig.getSelectors(),
+                connectionFactory);
+        }
 
-            if (containerConfig.isH2cEnabled()) {
-                HTTP2CServerConnectionFactory http2CServerConnectionFactory = new HTTP2CServerConnectionFactory(httpConfig);
-                connector.addConnectionFactory(http2CServerConnectionFactory);
-            }
+        if (containerConfig.isH2cEnabled()) {
+            HTTP2CServerConnectionFactory http2CServerConnectionFactory = configureHttp2(new HTTP2CServerConnectionFactory(httpConfig));
+            connector.addConnectionFactory(http2CServerConnectionFactory);
+        }
 
-            connector.setHost(containerConfig.getBindAddress());
-            connector.setPort(containerConfig.getBindHttpPort());
-            connector.setIdleTimeout(containerConfig.getIdleTimeoutMillis());
-            server.setConnectors(new Connector[] {connector});
+        connector.setHost(containerConfig.getBindAddress());
+        connector.setPort(containerConfig.getBindHttpPort());
+        connector.setIdleTimeout(containerConfig.getIdleTimeoutMillis());
+        connector.setAcceptQueueSize(containerConfig.getAcceptQueueSize());
+        connector.setReuseAddress(containerConfig.isReuseAddress());
+        connector.setAcceptedTcpNoDelay(containerConfig.isAcceptedTcpNoDelay());
+        server.setConnectors(new Connector[] {connector});
+        LocalConnector localConnector = null;
+        if (containerConfig.isLocalConnectorEnabled()) {
+            localConnector = new LocalConnector(server, new HttpConnectionFactory(httpConfig));
+            server.addConnector(localConnector);
+        }
 
-            // Handler Tree location for all webapps
-            ContextHandlerCollection contexts = new ContextHandlerCollection();
+        // Handler Tree location for all webapps
+        ContextHandlerCollection contexts = new ContextHandlerCollection();
 
-            // Deployment Management
-            deployer = new DeploymentManager();
-            deployer.setContexts(contexts);
-            Collection<WebAppContextProcessor> webAppContextProcessors = serviceLoader.get().all(WebAppContextProcessor.class);
-            appProvider = new ArquillianAppProvider(containerConfig, webAppContextProcessors);
-            deployer.addAppProvider(appProvider);
-            server.addBean(deployer);
+        // Deployment Management
+        final DeploymentManager deployer = new DeploymentManager();
+        deployer.setContexts(contexts);
+        server.addBean(deployer);
 
-            server.setHandler(new HandlerList(contexts, new DefaultHandler()));
+        server.setHandler(new HandlerList(wrapCompression(contexts), new DefaultHandler()));
 
-            if (containerConfig.isRealmPropertiesFileSet()) {
-                String realmName = getRealmName();
-                HashLoginService hashUserRealm =
-                    new HashLoginService(realmName, containerConfig.getRealmProperties().getAbsolutePath());
-                server.addBean(hashUserRealm);
-            }
+        if (containerConfig.isRealmPropertiesFileSet()) {
+            String realmName = getRealmName();
+            HashLoginService hashUserRealm =
+                new HashLoginService(realmName, containerConfig.getRealmProperties().getAbsolutePath());
+            server.addBean(hashUserRealm);
+        }
 
-            if (containerConfig.areInferredEncodings()) {
-                containerConfig.getInferredEncodings().forEach((s, s2) -> MimeTypes.getInferredEncodings().put(s, s2));
-            }
+        if (containerConfig.areInferredEncodings()) {
+            containerConfig.getInferredEncodings().forEach((s, s2) -> MimeTypes.getInferredEncodings().put(s, s2));
+        }
 
-            server.setDumpAfterStart(containerConfig.isDumpServerAfterStart());
-            log.info("Starting Jetty Embedded Server " + Server.getVersion() + " [id:" + server.hashCode() + "]");
-            server.start();
+        server.setDumpAfterStart(containerConfig.isDumpServerAfterStart());
+        log.info("Starting Jetty Embedded Server " + Server.getVersion() + " [id:" + server.hashCode() + "]");
+        server.start();
+        logSizing(server, connector);
 
-            listeningHost = connector.getHost();
-            if (listeningHost == null) {
-                listeningHost = containerConfig.getBindAddress();
-            }
-            listeningPort = connector.getLocalPort();
-        } catch (Exception e) {
-            throw new LifecycleException("Could not start container", e);
+        String listeningHost = connector.getHost();
+        if (listeningHost == null) {
+            listeningHost = containerConfig.getBindAddress();
         }
+
+        return new RunningServer(server, deployer, listeningHost, connector.getLocalPort(), localConnector);
+    }
+
+    /**
+     * Wraps the contexts in a {@link GzipHandler} if responses are to be compressed.
+     */
+    private Handler wrapCompression(Handler contexts) {
+        if (!containerConfig.isCompressionEnabled()) {
+            return contexts;
+        }
+        final GzipHandler gzipHandler = new GzipHandler();
+        if (containerConfig.getCompressionMinSize() > 0) {
+            gzipHandler.setMinGzipSize(containerConfig.getCompressionMinSize());
+        }
+        if (containerConfig.getCompressionMimeTypes() != null) {
+            gzipHandler.setIncludedMimeTypes(containerConfig.getCompressionMimeTypes());
+        }
+        gzipHandler.setDeflaterPool(new DeflaterPool(containerConfig.getCompressionDeflaterPoolCapacity() > 0
+            ? containerConfig.getCompressionDeflaterPoolCapacity() : CompressionPool.DEFAULT_CAPACITY,
+            containerConfig.getCompressionLevel(), true));
+        gzipHandler.setHandler(contexts);
+        return gzipHandler;
+    }
+
+    /**
+     * Logs the effective sizing of the thread pool and the connector of a started server.
+     */
+    private static void logSizing(Server server, ServerConnector connector) {
+        final String threads;
+        if (server.getThreadPool() instanceof QueuedThreadPool) {
+            final QueuedThreadPool threadPool = (QueuedThreadPool) server.getThreadPool();
+            threads = "minThreads=" + threadPool.getMinThreads() + ", maxThreads=" + threadPool.getMaxThreads()
+                + ", reservedThreads=" + threadPool.getMaxReservedThreads();
+        } else {
+            threads = "threadPool=" + server.getThreadPool().getClass().getSimpleName();
+        }
+        log.info("Jetty Embedded Server [id:" + server.hashCode() + "] sized with " + threads + ", acceptors="
+            + connector.getAcceptors() + ", selectors=" + connector.getSelectorManager().getSelectorCount()
+            + ", acceptQueueSize=" + connector.getAcceptQueueSize() + ", reuseAddress=" + connector.getReuseAddress()
+            + ", acceptedTcpNoDelay=" + connector.getAcceptedTcpNoDelay());
+    }
+
+    /**
+     * Applies the configured HTTP/2 flow control, HPACK and rate control settings, keeping Jetty's defaults for the
+     * settings that are not configured.
+     */
+    private <T extends AbstractHTTP2ServerConnectionFactory> T configureHttp2(T connectionFactory) {
+        if (containerConfig.getHttp2MaxConcurrentStreams() > 0) {
+            connectionFactory.setMaxConcurrentStreams(containerConfig.getHttp2MaxConcurrentStreams());
+        }
+        if (containerConfig.getHttp2InitialSessionRecvWindow() > 0) {
+            connectionFactory.setInitialSessionRecvWindow(containerConfig.getHttp2InitialSessionRecvWindow());
+        }
+        if (containerConfig.getHttp2InitialStreamRecvWindow() > 0) {
+            connectionFactory.setInitialStreamRecvWindow(containerConfig.getHttp2InitialStreamRecvWindow());
+        }
+        if (containerConfig.getHttp2HpackTableCapacity() > 0) {
+            connectionFactory.setMaxDecoderTableCapacity(containerConfig.getHttp2HpackTableCapacity());
+            connectionFactory.setMaxEncoderTableCapacity(containerConfig.getHttp2HpackTableCapacity());
+        }
+        if (containerConfig.getHttp2MaxFrameSize() > 0) {
+            connectionFactory.setMaxFrameSize(containerConfig.getHttp2MaxFrameSize());
+        }
+        if (containerConfig.getHttp2RateControlMaxEventsPerSecond() > 0) {
+            connectionFactory.setRateControlFactory(
+                new WindowRateControl.Factory(containerConfig.getHttp2RateControlMaxEventsPerSecond()));
+        }
+        return connectionFactory;
+    }
+
+    /**
+     * Creates the ALPN connection factory, which fails if no ALPN implementation is on the class path.
+     */
+    private static ALPNServerConnectionFactory createAlpnConnectionFactory() {
+        try {
+            return new ALPNServerConnectionFactory();
+        } catch (IllegalStateException e) {
+            throw new IllegalStateException(
+                "h2Enabled requires org.eclipse.jetty:jetty-alpn-java-server on the class path", e);
+        }
+    }
+
+    private String getServerKey() {
+        return ServerRegistry.key(containerConfig, getClass().getName(), containerConfig.getIdleTimeoutMillis(),
+            containerConfig.getHttpConfiguration());
+    }
+
+    /**
+     * Creates the thread pool of the server, sized as configured.
+     */
+    private ThreadPool createThreadPool() {
+        final QueuedThreadPool threadPool = new QueuedThreadPool(containerConfig.getMaxThreads(),
+            containerConfig.getMinThreads());
+        threadPool.setReservedThreads(containerConfig.getReservedThreads());
+        return threadPool;
+    }
+
+    /**
+     * Takes a standby server through the deployment and undeployment of a minimal archive, so the first deployment of
+     * the container taking it over does not pay for loading and compiling the deployment code.
+     */
+    private RunningServer warmUp(RunningServer running, Collection<WebAppContextProcessor> webAppContextProcessors) throws Exception {
+        ArquillianAppProvider warmUpProvider = new ArquillianAppProvider(containerConfig, webAppContextProcessors);
+        Archive<?> archive = StandbyServers.createWarmUpArchive();
+        warmUpProvider.setDeploymentManager(running.deployer);
+        App app = warmUpProvider.createApp(archive);
+        running.deployer.addApp(app);
+        running.deployer.requestAppGoal(app, AppLifeCycle.STARTED);
+        running.deployer.removeApp(app);
+        warmUpProvider.release(archive);
+        return running;
     }
 
     private String getRealmName() {
@@ -218,6 +416,26 @@ public class JettyEmbeddedContainer implements DeployableContainer<JettyEmbedded
     }
 
     public void stop() throws LifecycleException {
+        if (concurrentDeployments != null) {
+            concurrentDeployments.close();
+        }
+        if (appProvider != null) {
+            appProvider.logStatistics();
+        }
+        if (standbyKey != null) {
+            // Stopped unless the next container start takes it over in time
+            StandbyServers.expire(standbyKey, containerConfig.getStandbyServerTimeoutMillis());
+            standbyKey = null;
+        }
+        if (serverKey != null) {
+            final RunningServer last = ServerRegistry.release(serverKey, RunningServer.class);
+            serverKey = null;
+            if (last == null) {
+                log.info("Keeping Jetty Embedded Server running for the other containers using it [id:" + server.hashCode()
+                    + "]");
+                return;
+            }
+        }
         try {
             log.info("Stopping Jetty Embedded Server [id:" + server.hashCode() + "]");
             server.stop();
@@ -246,20 +464,16 @@ public class JettyEmbeddedContainer implements DeployableContainer<JettyEmbedded
 
     public ProtocolMetaData deploy(final Archive<?> archive) throws DeploymentException {
         try {
-            App app = appProvider.createApp(archive);
-            deployer.removeApp(app);
+            concurrentDeployments.prefetch(
+                ConcurrentDeployments.pendingArchives(deploymentScenario.get(), containerRegistry.get(), this));
+            App app = concurrentDeployments.take(archive);
             WebAppContext webAppContext = getWebAppContext(app);
 
-            if (containerConfig.areMimeTypesSet()) {
-                MimeTypes mimeTypes = getMimeTypes();
-                webAppContext.setMimeTypes(mimeTypes);
-            }
-
-            deployer.addApp(app);
-            deployer.requestAppGoal(app, AppLifeCycle.STARTED);
-
             webAppContextProducer.set(app);
             servletContextInstanceProducer.set(webAppContext.getServletContext());
+            if (localConnector != null) {
+                localHttpClientProducer.set(new LocalHttpClient(localConnector::getResponse, webAppContext.getContextPath()));
+            }
 
             HTTPContext httpContext = new HTTPContext(listeningHost, listeningPort);
             ServletHandler servletHandler = webAppContext.getServletHandler();
@@ -276,6 +490,57 @@ public class JettyEmbeddedContainer implements DeployableContainer<JettyEmbedded
         }
     }
 
+    /**
+     * Exports, configures and starts the deployment of an archive. Runs on a thread of its own if the deployments of a
+     * test class are started concurrently; the deployment manager adds the context to the shared collection under
+     * Jetty's lock and starts it outside of it.
+     */
+    private App startApp(Archive<?> archive) throws Exception {
+        App app = appProvider.createApp(archive);
+        deployer.removeApp(app);
+        WebAppContext webAppContext = getWebAppContext(app);
+
+        if (containerConfig.areMimeTypesSet()) {
+            MimeTypes mimeTypes = getMimeTypes();
+            webAppContext.setMimeTypes(mimeTypes);
+        }
+
+        claimContextPath(archive, app, webAppContext);
+        try {
+            deployer.addApp(app);
+            deployer.requestAppGoal(app, AppLifeCycle.STARTED);
+        } catch (RuntimeException e) {
+            releaseContextPath(app);
+            throw e;
+        }
+        return app;
+    }
+
+    private void stopApp(Archive<?> archive, App app) {
+        if (app != null) {
+            deployer.requestAppGoal(app, AppLifeCycle.UNDEPLOYED);
+            releaseContextPath(app);
+        }
+        appProvider.release(archive);
+    }
+
+    /**
+     * Keeps the deployment from taking the context path of a deployment of another container sharing the reused server.
+     */
+    private void claimContextPath(Archive<?> archive, App app, WebAppContext webAppContext) throws DeploymentException {
+        if (serverKey != null && !ServerRegistry.claimContextPath(serverKey, webAppContext.getContextPath(), app)) {
+            appProvider.release(archive);
+            throw new DeploymentException("Context path " + webAppContext.getContextPath()
+                + " is deployed already by another container sharing the reused server");
+        }
+    }
+
+    private void releaseContextPath(App app) {
+        if (serverKey != null) {
+            ServerRegistry.releaseContextPath(serverKey, app);
+        }
+    }
+
     private WebAppContext getWebAppContext(App app) throws Exception {
         ContextHandler handler = app.getContextHandler();
         WebAppContext webAppContext;
@@ -297,10 +562,7 @@ public class JettyEmbeddedContainer implements DeployableContainer<JettyEmbedded
     }
 
     public void undeploy(Archive<?> archive) throws DeploymentException {
-        App app = webAppContextProducer.get();
-        if (app != null) {
-            deployer.requestAppGoal(app, AppLifeCycle.UNDEPLOYED);
-        }
+        stopApp(archive, webAppContextProducer.get());
     }
 
     /**
@@ -366,4 +628,24 @@ public class JettyEmbeddedContainer implements DeployableContainer<JettyEmbedded
 
         return sslContextFactory;
     }
+
+    /**
+     * A started server, kept in the {@link ServerRegistry} if it is reused.
+     */
+    private static final class RunningServer {
+        private final Server server;
+        private final DeploymentManager deployer;
+        private final String listeningHost;
+        private final int listeningPort;
+        private final LocalConnector localConnector;
+
+        private RunningServer(Server server, DeploymentManager deployer, String listeningHost, int listeningPort,
+            LocalConnector localConnector) {
+            this.server = server;
+            this.deployer = deployer;
+            this.listeningHost = listeningHost;
+            this.listeningPort = listeningPort;
+            this.localConnector = localConnector;
+        }
+    }
 }
@@ -17,8 +17,10 @@
  */
 package org.jboss.arquillian.container.jetty.embedded_11;
 
+import org.jboss.arquillian.container.jetty.LocalHttpClientProvider;
 import org.jboss.arquillian.container.spi.client.container.DeployableContainer;
 import org.jboss.arquillian.core.spi.LoadableExtension;
+import org.jboss.arquillian.test.spi.enricher.resource.ResourceProvider;
 
 /**
  * Jetty Embedded 11.x extension.
@@ -29,5 +31,6 @@ public class JettyExtension implements LoadableExtension {
     @Override
     public void register(ExtensionBuilder builder) {
         builder.service(DeployableContainer.class, JettyEmbeddedContainer.class);
+        builder.service(ResourceProvider.class, LocalHttpClientProvider.class);
     }
 }
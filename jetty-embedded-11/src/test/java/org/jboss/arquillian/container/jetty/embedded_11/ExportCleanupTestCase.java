@@ -0,0 +1,77 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat Middleware LLC, and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.arquillian.container.jetty.embedded_11;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.arquillian.container.test.api.Deployer;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.TargetsContainer;
+import org.jboss.arquillian.junit5.ArquillianExtension;
+import org.jboss.arquillian.test.api.ArquillianResource;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+
+/**
+ * Deploys to a container deleting exports once they are undeployed.
+ */
+@ExtendWith(ArquillianExtension.class)
+public class ExportCleanupTestCase {
+
+    private static final File EXPORT_DIRECTORY = new File("target", "arquillian-jetty-temp");
+
+    @Deployment(name = "cleanup", managed = false, testable = false) @TargetsContainer("export-cleanup")
+    public static WebArchive getTestArchive() {
+        return JettyEmbeddedClientTestCase.createServletArchive("cleanup.war");
+    }
+
+    @ArquillianResource
+    Deployer deployer;
+
+    @Test
+    public void shouldDeleteExportOnUndeploy() throws Exception {
+        Set<String> earlier = exports();
+        deployer.deploy("cleanup");
+        Set<String> exported = exports();
+        exported.removeAll(earlier);
+        assertThat(exported, hasSize(1));
+
+        deployer.undeploy("cleanup");
+
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        exported.retainAll(exports());
+        while (!exported.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+            exported.retainAll(exports());
+        }
+        assertThat(exported, empty());
+    }
+
+    private static Set<String> exports() {
+        String[] names = EXPORT_DIRECTORY.list((directory, name) -> name.endsWith("cleanup.war"));
+        return names == null ? new HashSet<>() : new HashSet<>(Arrays.asList(names));
+    }
+}
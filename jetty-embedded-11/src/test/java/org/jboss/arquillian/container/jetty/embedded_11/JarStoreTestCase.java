@@ -0,0 +1,62 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat Middleware LLC, and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.arquillian.container.jetty.embedded_11;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.TargetsContainer;
+import org.jboss.arquillian.junit5.ArquillianExtension;
+import org.jboss.arquillian.test.api.ArquillianResource;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import jakarta.servlet.ServletContext;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Deploys to a container linking the libraries of exploded archives from its jar store.
+ */
+@ExtendWith(ArquillianExtension.class)
+public class JarStoreTestCase {
+
+    @Deployment(testable = false) @TargetsContainer("jar-store")
+    public static WebArchive getTestArchive() {
+        return JettyEmbeddedClientTestCase.createServletArchive("jar-store.war")
+            .addAsLibrary(ShrinkWrap.create(JavaArchive.class, "lib.jar")
+                .addAsResource(new StringAsset("linked"), "linked.txt"));
+    }
+
+    @ArquillianResource
+    ServletContext servletContext;
+
+    @Test
+    public void shouldLinkLibrariesFromJarStore() throws Exception {
+        File library = new File(servletContext.getRealPath("/WEB-INF/lib/lib.jar"));
+
+        assertThat(library.isFile(), is(true));
+        assertThat((Integer) Files.getAttribute(library.toPath(), "unix:nlink"), greaterThan(1));
+    }
+}
@@ -67,17 +67,7 @@ public class JettyEmbeddedClientTestCase {
      */
     @Deployment(testable = false)
     public static WebArchive getTestArchive() {
-        return ShrinkWrap.create(WebArchive.class, "client-http.war")
-            .addClass(MyServlet.class)
-            .setWebXML(new StringAsset(Descriptors.create(WebAppDescriptor.class)
-                .version("4.0")
-                .createServlet()
-                .servletClass(MyServlet.class.getName())
-                .servletName("MyServlet").up()
-                .createServletMapping()
-                .servletName("MyServlet")
-                .urlPattern(MyServlet.URL_PATTERN).up()
-                .exportAsString()));
+        return createServletArchive("client-http.war");
     }
 
     /**
@@ -85,7 +75,14 @@ public class JettyEmbeddedClientTestCase {
      */
     @Deployment(testable = false, name = "webapp-https") @TargetsContainer("https")
     public static WebArchive getTestArchiveHttps() {
-        return ShrinkWrap.create(WebArchive.class, "client-https.war")
+        return createServletArchive("client-https.war");
+    }
+
+    /**
+     * Creates a web archive mapping {@link MyServlet}, also used by the test cases of single container features.
+     */
+    public static WebArchive createServletArchive(String name) {
+        return ShrinkWrap.create(WebArchive.class, name)
             .addClass(MyServlet.class)
             .setWebXML(new StringAsset(Descriptors.create(WebAppDescriptor.class)
                 .version("4.0")
@@ -0,0 +1,53 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat Middleware LLC, and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.arquillian.container.jetty.embedded_11;
+
+import org.jboss.arquillian.container.jetty.LocalHttpClient;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.TargetsContainer;
+import org.jboss.arquillian.junit5.ArquillianExtension;
+import org.jboss.arquillian.test.api.ArquillianResource;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.startsWith;
+
+/**
+ * Invokes a deployment through the in-memory connector of the container.
+ */
+@ExtendWith(ArquillianExtension.class)
+public class LocalConnectorTestCase {
+
+    @Deployment(testable = false) @TargetsContainer("local-connector")
+    public static WebArchive getTestArchive() {
+        return JettyEmbeddedClientTestCase.createServletArchive("local-connector.war");
+    }
+
+    @ArquillianResource
+    LocalHttpClient localHttpClient;
+
+    @Test
+    public void shouldBeAbleToInvokeServletThroughLocalConnector() throws Exception {
+        String response = localHttpClient.get(MyServlet.URL_PATTERN);
+
+        assertThat(response, startsWith("HTTP/1.1 200"));
+        assertThat(response, endsWith(MyServlet.MESSAGE));
+    }
+}
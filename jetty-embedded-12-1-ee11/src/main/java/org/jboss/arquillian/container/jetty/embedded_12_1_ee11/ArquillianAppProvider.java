@@ -3,11 +3,15 @@ package org.jboss.arquillian.container.jetty.embedded_12_1_ee11;
 import java.io.File;
 import java.io.IOException;
 import java.net.URI;
+import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collection;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 
 import org.eclipse.jetty.ee11.annotations.AnnotationConfiguration;
@@ -15,10 +19,22 @@ import org.eclipse.jetty.ee11.plus.webapp.EnvConfiguration;
 import org.eclipse.jetty.ee11.plus.webapp.PlusConfiguration;
 import org.eclipse.jetty.util.FileID;
 import org.eclipse.jetty.util.resource.Resource;
+import org.eclipse.jetty.ee11.webapp.Configuration;
 import org.eclipse.jetty.ee11.webapp.FragmentConfiguration;
 import org.eclipse.jetty.ee11.webapp.JettyWebXmlConfiguration;
+import org.eclipse.jetty.ee.webapp.WebAppClassLoader;
+import org.eclipse.jetty.ee11.webapp.MetaInfConfiguration;
 import org.eclipse.jetty.ee11.webapp.WebAppContext;
 import org.eclipse.jetty.util.resource.ResourceFactory;
+import org.jboss.arquillian.container.jetty.AnnotationScanCache;
+import org.jboss.arquillian.container.jetty.DeploymentCache;
+import org.jboss.arquillian.container.jetty.ExplodedArchiveExporter;
+import org.jboss.arquillian.container.jetty.ExportCleaner;
+import org.jboss.arquillian.container.jetty.ExportDirectory;
+import org.jboss.arquillian.container.jetty.JarStore;
+import org.jboss.arquillian.container.jetty.ParallelZipExporter;
+import org.jboss.arquillian.container.jetty.QuickStartCache;
+import org.jboss.arquillian.container.jetty.SharedLibraries;
 import org.jboss.shrinkwrap.api.Archive;
 import org.jboss.shrinkwrap.api.exporter.ZipExporter;
 
@@ -31,55 +47,85 @@ public class ArquillianAppProvider {
     private static final String EXPORT_FILE_PREFIX = "export";
 
     /**
-     * Directory into which we'll extract export the war files
+     * The directory below {@link #exportDir} holding the deployment cache
      */
-    private static final File EXPORT_DIR;
+    private static final String DEPLOYMENT_CACHE_DIR = "deployment-cache";
 
-    private static final String SLASH = "/";
+    /**
+     * The directory below {@link #exportDir} holding the jar store
+     */
+    private static final String JAR_STORE_DIR = "jar-store";
 
-    static {
-        /*
-         * Use of java.io.tmpdir Should be a last-resort fallback for temp directory.
-         * 
-         * Use of java.io.tmpdir on CI systems is dangerous (overwrite possibility is extremely high)
-         * 
-         * Use of java.io.tmpdir on Unix systems is unreliable (due to common /tmp dir cleanup processes)
-         */
-        File systemDefaultTmpDir = new File(System.getProperty("java.io.tmpdir"));
-
-        // If running under maven + surefire, use information provided by surefire.
-        String baseDirVal = System.getProperty("basedir");
-
-        File mavenTmpDir = null;
-        if (baseDirVal != null) {
-            File baseDir = new File(baseDirVal);
-            if (baseDir.exists() && baseDir.isDirectory()) {
-                File targetDir = new File(baseDir, "target");
-                if (targetDir.exists() && targetDir.isDirectory()) {
-                    mavenTmpDir = new File(targetDir, "arquillian-jetty-temp");
-                    mavenTmpDir.mkdirs();
-                }
-            }
-        }
+    /**
+     * The directory below {@link #exportDir} holding the jars of the shared library class loader
+     */
+    private static final String SHARED_LIBRARIES_DIR = "shared-libraries";
 
-        if ((mavenTmpDir != null) && mavenTmpDir.exists() && mavenTmpDir.isDirectory()) {
-            EXPORT_DIR = mavenTmpDir;
-        } else {
-            EXPORT_DIR = systemDefaultTmpDir;
-        }
+    /**
+     * The directory below {@link #exportDir} holding the quickstart descriptors
+     */
+    private static final String QUICKSTART_CACHE_DIR = "quickstart-cache";
 
-        // If the temp location doesn't exist or isn't a directory
-        if (!EXPORT_DIR.exists() || !EXPORT_DIR.isDirectory()) {
-            throw new IllegalStateException("Could not obtain export directory \"" + EXPORT_DIR.getAbsolutePath() + "\"");
-        }
-    }
+    /**
+     * The directory below {@link #exportDir} holding the annotation scan cache
+     */
+    private static final String ANNOTATION_SCAN_CACHE_DIR = "annotation-scan-cache";
+
+    /**
+     * The package of Jetty's optional quickstart module, whose classes are loaded by name
+     */
+    private static final String QUICKSTART_PACKAGE = "org.eclipse.jetty.ee11.quickstart.";
+
+    private static final String SLASH = "/";
 
     private final JettyEmbeddedConfiguration config;
 
+    /**
+     * Directory into which we'll extract export the war files
+     */
+    private final File exportDir;
+
+    private final ExplodedArchiveExporter exporter;
+    private final ParallelZipExporter zipExporter;
+    private final DeploymentCache deploymentCache;
+    private final Map<String, File> cachedExports = new ConcurrentHashMap<>();
+    private final ExportCleaner exportCleaner;
+    private final Map<String, File> disposableExports = new ConcurrentHashMap<>();
+    private final Map<String, File> incrementalExports = new ConcurrentHashMap<>();
+    private final SharedLibraries sharedLibraries;
+    private final QuickStartCache quickStartCache;
+    private final AnnotationScanCache annotationScanCache;
+
     private final Collection<WebAppContextProcessor> webAppContextProcessors;
 
     public ArquillianAppProvider(JettyEmbeddedConfiguration config, Collection<WebAppContextProcessor> webAppContextProcessors) {
         this.config = config;
+        this.exportDir = ExportDirectory.resolve(config);
+        this.zipExporter = config.isParallelZipExport()
+            ? new ParallelZipExporter(config.getExportThreads(), config.getExportCompression())
+            : null;
+        final JarStore jarStore = config.isJarStoreEnabled()
+            ? JarStore.forDirectory(new File(exportDir, JAR_STORE_DIR),
+                config.getJarStoreMaxSizeMb() * 1024L * 1024L)
+            : null;
+        this.exporter = new ExplodedArchiveExporter(jarStore);
+        this.exportCleaner = config.isDeleteExportOnUndeploy()
+            ? new ExportCleaner(config.getExportDeletionBudgetMb() * 1024L * 1024L)
+            : null;
+        this.deploymentCache = config.isDeploymentCacheEnabled()
+            ? DeploymentCache.forDirectory(new File(exportDir, DEPLOYMENT_CACHE_DIR),
+                config.getDeploymentCacheMaxSizeMb() * 1024L * 1024L, jarStore)
+            : null;
+        this.sharedLibraries = config.isSharedLibrariesEnabled()
+            ? new SharedLibraries(new File(exportDir, SHARED_LIBRARIES_DIR), config.getSharedLibraries(),
+                config.isShareIdenticalLibraries())
+            : null;
+        this.quickStartCache = config.isQuickstart()
+            ? new QuickStartCache(new File(exportDir, QUICKSTART_CACHE_DIR))
+            : null;
+        this.annotationScanCache = config.isAnnotationScanCacheEnabled()
+            ? AnnotationScanCache.forDirectory(new File(exportDir, ANNOTATION_SCAN_CACHE_DIR))
+            : null;
         this.webAppContextProcessors = webAppContextProcessors;
     }
 
@@ -96,22 +142,38 @@ public class ArquillianAppProvider {
         name = name.substring(0, extOff);
 
         final File exported;
-        try {
-            if (this.config.isUseArchiveNameAsContext()) {
-                exported = EXPORT_DIR.toPath().resolve(archive.getName()).toFile();
-                exported.deleteOnExit();
+        if (this.deploymentCache != null) {
+            exported = this.deploymentCache.acquire(archive,
+                this.config.isUseArchiveNameAsContext() ? null : EXPORT_FILE_PREFIX);
+            this.cachedExports.put(archive.getName(), exported);
+        } else if (this.config.isExportExploded() || this.config.isExportIncremental()) {
+            exported = exportExploded(archive);
+        } else {
+            try {
+                if (this.config.isUseArchiveNameAsContext()) {
+                    exported = exportDir.toPath().resolve(archive.getName()).toFile();
+                    exported.deleteOnExit();
+                } else {
+                    // If this method returns successfully then it is guaranteed that:
+                    // 1. The file denoted by the returned abstract pathname did not exist before this method was invoked, and
+                    // 2. Neither this method nor any of its variants will return the same abstract pathname again in the current invocation of the virtual machine.
+                    exported = File.createTempFile(EXPORT_FILE_PREFIX, archive.getName(), exportDir);
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Could not create temporary File in " + exportDir + " to write exported archive",
+                    e);
+            }
+            // We are overwriting the temporary file placeholder reserved by File#createTemplateFile()
+            if (zipExporter != null) {
+                zipExporter.exportTo(archive, exported);
             } else {
-                // If this method returns successfully then it is guaranteed that:
-                // 1. The file denoted by the returned abstract pathname did not exist before this method was invoked, and
-                // 2. Neither this method nor any of its variants will return the same abstract pathname again in the current invocation of the virtual machine.
-                exported = File.createTempFile(EXPORT_FILE_PREFIX, archive.getName(), EXPORT_DIR);
+                archive.as(ZipExporter.class).exportTo(exported, true);
             }
-        } catch (IOException e) {
-            throw new RuntimeException("Could not create temporary File in " + EXPORT_DIR + " to write exported archive",
-                e);
         }
-        // We are overwriting the temporary file placeholder reserved by File#createTemplateFile()
-        archive.as(ZipExporter.class).exportTo(exported, true);
+        if (this.exportCleaner != null && this.deploymentCache == null
+            && !exported.equals(this.incrementalExports.get(archive.getName()))) {
+            this.disposableExports.put(archive.getName(), exported);
+        }
 
         // Mark to delete when we come down
         // exported.deleteOnExit();
@@ -127,7 +189,9 @@ public class ArquillianAppProvider {
 
         String context = file.toFile().getName();
 
-        if (FileID.isExtension(file, "war", "jar")) {
+        // FileID only recognizes files, exploded archives keep the extension in their directory name
+        if (FileID.isExtension(file, "war", "jar")
+            || (Files.isDirectory(file) && FileID.isExtension(file.getFileName().toString(), "war", "jar"))) {
             // Context Path is the same as the archive.
             context = context.substring(0, context.length() - 4);
         } else {
@@ -156,11 +220,18 @@ public class ArquillianAppProvider {
 
             // Applying equivalent of etc/jetty-annotations.xml
             webAppContext.addConfiguration(new JettyWebXmlConfiguration(),
-                new AnnotationConfiguration());
+                annotationScanCache != null ? new CachingAnnotationConfiguration(annotationScanCache)
+                    : new AnnotationConfiguration());
 
             // Applying equivalent of etc/jetty-plus.xml
             webAppContext.addConfiguration(new FragmentConfiguration()
                 , new EnvConfiguration(), new PlusConfiguration());
+
+            // Logs the jars skipped by the WebInfIncludeJarPattern
+            webAppContext.addConfiguration(new JarScanMetaInfConfiguration());
+        }
+        if (quickStartCache != null) {
+            configureQuickStart(webAppContext, archive, exported);
         }
 
         // special case of archive (or dir) named "root" is / context
@@ -186,6 +257,23 @@ public class ArquillianAppProvider {
         webAppContext.setExtractWAR(true);
 
         webAppContext.setParentLoaderPriority(config.getClassloaderBehavior() == JettyEmbeddedConfiguration.ClassLoaderBehavior.JAVA_SPEC);
+        if (sharedLibraries != null) {
+            final Set<String> shared = sharedLibraries.share(archive);
+            // null if its libraries conflict with the shared ones, the deployment then loads all of them itself
+            if (shared != null) {
+                webAppContext.setClassLoader(new WebAppClassLoader(sharedLibraries.getClassLoader(), webAppContext) {
+                    @Override
+                    protected void addURL(URL url) {
+                        // Shared libraries are found through the parent, where their classes are defined once for all deployments
+                        if (!SharedLibraries.isShared(url, shared)) {
+                            super.addURL(url);
+                        }
+                    }
+                });
+            }
+        }
+
+        configureJarScanning(webAppContext);
 
         if (config.getTempDirectory() != null) {
             /*
@@ -201,4 +289,122 @@ public class ArquillianAppProvider {
         return webAppContext;
     }
 
+    /**
+     * Releases the export of an undeployed archive: a deployment served from the deployment cache is handed back to the
+     * cache, the directory of an incremental export is unlocked, any other export is deleted in the background if so
+     * configured.
+     */
+    public void release(final Archive<?> archive) {
+        if (this.quickStartCache != null) {
+            this.quickStartCache.collect(archive);
+        }
+        File exported = this.cachedExports.remove(archive.getName());
+        if (exported != null) {
+            this.deploymentCache.release(exported);
+        }
+        File disposable = this.disposableExports.remove(archive.getName());
+        if (disposable != null) {
+            this.exportCleaner.delete(disposable);
+        }
+        File incremental = this.incrementalExports.remove(archive.getName());
+        if (incremental != null) {
+            ExplodedArchiveExporter.unlock(incremental);
+        }
+    }
+
+    /**
+     * Logs how well the caches that outlive single deployments performed, at the end of a suite.
+     */
+    public void logStatistics() {
+        if (this.annotationScanCache != null) {
+            LOG.info("Annotation scanning, " + this.annotationScanCache);
+        }
+    }
+
+    /**
+     * Lets Jetty's quickstart module stand in for annotation and descriptor scanning. Content deployed for the first time
+     * is scanned as usual and generates its {@code quickstart-web.xml} while starting, the same content deployed again
+     * starts from the cached descriptor.
+     */
+    private void configureQuickStart(final WebAppContext webAppContext, final Archive<?> archive, final File webapp) {
+        final boolean restored = quickStartCache.restore(archive, webapp, exporter.getContentDigest(webapp));
+        final ClassLoader classLoader = ArquillianAppProvider.class.getClassLoader();
+        try {
+            final Class<?> quickStart = Class.forName(QUICKSTART_PACKAGE + "QuickStartConfiguration", true, classLoader);
+            final Class<?> mode = Class.forName(QUICKSTART_PACKAGE + "QuickStartConfiguration$Mode", true, classLoader);
+            webAppContext.setAttribute((String) quickStart.getField("MODE").get(null),
+                mode.getField(restored ? "QUICKSTART" : "AUTO").get(null));
+            webAppContext.addConfiguration((Configuration) quickStart.getConstructor().newInstance());
+            if (!restored) {
+                // Generates the descriptor without aborting the start of the webapp
+                final Class<?> generatorType = Class.forName(QUICKSTART_PACKAGE + "QuickStartGeneratorConfiguration",
+                    true, classLoader);
+                final Object generator = generatorType.getConstructor(boolean.class).newInstance(false);
+                // Jetty only tells the generator where to write in GENERATE mode
+                generatorType.getMethod("setQuickStartWebXml", Path.class).invoke(generator, webapp.toPath().resolve(QuickStartCache.QUICKSTART_WEB_XML));
+                webAppContext.addConfiguration((Configuration) generator);
+            }
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("quickstart requires org.eclipse.jetty.ee11:jetty-ee11-quickstart on the class path", e);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not configure quickstart for " + archive.getName(), e);
+        }
+    }
+
+    private void configureJarScanning(final WebAppContext webAppContext) {
+        if (config.getContainerIncludeJarPattern() != null) {
+            webAppContext.setAttribute(MetaInfConfiguration.CONTAINER_JAR_PATTERN, config.getContainerIncludeJarPattern());
+        }
+        if (config.getWebInfIncludeJarPattern() != null) {
+            webAppContext.setAttribute(MetaInfConfiguration.WEBINF_JAR_PATTERN, config.getWebInfIncludeJarPattern());
+        }
+        if (config.getContainerInitializerExclusionPattern() != null) {
+            webAppContext.setAttribute(AnnotationConfiguration.SERVLET_CONTAINER_INITIALIZER_EXCLUSION_PATTERN,
+                config.getContainerInitializerExclusionPattern());
+        }
+    }
+
+    /**
+     * Writes the archive straight into a webapp directory, named the same way the WAR file would be, so neither
+     * a compressed WAR nor Jetty's extraction of it is needed. Incremental exports reuse the directory of the previous
+     * export of the archive, unless another container, of this or another JVM, has it deployed.
+     */
+    private File exportExploded(final Archive<?> archive) {
+        if (this.config.isExportIncremental()) {
+            // Redeployments of an archive reuse its directory, so only the changed entries need to be written
+            final File incremental = this.config.isUseArchiveNameAsContext()
+                ? exportDir.toPath().resolve(archive.getName()).toFile()
+                : exportDir.toPath().resolve(EXPORT_FILE_PREFIX + archive.getName()).toFile();
+            if (ExplodedArchiveExporter.tryLock(incremental)) {
+                try {
+                    exporter.exportIncrementally(archive, incremental);
+                } catch (RuntimeException e) {
+                    ExplodedArchiveExporter.unlock(incremental);
+                    throw e;
+                }
+                this.incrementalExports.put(archive.getName(), incremental);
+                return incremental;
+            }
+            LOG.info(incremental + " is deployed by another container, exporting " + archive.getName() + " in full");
+        }
+        final File exploded;
+        try {
+            if (this.config.isUseArchiveNameAsContext() && !this.config.isExportIncremental()) {
+                exploded = exportDir.toPath().resolve(archive.getName()).toFile();
+            } else if (this.config.isUseArchiveNameAsContext()) {
+                // A directory of its own keeps the archive name, and with it the context path
+                exploded = Files.createTempDirectory(exportDir.toPath(), EXPORT_FILE_PREFIX).resolve(archive.getName())
+                    .toFile();
+            } else {
+                // Reserve a unique name, the exploded directory takes the place of the placeholder file
+                exploded = File.createTempFile(EXPORT_FILE_PREFIX, archive.getName(), exportDir);
+                Files.delete(exploded.toPath());
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Could not create temporary directory in " + exportDir + " to write exploded archive",
+                e);
+        }
+        return exporter.export(archive, exploded);
+    }
+
 }
@@ -0,0 +1,52 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat Middleware LLC, and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.arquillian.container.jetty.embedded_12_1_ee11;
+
+import java.lang.annotation.Annotation;
+import java.net.UnixDomainSocketAddress;
+import java.util.Collection;
+
+import org.jboss.arquillian.container.spi.client.protocol.metadata.ProtocolMetaData;
+import org.jboss.arquillian.core.api.Instance;
+import org.jboss.arquillian.core.api.annotation.Inject;
+import org.jboss.arquillian.test.api.ArquillianResource;
+import org.jboss.arquillian.test.spi.enricher.resource.ResourceProvider;
+
+/**
+ * Provides the {@link UnixDomainSocketAddress} a deployment is reachable on when the container is configured with a
+ * {@code unixDomainPath}, e.g. for Jetty's {@code ClientConnector.forUnixDomain(Path)}.
+ */
+public class UnixDomainSocketAddressProvider implements ResourceProvider {
+
+    @Inject
+    private Instance<ProtocolMetaData> protocolMetaData;
+
+    @Override
+    public boolean canProvide(Class<?> type) {
+        return UnixDomainSocketAddress.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public Object lookup(ArquillianResource resource, Annotation... qualifiers) {
+        final ProtocolMetaData metaData = protocolMetaData.get();
+        if (metaData == null) {
+            return null;
+        }
+        final Collection<UnixDomainSocketAddress> addresses = metaData.getContexts(UnixDomainSocketAddress.class);
+        return addresses.isEmpty() ? null : addresses.iterator().next();
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat Middleware LLC, and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.arquillian.container.jetty.embedded_12_1_ee11;
+
+import java.net.URL;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.OperateOnDeployment;
+import org.jboss.arquillian.container.test.api.TargetsContainer;
+import org.jboss.arquillian.junit5.ArquillianExtension;
+import org.jboss.arquillian.test.api.ArquillianResource;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.jboss.arquillian.container.jetty.embedded_12_1_ee11.JettyEmbeddedClientTestCase.readAllAndClose;
+
+/**
+ * Deploys the archives of the test class at the same time, see {@code deploymentConcurrency}.
+ */
+@ExtendWith(ArquillianExtension.class)
+public class ConcurrentDeploymentTestCase {
+
+    @Deployment(name = "first", testable = false) @TargetsContainer("concurrent")
+    public static WebArchive getFirstArchive() {
+        return JettyEmbeddedClientTestCase.createServletArchive("concurrent-first.war");
+    }
+
+    @Deployment(name = "second", testable = false) @TargetsContainer("concurrent")
+    public static WebArchive getSecondArchive() {
+        return JettyEmbeddedClientTestCase.createServletArchive("concurrent-second.war");
+    }
+
+    @ArquillianResource @OperateOnDeployment("first") URL firstUrl;
+
+    @ArquillianResource @OperateOnDeployment("second") URL secondUrl;
+
+    @Test
+    public void shouldDeployEveryArchive() throws Exception {
+        assertThat(readAllAndClose(new URL(firstUrl, MyServlet.URL_PATTERN).openStream()), is(MyServlet.MESSAGE));
+        assertThat(readAllAndClose(new URL(secondUrl, MyServlet.URL_PATTERN).openStream()), is(MyServlet.MESSAGE));
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat Middleware LLC, and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.arquillian.container.jetty.embedded_12_1_ee11;
+
+import java.net.URL;
+
+import org.eclipse.jetty.util.VirtualThreads;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.TargetsContainer;
+import org.jboss.arquillian.junit5.ArquillianExtension;
+import org.jboss.arquillian.test.api.ArquillianResource;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.jboss.shrinkwrap.descriptor.api.Descriptors;
+import org.jboss.shrinkwrap.descriptor.api.webapp30.WebAppDescriptor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+import static org.jboss.arquillian.container.jetty.embedded_12_1_ee11.JettyEmbeddedClientTestCase.readAllAndClose;
+
+/**
+ * Deploys to a container running servlet requests on virtual threads, where the JVM supports them.
+ */
+@ExtendWith(ArquillianExtension.class)
+public class VirtualThreadsTestCase {
+
+    @Deployment(testable = false) @TargetsContainer("virtual-threads")
+    public static WebArchive getTestArchive() {
+        return ShrinkWrap.create(WebArchive.class, "virtual-threads.war")
+            .addClass(MyThreadServlet.class)
+            .setWebXML(new StringAsset(Descriptors.create(WebAppDescriptor.class)
+                .version("4.0")
+                .createServlet()
+                .servletClass(MyThreadServlet.class.getName())
+                .servletName("MyThreadServlet").up()
+                .createServletMapping()
+                .servletName("MyThreadServlet")
+                .urlPattern(MyThreadServlet.URL_PATTERN).up()
+                .exportAsString()));
+    }
+
+    @ArquillianResource URL url;
+
+    @Test
+    public void shouldServeRequestsOnVirtualThreadsIfSupported() throws Exception {
+        String thread = readAllAndClose(new URL(url, MyThreadServlet.URL_PATTERN).openStream());
+
+        assertThat(thread.startsWith("arquillian-jetty-vt-"), is(VirtualThreads.areSupported()));
+        if (!VirtualThreads.areSupported()) {
+            assertThat(thread, startsWith("qtp"));
+        }
+    }
+}
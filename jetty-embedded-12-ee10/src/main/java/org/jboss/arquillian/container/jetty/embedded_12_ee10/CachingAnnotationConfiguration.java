@@ -0,0 +1,153 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat Middleware LLC, and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.arquillian.container.jetty.embedded_12_ee10;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.jetty.ee10.annotations.AnnotationConfiguration;
+import org.eclipse.jetty.ee10.annotations.AnnotationParser;
+import org.eclipse.jetty.ee10.webapp.Configuration;
+import org.eclipse.jetty.util.resource.Resource;
+import org.jboss.arquillian.container.jetty.AnnotationScanCache;
+
+/**
+ * An {@link AnnotationConfiguration} answering the scans of library jars from an {@link AnnotationScanCache}, so jars
+ * that did not change since an earlier scan are not parsed again.
+ */
+public class CachingAnnotationConfiguration extends AnnotationConfiguration {
+
+    private final AnnotationScanCache cache;
+
+    public CachingAnnotationConfiguration(AnnotationScanCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public Class<? extends Configuration> replaces() {
+        return AnnotationConfiguration.class;
+    }
+
+    @Override
+    protected AnnotationParser createAnnotationParser(int javaPlatform) {
+        return new CachingAnnotationParser(javaPlatform, cache);
+    }
+
+    private static final class CachingAnnotationParser extends AnnotationParser {
+
+        private final AnnotationScanCache cache;
+
+        private CachingAnnotationParser(int javaPlatform, AnnotationScanCache cache) {
+            super(javaPlatform);
+            this.cache = cache;
+        }
+
+        @Override
+        protected void parseJar(Set<? extends Handler> handlers, Resource jar) throws Exception {
+            final Path file = jar == null ? null : jar.getPath();
+            if (file == null || !Files.isRegularFile(file)) {
+                super.parseJar(handlers, jar);
+                return;
+            }
+            final long start = System.nanoTime();
+            final String key = cache.key(file);
+            final AnnotationScanCache.Entry entry = cache.get(key);
+            if (entry != null) {
+                replay(handlers, jar, entry.getClasses());
+                cache.replayed(entry, System.nanoTime() - start);
+                return;
+            }
+            final AnnotationScanCache.Recorder recorder = new AnnotationScanCache.Recorder();
+            final Set<Handler> recording = new HashSet<>(handlers);
+            recording.add(new RecordingHandler(recorder));
+            super.parseJar(recording, jar);
+            cache.put(key, recorder, System.nanoTime() - start);
+        }
+
+        private void replay(Set<? extends Handler> handlers, Resource jar, List<AnnotationScanCache.ScannedClass> classes) {
+            for (AnnotationScanCache.ScannedClass scanned : classes) {
+                final ClassInfo classInfo = new ClassInfo(jar, scanned.getName(), scanned.getVersion(),
+                    scanned.getAccess(), scanned.getSignature(), scanned.getSuperName(), scanned.getInterfaces());
+                _parsedClassNames.putIfAbsent(scanned.getName(), jar.getURI());
+                for (Handler handler : handlers) {
+                    handler.handle(classInfo);
+                    for (String annotation : scanned.getAnnotations()) {
+                        handler.handle(classInfo, annotation);
+                    }
+                }
+                for (AnnotationScanCache.ScannedMember method : scanned.getMethods()) {
+                    final MethodInfo methodInfo = new MethodInfo(classInfo, method.getName(), method.getAccess(),
+                        method.getDescriptor(), method.getSignature(), method.getExceptions());
+                    for (Handler handler : handlers) {
+                        handler.handle(methodInfo);
+                        for (String annotation : method.getAnnotations()) {
+                            handler.handle(methodInfo, annotation);
+                        }
+                    }
+                }
+                for (AnnotationScanCache.ScannedMember field : scanned.getFields()) {
+                    final FieldInfo fieldInfo = new FieldInfo(classInfo, field.getName(), field.getAccess(),
+                        field.getDescriptor(), field.getSignature(), null);
+                    for (Handler handler : handlers) {
+                        handler.handle(fieldInfo);
+                        for (String annotation : field.getAnnotations()) {
+                            handler.handle(fieldInfo, annotation);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Passes the reports of a jar scan on to the recorder of the cache.
+     */
+    private static final class RecordingHandler extends AnnotationParser.AbstractHandler {
+
+        private final AnnotationScanCache.Recorder recorder;
+
+        private RecordingHandler(AnnotationScanCache.Recorder recorder) {
+            this.recorder = recorder;
+        }
+
+        @Override
+        public void handle(AnnotationParser.ClassInfo info) {
+            recorder.classFound(info.getClassName(), info.getVersion(), info.getAccess(), info.getSignature(),
+                info.getSuperName(), info.getInterfaces());
+        }
+
+        @Override
+        public void handle(AnnotationParser.ClassInfo info, String annotationName) {
+            recorder.classAnnotated(info.getClassName(), annotationName);
+        }
+
+        @Override
+        public void handle(AnnotationParser.MethodInfo info, String annotationName) {
+            recorder.methodAnnotated(info.getClassInfo().getClassName(), info.getMethodName(), info.getAccess(),
+                info.getDesc(), info.getSignature(), info.getExceptions(), annotationName);
+        }
+
+        @Override
+        public void handle(AnnotationParser.FieldInfo info, String annotationName) {
+            recorder.fieldAnnotated(info.getClassInfo().getClassName(), info.getFieldName(), info.getAccess(),
+                info.getFieldType(), info.getSignature(), annotationName);
+        }
+    }
+}
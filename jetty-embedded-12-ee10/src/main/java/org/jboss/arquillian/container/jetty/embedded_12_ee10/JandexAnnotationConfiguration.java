@@ -0,0 +1,140 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat Middleware LLC, and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.arquillian.container.jetty.embedded_12_ee10;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.jetty.ee10.annotations.AnnotationConfiguration;
+import org.eclipse.jetty.ee10.annotations.AnnotationParser;
+import org.eclipse.jetty.ee10.webapp.Configuration;
+import org.eclipse.jetty.util.resource.Resource;
+import org.jboss.jandex.AnnotationInstance;
+import org.jboss.jandex.DotName;
+import org.jboss.jandex.IndexView;
+import org.jboss.jandex.Type;
+
+/**
+ * An {@link AnnotationConfiguration} answering the servlet annotation and {@code @HandlesTypes} queries of the scan
+ * handlers from Jandex indexes instead of parsing every class file, see {@link JandexIndexCache}. Class directories,
+ * such as {@code WEB-INF/classes}, are only answered from an index if they contain a {@code META-INF/jandex.idx}.
+ */
+public class JandexAnnotationConfiguration extends AnnotationConfiguration {
+
+    private final JandexIndexCache indexes;
+
+    public JandexAnnotationConfiguration(JandexIndexCache indexes) {
+        this.indexes = indexes;
+    }
+
+    @Override
+    public Class<? extends Configuration> replaces() {
+        return AnnotationConfiguration.class;
+    }
+
+    @Override
+    protected AnnotationParser createAnnotationParser(int javaPlatform) {
+        return new IndexedAnnotationParser(javaPlatform, indexes);
+    }
+
+    private static final class IndexedAnnotationParser extends AnnotationParser {
+
+        private final JandexIndexCache indexes;
+
+        private IndexedAnnotationParser(int javaPlatform, JandexIndexCache indexes) {
+            super(javaPlatform);
+            this.indexes = indexes;
+        }
+
+        @Override
+        protected void parseJar(Set<? extends Handler> handlers, Resource jar) throws Exception {
+            final Path file = jar == null ? null : jar.getPath();
+            if (file == null || !Files.isRegularFile(file)) {
+                super.parseJar(handlers, jar);
+                return;
+            }
+            replay(handlers, jar, indexes.getIndex(file));
+        }
+
+        @Override
+        protected void parseDir(Set<? extends Handler> handlers, Resource dir) throws Exception {
+            final Path index = dir == null || dir.getPath() == null ? null
+                : dir.getPath().resolve(JandexIndexCache.INDEX_ENTRY);
+            if (index == null || !Files.isRegularFile(index)) {
+                super.parseDir(handlers, dir);
+                return;
+            }
+            replay(handlers, dir, JandexIndexCache.read(index));
+        }
+
+        private void replay(Set<? extends Handler> handlers, Resource resource, IndexView index) {
+            for (org.jboss.jandex.ClassInfo indexed : index.getKnownClasses()) {
+                final String className = indexed.name().toString();
+                final ClassInfo classInfo = new ClassInfo(resource, className, 0, indexed.flags(),
+                    indexed.genericSignatureIfRequired(), name(indexed.superName()), names(indexed.interfaceNames()));
+                _parsedClassNames.putIfAbsent(className, resource.getURI());
+                for (Handler handler : handlers) {
+                    handler.handle(classInfo);
+                    for (AnnotationInstance annotation : indexed.declaredAnnotations()) {
+                        handler.handle(classInfo, annotation.name().toString());
+                    }
+                }
+                for (org.jboss.jandex.MethodInfo method : indexed.methods()) {
+                    if (method.declaredAnnotations().isEmpty()) {
+                        continue;
+                    }
+                    final MethodInfo methodInfo = new MethodInfo(classInfo, method.name(), method.flags(),
+                        method.descriptor(), method.genericSignatureIfRequired(), names(method.exceptions()));
+                    for (Handler handler : handlers) {
+                        handler.handle(methodInfo);
+                        for (AnnotationInstance annotation : method.declaredAnnotations()) {
+                            handler.handle(methodInfo, annotation.name().toString());
+                        }
+                    }
+                }
+                for (org.jboss.jandex.FieldInfo field : indexed.fields()) {
+                    if (field.declaredAnnotations().isEmpty()) {
+                        continue;
+                    }
+                    final FieldInfo fieldInfo = new FieldInfo(classInfo, field.name(), field.flags(),
+                        field.descriptor(), field.genericSignatureIfRequired(), null);
+                    for (Handler handler : handlers) {
+                        handler.handle(fieldInfo);
+                        for (AnnotationInstance annotation : field.declaredAnnotations()) {
+                            handler.handle(fieldInfo, annotation.name().toString());
+                        }
+                    }
+                }
+            }
+        }
+
+        private static String name(DotName name) {
+            return name == null ? null : name.toString();
+        }
+
+        private static String[] names(List<?> names) {
+            final String[] result = new String[names.size()];
+            for (int i = 0; i < result.length; i++) {
+                final Object name = names.get(i);
+                result[i] = name instanceof Type ? ((Type) name).name().toString() : name.toString();
+            }
+            return result;
+        }
+    }
+}
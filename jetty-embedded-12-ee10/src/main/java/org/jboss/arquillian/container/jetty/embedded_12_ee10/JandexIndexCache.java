@@ -0,0 +1,197 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat Middleware LLC, and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.arquillian.container.jetty.embedded_12_ee10;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.jboss.arquillian.container.jetty.JarDigest;
+import org.jboss.jandex.Index;
+import org.jboss.jandex.IndexReader;
+import org.jboss.jandex.IndexWriter;
+import org.jboss.jandex.Indexer;
+
+/**
+ * The Jandex indexes of the jars scanned by {@link JandexAnnotationConfiguration}. An index shipped in a jar as
+ * {@code META-INF/jandex.idx} is used as-is; jars without one are indexed once and their index is kept by jar content in
+ * the cache directory, which several JVMs, such as forked test runs, can share.
+ */
+public class JandexIndexCache {
+
+    private static final Logger log = Logger.getLogger(JandexIndexCache.class.getName());
+
+    private static final Map<File, JandexIndexCache> CACHES = new HashMap<>();
+
+    /**
+     * The location of a Jandex index in a jar or class directory
+     */
+    static final String INDEX_ENTRY = "META-INF/jandex.idx";
+
+    private static final String CLASS_SUFFIX = ".class";
+
+    private final Path directory;
+
+    private final AtomicLong shipped = new AtomicLong();
+
+    private final AtomicLong cached = new AtomicLong();
+
+    private final AtomicLong built = new AtomicLong();
+
+    JandexIndexCache(File directory) {
+        this.directory = directory.toPath();
+        try {
+            Files.createDirectories(this.directory);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not create Jandex index cache directory " + directory, e);
+        }
+    }
+
+    /**
+     * Returns the cache kept in the given directory, shared by all containers of the JVM.
+     *
+     * @param directory the directory holding the built indexes
+     * @return the cache
+     */
+    public static JandexIndexCache forDirectory(File directory) {
+        synchronized (CACHES) {
+            return CACHES.computeIfAbsent(directory.getAbsoluteFile(), JandexIndexCache::new);
+        }
+    }
+
+    /**
+     * @param jar the jar to scan
+     * @return the index shipped in the jar, or the index built for its content
+     * @throws IOException if the jar could not be read
+     */
+    public Index getIndex(Path jar) throws IOException {
+        try (ZipFile zip = new ZipFile(jar.toFile())) {
+            final ZipEntry entry = zip.getEntry(INDEX_ENTRY);
+            if (entry != null) {
+                try (InputStream in = zip.getInputStream(entry)) {
+                    final Index index = new IndexReader(in).read();
+                    shipped.incrementAndGet();
+                    return index;
+                } catch (IOException | IllegalArgumentException e) {
+                    log.fine("Indexing " + jar + " again, its index can not be read: " + e);
+                }
+            }
+            final Path stored = directory.resolve(JarDigest.of(jar) + ".idx");
+            if (Files.isRegularFile(stored)) {
+                try {
+                    final Index index = read(stored);
+                    cached.incrementAndGet();
+                    return index;
+                } catch (IOException | IllegalArgumentException e) {
+                    log.fine("Indexing " + jar + " again, its cached index can not be read: " + e);
+                }
+            }
+            final Index index = build(zip);
+            store(stored, index);
+            built.incrementAndGet();
+            return index;
+        }
+    }
+
+    /**
+     * @param file an index file
+     * @return the index
+     * @throws IOException if the index could not be read
+     */
+    public static Index read(Path file) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            return new IndexReader(in).read();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Jandex indexes " + directory + " [shipped=" + shipped.get() + ", cached=" + cached.get() + ", built="
+            + built.get() + "]";
+    }
+
+    private static Index build(ZipFile zip) throws IOException {
+        final Indexer indexer = new Indexer();
+        for (ZipEntry entry : Collections.list(zip.entries())) {
+            if (entry.isDirectory() || !isClassFile(entry.getName())) {
+                continue;
+            }
+            try (InputStream in = zip.getInputStream(entry)) {
+                indexer.index(in);
+            } catch (IOException | RuntimeException e) {
+                log.warning("Skipping " + entry.getName() + " of " + zip.getName() + ", it can not be indexed: " + e);
+            }
+        }
+        return indexer.complete();
+    }
+
+    /**
+     * Matches the class files Jetty's annotation parser would scan, leaving out versioned entries of multi-release
+     * jars and descriptors such as {@code module-info.class}.
+     */
+    private static boolean isClassFile(String name) {
+        if (!name.endsWith(CLASS_SUFFIX) || name.startsWith("META-INF/")) {
+            return false;
+        }
+        final String simpleName = name.substring(name.lastIndexOf('/') + 1, name.length() - CLASS_SUFFIX.length());
+        if (simpleName.isEmpty() || !Character.isJavaIdentifierStart(simpleName.charAt(0))) {
+            return false;
+        }
+        for (int i = 1; i < simpleName.length(); i++) {
+            if (!Character.isJavaIdentifierPart(simpleName.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void store(Path stored, Index index) {
+        final Path staging = directory.resolve(stored.getFileName() + ".tmp-" + UUID.randomUUID());
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(staging))) {
+                new IndexWriter(out).write(index);
+            }
+            try {
+                Files.move(staging, stored, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(staging, stored, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            log.warning("Could not store Jandex index " + stored + ": " + e);
+            try {
+                Files.deleteIfExists(staging);
+            } catch (IOException ignored) {
+                // left for the next run to overwrite
+            }
+        }
+    }
+}
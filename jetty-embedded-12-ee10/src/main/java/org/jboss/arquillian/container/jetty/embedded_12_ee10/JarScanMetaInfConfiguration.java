@@ -0,0 +1,49 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat Middleware LLC, and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.arquillian.container.jetty.embedded_12_ee10;
+
+import java.util.List;
+import java.util.logging.Logger;
+
+import org.eclipse.jetty.ee10.webapp.Configuration;
+import org.eclipse.jetty.ee10.webapp.MetaInfConfiguration;
+import org.eclipse.jetty.ee10.webapp.WebAppContext;
+import org.eclipse.jetty.util.resource.Resource;
+
+/**
+ * A {@link MetaInfConfiguration} logging, for every deployment, how many {@code WEB-INF/lib} jars are scanned and how
+ * many the {@code WebInfIncludeJarPattern} skips.
+ */
+public class JarScanMetaInfConfiguration extends MetaInfConfiguration {
+
+    private static final Logger LOG = Logger.getLogger(JarScanMetaInfConfiguration.class.getName());
+
+    @Override
+    public Class<? extends Configuration> replaces() {
+        return MetaInfConfiguration.class;
+    }
+
+    @Override
+    public void findAndFilterWebAppPaths(WebAppContext context) throws Exception {
+        super.findAndFilterWebAppPaths(context);
+        final List<Resource> jars = findJars(context);
+        final int found = jars == null ? 0 : jars.size();
+        final int scanned = context.getMetaData().getWebInfResources(false).size();
+        LOG.info("Scanning " + scanned + " of " + found + " jars of " + context.getContextPath() + ", "
+            + (found - scanned) + " skipped by the WebInfIncludeJarPattern");
+    }
+}
@@ -17,15 +17,24 @@
 package org.jboss.arquillian.container.jetty.embedded_12_ee10;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.net.UnixDomainSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.codehaus.plexus.util.ReflectionUtils;
+import org.eclipse.jetty.alpn.server.ALPNServerConnectionFactory;
 import org.eclipse.jetty.deploy.App;
 import org.eclipse.jetty.deploy.AppLifeCycle;
 import org.eclipse.jetty.deploy.DeploymentManager;
@@ -33,13 +42,20 @@ import org.eclipse.jetty.ee10.cdi.CdiDecoratingListener;
 import org.eclipse.jetty.ee10.cdi.CdiServletContainerInitializer;
 import org.eclipse.jetty.http.CookieCompliance;
 import org.eclipse.jetty.http.HttpVersion;
+import org.eclipse.jetty.http2.HTTP2Cipher;
+import org.eclipse.jetty.http2.WindowRateControl;
+import org.eclipse.jetty.http2.server.AbstractHTTP2ServerConnectionFactory;
 import org.eclipse.jetty.http2.server.HTTP2CServerConnectionFactory;
+import org.eclipse.jetty.http2.server.HTTP2ServerConnectionFactory;
+import org.eclipse.jetty.io.ArrayByteBufferPool;
+import org.eclipse.jetty.io.ByteBufferPool;
 import org.eclipse.jetty.security.HashLoginService;
 import org.eclipse.jetty.server.ConnectionFactory;
 import org.eclipse.jetty.server.Connector;
 import org.eclipse.jetty.server.Handler;
 import org.eclipse.jetty.server.HttpConfiguration;
 import org.eclipse.jetty.server.HttpConnectionFactory;
+import org.eclipse.jetty.server.LocalConnector;
 import org.eclipse.jetty.server.SecureRequestCustomizer;
 import org.eclipse.jetty.server.Server;
 import org.eclipse.jetty.server.ServerConnector;
@@ -47,16 +63,32 @@ import org.eclipse.jetty.server.SslConnectionFactory;
 import org.eclipse.jetty.server.handler.ContextHandler;
 import org.eclipse.jetty.server.handler.ContextHandlerCollection;
 import org.eclipse.jetty.server.handler.DefaultHandler;
+import org.eclipse.jetty.server.handler.gzip.GzipHandler;
 import org.eclipse.jetty.ee10.servlet.ServletHandler;
 import org.eclipse.jetty.ee10.servlet.ServletHolder;
 import org.eclipse.jetty.util.TypeUtil;
+import org.eclipse.jetty.util.compression.CompressionPool;
+import org.eclipse.jetty.util.compression.DeflaterPool;
+import org.eclipse.jetty.util.VirtualThreads;
+import org.eclipse.jetty.util.resource.Resource;
 import org.eclipse.jetty.util.resource.ResourceFactory;
 import org.eclipse.jetty.util.ssl.SslContextFactory;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.eclipse.jetty.util.thread.ThreadPool;
+import org.eclipse.jetty.util.thread.VirtualThreadPool;
+import org.eclipse.jetty.ee10.webapp.WebAppClassLoader;
 import org.eclipse.jetty.ee10.webapp.WebAppContext;
+import org.jboss.arquillian.container.jetty.BeanArchiveDetector;
+import org.jboss.arquillian.container.jetty.ConcurrentDeployments;
 import org.jboss.arquillian.container.jetty.EnvUtil;
+import org.jboss.arquillian.container.jetty.LocalHttpClient;
+import org.jboss.arquillian.container.jetty.ServerRegistry;
+import org.jboss.arquillian.container.jetty.StandbyServers;
+import org.jboss.arquillian.container.spi.ContainerRegistry;
 import org.jboss.arquillian.container.spi.client.container.DeployableContainer;
 import org.jboss.arquillian.container.spi.client.container.DeploymentException;
 import org.jboss.arquillian.container.spi.client.container.LifecycleException;
+import org.jboss.arquillian.container.spi.client.deployment.DeploymentScenario;
 import org.jboss.arquillian.container.spi.client.protocol.ProtocolDescription;
 import org.jboss.arquillian.container.spi.client.protocol.metadata.HTTPContext;
 import org.jboss.arquillian.container.spi.client.protocol.metadata.ProtocolMetaData;
@@ -69,6 +101,8 @@ import org.jboss.arquillian.core.api.annotation.Inject;
 import org.jboss.arquillian.core.spi.ServiceLoader;
 import org.jboss.shrinkwrap.api.Archive;
 import org.jboss.shrinkwrap.descriptor.api.Descriptor;
+import org.jboss.weld.config.ConfigurationKey;
+import org.jboss.weld.environment.deployment.discovery.jandex.Jandex;
 
 import jakarta.servlet.ServletContext;
 
@@ -96,14 +130,30 @@ import jakarta.servlet.ServletContext;
 public class JettyEmbeddedContainer implements DeployableContainer<JettyEmbeddedConfiguration> {
     private static final Logger log = Logger.getLogger(JettyEmbeddedContainer.class.getName());
 
+    /**
+     * The connector of Jetty's optional Unix-domain socket module, looked up on the class path when needed.
+     */
+    private static final String UNIX_DOMAIN_CONNECTOR = "org.eclipse.jetty.unixdomain.server.UnixDomainServerConnector";
+
+    /**
+     * The configuration file Weld looks up on the class path of a deployment
+     */
+    private static final String WELD_PROPERTIES = "weld.properties";
+
     private Server server;
     private String listeningHost;
     private int listeningPort;
+    private LocalConnector localConnector;
+    private String serverKey;
+    private String standbyKey;
     private DeploymentManager deployer;
     private ArquillianAppProvider appProvider;
+    private ConcurrentDeployments<App> concurrentDeployments;
 
     private JettyEmbeddedConfiguration containerConfig;
 
+    private Path weldConfigurationDirectory;
+
     @Inject
     @DeploymentScoped
     private InstanceProducer<App> webAppContextProducer;
@@ -112,9 +162,23 @@ public class JettyEmbeddedContainer implements DeployableContainer<JettyEmbedded
     @DeploymentScoped
     private InstanceProducer<ServletContext> servletContextInstanceProducer;
 
+    @Inject
+    @DeploymentScoped
+    private InstanceProducer<LocalHttpClient> localHttpClientProducer;
+
+    @Inject
+    @DeploymentScoped
+    private InstanceProducer<ByteBufferPool> byteBufferPoolProducer;
+
     @Inject
     private Instance<ServiceLoader> serviceLoader;
 
+    @Inject
+    private Instance<DeploymentScenario> deploymentScenario;
+
+    @Inject
+    private Instance<ContainerRegistry> containerRegistry;
+
     /*
      * (non-Javadoc)
      * 
@@ -143,75 +207,308 @@ public class JettyEmbeddedContainer implements DeployableContainer<JettyEmbedded
         EnvUtil.assertMinimumJettyVersion(Server.getVersion(), "12.0");
 
         try {
-            server = new Server();
-
-            HttpConfiguration httpConfig = getHttpConfiguration();
-            httpConfig.setUseInputDirectByteBuffers(false);
-            httpConfig.setUseOutputDirectByteBuffers(false);
-
-            ConnectionFactory connectionFactory = new HttpConnectionFactory(httpConfig);
-            // Setup Connector
-            ServerConnector connector;
-            if (containerConfig.isSsl()) {
-                SslContextFactory.Server sslContextFactory = getSslContextFactory();
-                server.addBean(sslContextFactory);
-                SslConnectionFactory sslConnectionFactory = new SslConnectionFactory(sslContextFactory, HttpVersion.HTTP_1_1.asString());
-                sslConnectionFactory.setEnsureSecureRequestCustomizer(containerConfig.isSniRequired());
-                connector = new ServerConnector(server, sslConnectionFactory, connectionFactory);
+            final Collection<WebAppContextProcessor> webAppContextProcessors = serviceLoader.get().all(WebAppContextProcessor.class);
+            final RunningServer running;
+            if (containerConfig.isReuseServer()) {
+                serverKey = getServerKey();
+                running = ServerRegistry.acquire(serverKey, RunningServer.class, this::startServer);
+            } else if (containerConfig.isStandbyServer()) {
+                standbyKey = getServerKey();
+                final RunningServer standby = StandbyServers.take(standbyKey, RunningServer.class);
+                running = standby != null ? standby : startServer();
+                // Started and warmed up while this container runs, for the next start to take over
+                StandbyServers.prepare(standbyKey, () -> warmUp(startServer(), webAppContextProcessors),
+                    standbyServer -> standbyServer.server.stop());
             } else {
-                connector = new ServerConnector(server, connectionFactory);
+                running = startServer();
+            }
+            server = running.server;
+            deployer = running.deployer;
+            listeningHost = running.listeningHost;
+            listeningPort = running.listeningPort;
+            localConnector = running.localConnector;
+
+            appProvider = new ArquillianAppProvider(containerConfig, webAppContextProcessors);
+            appProvider.setDeploymentManager(deployer);
+            concurrentDeployments = new ConcurrentDeployments<>(containerConfig.getDeploymentConcurrency(),
+                this::startApp, this::stopApp);
+        } catch (Exception e) {
+            throw new LifecycleException("Could not start container", e);
+        }
+    }
+
+    private RunningServer startServer() throws Exception {
+        final Server server = new Server(createThreadPool(), null, createByteBufferPool());
+        if (containerConfig.isReuseServer() || containerConfig.isStandbyServer()) {
+            // Reused and standby servers outlive the container, they must neither keep the JVM alive nor outlive it
+            if (server.getThreadPool() instanceof QueuedThreadPool) {
+                ((QueuedThreadPool) server.getThreadPool()).setDaemon(true);
             }
+            server.setStopAtShutdown(true);
+        }
 
-            if (containerConfig.isH2cEnabled()) {
-                HTTP2CServerConnectionFactory http2CServerConnectionFactory = new HTTP2CServerConnectionFactory(httpConfig);
-                connector.addConnectionFactory(http2CServerConnectionFactory);
+        HttpConfiguration httpConfig = getHttpConfiguration();
+        httpConfig.setUseInputDirectByteBuffers(containerConfig.isDirectBuffers());
+        httpConfig.setUseOutputDirectByteBuffers(containerConfig.isDirectBuffers());
+
+        ConnectionFactory connectionFactory = new HttpConnectionFactory(httpConfig);
+        // Setup Connector
+        ServerConnector connector;
+        if (containerConfig.isSsl()) {
+            SslContextFactory.Server sslContextFactory = getSslContextFactory();
+            server.addBean(sslContextFactory);
+            if (containerConfig.isH2Enabled()) {
+                // HTTP/2 is negotiated through ALPN, clients that do not offer it keep using HTTP/1.1
+                sslContextFactory.setCipherComparator(HTTP2Cipher.COMPARATOR);
+                ALPNServerConnectionFactory alpnConnectionFactory = createAlpnConnectionFactory();
+                alpnConnectionFactory.setDefaultProtocol(connectionFactory.getProtocol());
+                SslConnectionFactory sslConnectionFactory = new SslConnectionFactory(sslContextFactory, alpnConnectionFactory.getProtocol());
+                sslConnectionFactory.setEnsureSecureRequestCustomizer(containerConfig.isSniRequired());
+                connector = new ServerConnector(server, containerConfig.getAcceptors(), containerConfig.getSelectors(),
+                    sslConnectionFactory, alpnConnectionFactory, configureHttp2(new HTTP2ServerConnectionFactory(httpConfig)),
+                    connectionFactory);
+            } else {
+                SslConnectionFactory sslConnectionFactory = new SslConnectionFactory(sslContextFactory, HttpVersion.HTTP_1_1.asString());
+                sslConnectionFactory.setEnsureSecureRequestCustomizer(containerConfig.isSniRequired());
+                connector = new ServerConnector(server, containerConfig.getAcceptors(), containerConfig.getSelectors(),
+                    sslConnectionFactory, connectionFactory);
             }
+        } else {
+            connector = new ServerConnector(server, containerConfig.getAcceptors(), containerConfig.getSelectors(),
+                connectionFactory);
+        }
 
-            connector.setHost(containerConfig.getBindAddress());
-            connector.setPort(containerConfig.getBindHttpPort());
-            connector.setIdleTimeout(containerConfig.getIdleTimeoutMillis());
-            server.setConnectors(new Connector[] {connector});
+        if (containerConfig.isH2cEnabled()) {
+            HTTP2CServerConnectionFactory http2CServerConnectionFactory = configureHttp2(new HTTP2CServerConnectionFactory(httpConfig));
+            connector.addConnectionFactory(http2CServerConnectionFactory);
+        }
 
-            // Handler Tree location for all webapps
-            ContextHandlerCollection contexts = new ContextHandlerCollection();
+        connector.setHost(containerConfig.getBindAddress());
+        connector.setPort(containerConfig.getBindHttpPort());
+        connector.setIdleTimeout(containerConfig.getIdleTimeoutMillis());
+        connector.setAcceptQueueSize(containerConfig.getAcceptQueueSize());
+        connector.setReuseAddress(containerConfig.isReuseAddress());
+        connector.setAcceptedTcpNoDelay(containerConfig.isAcceptedTcpNoDelay());
+        server.setConnectors(new Connector[] {connector});
+        LocalConnector localConnector = null;
+        if (containerConfig.isLocalConnectorEnabled()) {
+            localConnector = new LocalConnector(server, new HttpConnectionFactory(httpConfig));
+            server.addConnector(localConnector);
+        }
+        if (containerConfig.getUnixDomainPath() != null) {
+            server.addConnector(createUnixDomainConnector(server, httpConfig));
+        }
 
-            // Deployment Management
-            deployer = new DeploymentManager();
-            deployer.setContexts(contexts);
-            Collection<WebAppContextProcessor> webAppContextProcessors = serviceLoader.get().all(WebAppContextProcessor.class);
-            appProvider = new ArquillianAppProvider(containerConfig, webAppContextProcessors);
-            deployer.addAppProvider(appProvider);
-            server.addBean(deployer);
-
-            // Handler Collection
-            Handler.Collection collection = new Handler.Sequence(contexts, new DefaultHandler());
-            server.setHandler(collection);
-
-            if (containerConfig.isRealmPropertiesFileSet()) {
-                String realmName = getRealmName();
-                HashLoginService hashUserRealm =
-                    new HashLoginService(realmName,
-                        ResourceFactory.of(server)
-                            .newResource(Path.of(containerConfig.getRealmProperties().getAbsolutePath())));
-                server.addBean(hashUserRealm);
-            }
+        // Handler Tree location for all webapps
+        ContextHandlerCollection contexts = new ContextHandlerCollection();
+
+        // Deployment Management
+        final DeploymentManager deployer = new DeploymentManager();
+        deployer.setContexts(contexts);
+        server.addBean(deployer);
+
+        // Handler Collection
+        Handler.Collection collection = new Handler.Sequence(wrapCompression(contexts), new DefaultHandler());
+        server.setHandler(collection);
+
+        if (containerConfig.isRealmPropertiesFileSet()) {
+            String realmName = getRealmName();
+            HashLoginService hashUserRealm =
+                new HashLoginService(realmName,
+                    ResourceFactory.of(server)
+                        .newResource(Path.of(containerConfig.getRealmProperties().getAbsolutePath())));
+            server.addBean(hashUserRealm);
+        }
 
-            if (containerConfig.areInferredEncodings()) {
-                containerConfig.getInferredEncodings().forEach((s, s2) -> server.getMimeTypes().addInferred(s, s2));
-            }
+        if (containerConfig.areInferredEncodings()) {
+            containerConfig.getInferredEncodings().forEach((s, s2) -> server.getMimeTypes().addInferred(s, s2));
+        }
 
-            server.setDumpAfterStart(containerConfig.isDumpServerAfterStart());
-            log.info("Starting Jetty Embedded Server " + Server.getVersion() + " [id:" + server.hashCode() + "]");
-            server.start();
+        server.setDumpAfterStart(containerConfig.isDumpServerAfterStart());
+        log.info("Starting Jetty Embedded Server " + Server.getVersion() + " [id:" + server.hashCode() + "]");
+        server.start();
+        logSizing(server, connector);
 
-            listeningHost = connector.getHost();
-            if (listeningHost == null) {
-                listeningHost = containerConfig.getBindAddress();
-            }
-            listeningPort = connector.getLocalPort();
-        } catch (Exception e) {
-            throw new LifecycleException("Could not start container", e);
+        String listeningHost = connector.getHost();
+        if (listeningHost == null) {
+            listeningHost = containerConfig.getBindAddress();
         }
+
+        return new RunningServer(server, deployer, listeningHost, connector.getLocalPort(), localConnector);
+    }
+
+    /**
+     * Creates the buffer pool of the server, its statistics are available to tests as an
+     * {@link org.jboss.arquillian.test.api.ArquillianResource}.
+     */
+    private ByteBufferPool createByteBufferPool() {
+        final ArrayByteBufferPool byteBufferPool = new ArrayByteBufferPool(containerConfig.getByteBufferPoolMinCapacity(),
+            containerConfig.getByteBufferPoolFactor() > 0 ? containerConfig.getByteBufferPoolFactor() : -1,
+            containerConfig.getByteBufferPoolMaxCapacity() > 0 ? containerConfig.getByteBufferPoolMaxCapacity() : -1,
+            containerConfig.getByteBufferPoolMaxBucketSize() > 0 ? containerConfig.getByteBufferPoolMaxBucketSize() : Integer.MAX_VALUE,
+            containerConfig.getByteBufferPoolMaxHeapMemory(), containerConfig.getByteBufferPoolMaxDirectMemory());
+        byteBufferPool.setStatisticsEnabled(containerConfig.isByteBufferPoolStatistics());
+        return byteBufferPool;
+    }
+
+    /**
+     * Creates a plain HTTP connector listening on the configured Unix-domain socket file. Jetty ships it in an optional
+     * module, so it is created reflectively.
+     */
+    private Connector createUnixDomainConnector(Server server, HttpConfiguration httpConfig) throws Exception {
+        final Class<?> connectorClass;
+        try {
+            connectorClass = Class.forName(UNIX_DOMAIN_CONNECTOR, true, JettyEmbeddedContainer.class.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(
+                "unixDomainPath requires org.eclipse.jetty:jetty-unixdomain-server on the class path", e);
+        }
+        final List<ConnectionFactory> connectionFactories = new ArrayList<>();
+        connectionFactories.add(new HttpConnectionFactory(httpConfig));
+        if (containerConfig.isH2cEnabled()) {
+            connectionFactories.add(configureHttp2(new HTTP2CServerConnectionFactory(httpConfig)));
+        }
+        final Connector connector = (Connector) connectorClass.getConstructor(Server.class, ConnectionFactory[].class)
+            .newInstance(server, connectionFactories.toArray(new ConnectionFactory[0]));
+
+        // A socket file left behind by a server that was not stopped would fail the bind
+        final Path unixDomainPath = containerConfig.getUnixDomainPath();
+        Files.createDirectories(unixDomainPath.getParent());
+        Files.deleteIfExists(unixDomainPath);
+        connectorClass.getMethod("setUnixDomainPath", Path.class).invoke(connector, unixDomainPath);
+        log.info("Jetty Embedded Server also listening on Unix-domain socket " + unixDomainPath);
+        return connector;
+    }
+
+    /**
+     * Wraps the contexts in a {@link GzipHandler} if responses are to be compressed.
+     */
+    private Handler wrapCompression(Handler contexts) {
+        if (!containerConfig.isCompressionEnabled()) {
+            return contexts;
+        }
+        final GzipHandler gzipHandler = new GzipHandler();
+        if (containerConfig.getCompressionMinSize() > 0) {
+            gzipHandler.setMinGzipSize(containerConfig.getCompressionMinSize());
+        }
+        if (containerConfig.getCompressionMimeTypes() != null) {
+            gzipHandler.setIncludedMimeTypes(containerConfig.getCompressionMimeTypes());
+        }
+        gzipHandler.setDeflaterPool(new DeflaterPool(containerConfig.getCompressionDeflaterPoolCapacity() > 0
+            ? containerConfig.getCompressionDeflaterPoolCapacity() : CompressionPool.DEFAULT_CAPACITY,
+            containerConfig.getCompressionLevel(), true));
+        gzipHandler.setHandler(contexts);
+        return gzipHandler;
+    }
+
+    /**
+     * Logs the effective sizing of the thread pool and the connector of a started server.
+     */
+    private static void logSizing(Server server, ServerConnector connector) {
+        final String threads;
+        if (server.getThreadPool() instanceof QueuedThreadPool) {
+            final QueuedThreadPool threadPool = (QueuedThreadPool) server.getThreadPool();
+            threads = "minThreads=" + threadPool.getMinThreads() + ", maxThreads=" + threadPool.getMaxThreads()
+                + ", reservedThreads=" + threadPool.getMaxReservedThreads();
+        } else {
+            threads = "threadPool=" + server.getThreadPool().getClass().getSimpleName();
+        }
+        log.info("Jetty Embedded Server [id:" + server.hashCode() + "] sized with " + threads + ", acceptors="
+            + connector.getAcceptors() + ", selectors=" + connector.getSelectorManager().getSelectorCount()
+            + ", acceptQueueSize=" + connector.getAcceptQueueSize() + ", reuseAddress=" + connector.getReuseAddress()
+            + ", acceptedTcpNoDelay=" + connector.getAcceptedTcpNoDelay());
+    }
+
+    /**
+     * Applies the configured HTTP/2 flow control, HPACK and rate control settings, keeping Jetty's defaults for the
+     * settings that are not configured.
+     */
+    private <T extends AbstractHTTP2ServerConnectionFactory> T configureHttp2(T connectionFactory) {
+        if (containerConfig.getHttp2MaxConcurrentStreams() > 0) {
+            connectionFactory.setMaxConcurrentStreams(containerConfig.getHttp2MaxConcurrentStreams());
+        }
+        if (containerConfig.getHttp2InitialSessionRecvWindow() > 0) {
+            connectionFactory.setInitialSessionRecvWindow(containerConfig.getHttp2InitialSessionRecvWindow());
+        }
+        if (containerConfig.getHttp2InitialStreamRecvWindow() > 0) {
+            connectionFactory.setInitialStreamRecvWindow(containerConfig.getHttp2InitialStreamRecvWindow());
+        }
+        if (containerConfig.getHttp2HpackTableCapacity() > 0) {
+            connectionFactory.setMaxDecoderTableCapacity(containerConfig.getHttp2HpackTableCapacity());
+            connectionFactory.setMaxEncoderTableCapacity(containerConfig.getHttp2HpackTableCapacity());
+        }
+        if (containerConfig.getHttp2MaxFrameSize() > 0) {
+            connectionFactory.setMaxFrameSize(containerConfig.getHttp2MaxFrameSize());
+        }
+        if (containerConfig.getHttp2RateControlMaxEventsPerSecond() > 0) {
+            connectionFactory.setRateControlFactory(
+                new WindowRateControl.Factory(containerConfig.getHttp2RateControlMaxEventsPerSecond()));
+        }
+        return connectionFactory;
+    }
+
+    /**
+     * Creates the ALPN connection factory, which fails if no ALPN implementation is on the class path.
+     */
+    private static ALPNServerConnectionFactory createAlpnConnectionFactory() {
+        try {
+            return new ALPNServerConnectionFactory();
+        } catch (IllegalStateException e) {
+            throw new IllegalStateException(
+                "h2Enabled requires org.eclipse.jetty:jetty-alpn-java-server on the class path", e);
+        }
+    }
+
+    private String getServerKey() {
+        return ServerRegistry.key(containerConfig, getClass().getName(), containerConfig.getIdleTimeoutMillis(),
+            containerConfig.getHttpConfiguration(), containerConfig.getVirtualThreads(), containerConfig.isDirectBuffers(),
+            containerConfig.getByteBufferPoolMinCapacity(), containerConfig.getByteBufferPoolFactor(),
+            containerConfig.getByteBufferPoolMaxCapacity(), containerConfig.getByteBufferPoolMaxBucketSize(),
+            containerConfig.getByteBufferPoolMaxHeapMemory(), containerConfig.getByteBufferPoolMaxDirectMemory(),
+            containerConfig.isByteBufferPoolStatistics(), containerConfig.getUnixDomainPath());
+    }
+
+    /**
+     * Creates the thread pool of the server, running servlet requests on virtual threads if so configured and supported
+     * by the JVM.
+     */
+    private ThreadPool createThreadPool() {
+        final QueuedThreadPool threadPool = new QueuedThreadPool(containerConfig.getMaxThreads(),
+            containerConfig.getMinThreads());
+        threadPool.setReservedThreads(containerConfig.getReservedThreads());
+        final JettyEmbeddedConfiguration.VirtualThreadsMode mode = containerConfig.getVirtualThreads();
+        if (mode == JettyEmbeddedConfiguration.VirtualThreadsMode.NONE) {
+            return threadPool;
+        }
+        if (!VirtualThreads.areSupported()) {
+            log.warning("Virtual threads are not supported by Java " + System.getProperty("java.version")
+                + ", servlet requests run on platform threads");
+            return threadPool;
+        }
+        log.info("Running servlet requests on virtual threads, mode " + mode);
+        if (mode == JettyEmbeddedConfiguration.VirtualThreadsMode.POOL) {
+            final VirtualThreadPool virtualThreadPool = new VirtualThreadPool(containerConfig.getMaxThreads());
+            virtualThreadPool.setName("arquillian-jetty-vt");
+            return virtualThreadPool;
+        }
+        threadPool.setVirtualThreadsExecutor(VirtualThreads.getNamedVirtualThreadsExecutor("arquillian-jetty-vt-"));
+        return threadPool;
+    }
+
+    /**
+     * Takes a standby server through the deployment and undeployment of a minimal archive, so the first deployment of
+     * the container taking it over does not pay for loading and compiling the deployment code.
+     */
+    private RunningServer warmUp(RunningServer running, Collection<WebAppContextProcessor> webAppContextProcessors) throws Exception {
+        ArquillianAppProvider warmUpProvider = new ArquillianAppProvider(containerConfig, webAppContextProcessors);
+        Archive<?> archive = StandbyServers.createWarmUpArchive();
+        warmUpProvider.setDeploymentManager(running.deployer);
+        App app = warmUpProvider.createApp(archive);
+        running.deployer.addApp(app);
+        running.deployer.requestAppGoal(app, AppLifeCycle.STARTED);
+        running.deployer.removeApp(app);
+        warmUpProvider.release(archive);
+        return running;
     }
 
     private String getRealmName() {
@@ -225,6 +522,26 @@ public class JettyEmbeddedContainer implements DeployableContainer<JettyEmbedded
     }
 
     public void stop() throws LifecycleException {
+        if (concurrentDeployments != null) {
+            concurrentDeployments.close();
+        }
+        if (appProvider != null) {
+            appProvider.logStatistics();
+        }
+        if (standbyKey != null) {
+            // Stopped unless the next container start takes it over in time
+            StandbyServers.expire(standbyKey, containerConfig.getStandbyServerTimeoutMillis());
+            standbyKey = null;
+        }
+        if (serverKey != null) {
+            final RunningServer last = ServerRegistry.release(serverKey, RunningServer.class);
+            serverKey = null;
+            if (last == null) {
+                log.info("Keeping Jetty Embedded Server running for the other containers using it [id:" + server.hashCode()
+                    + "]");
+                return;
+            }
+        }
         try {
             log.info("Stopping Jetty Embedded Server [id:" + server.hashCode() + "]");
             server.stop();
@@ -253,10 +570,48 @@ public class JettyEmbeddedContainer implements DeployableContainer<JettyEmbedded
 
     public ProtocolMetaData deploy(final Archive<?> archive) throws DeploymentException {
         try {
-            App app = appProvider.createApp(archive);
-            deployer.removeApp(app);
+            concurrentDeployments.prefetch(
+                ConcurrentDeployments.pendingArchives(deploymentScenario.get(), containerRegistry.get(), this));
+            App app = concurrentDeployments.take(archive);
             WebAppContext webAppContext = getWebAppContext(app);
 
+            webAppContextProducer.set(app);
+            servletContextInstanceProducer.set(webAppContext.getServletContext());
+            if (localConnector != null) {
+                localHttpClientProducer.set(new LocalHttpClient(localConnector::getResponse, webAppContext.getContextPath()));
+            }
+            byteBufferPoolProducer.set(server.getByteBufferPool());
+
+            HTTPContext httpContext = new HTTPContext(listeningHost, listeningPort);
+            ServletHandler servletHandler = webAppContext.getServletHandler();
+            for (ServletHolder servlet : servletHandler.getServlets()) {
+                if(servlet.getServletContext() == null) {
+                    httpContext.add(new Servlet(servlet.getName(), "/"));
+                } else {
+                    httpContext.add(new Servlet(servlet.getName(), servlet.getServletContext().getContextPath()));
+                }
+            }
+            ProtocolMetaData protocolMetaData = new ProtocolMetaData().addContext(httpContext);
+            if (containerConfig.getUnixDomainPath() != null) {
+                protocolMetaData.addContext(UnixDomainSocketAddress.of(containerConfig.getUnixDomainPath()));
+            }
+            return protocolMetaData;
+        } catch (Exception e) {
+            throw new DeploymentException("Could not deploy " + archive.getName(), e);
+        }
+    }
+
+    /**
+     * Exports, configures and starts the deployment of an archive. Runs on a thread of its own if the deployments of a
+     * test class are started concurrently; the deployment manager adds the context to the shared collection under
+     * Jetty's lock and starts it outside of it.
+     */
+    private App startApp(Archive<?> archive) throws Exception {
+        App app = appProvider.createApp(archive);
+        deployer.removeApp(app);
+        WebAppContext webAppContext = getWebAppContext(app);
+
+        if (isCdiRequired(archive)) {
             // Jetty setup telling Jetty's CdiDecoratingListener how to operate.
             webAppContext.setInitParameter(CdiServletContainerInitializer.CDI_INTEGRATION_ATTRIBUTE, CdiDecoratingListener.MODE);
             // jetty setup for layer between Weld and Jetty.
@@ -264,31 +619,127 @@ public class JettyEmbeddedContainer implements DeployableContainer<JettyEmbedded
             // Weld's org.jboss.weld.environment.servlet.EnhancedListener can be discovered automatically
             // However, it won't happen if jetty-ee10-annotations JAR isn't present in runtime, hence we add it explicitly
             // The listener will start up Weld container so long as there is an archive with any beans in it
-            webAppContext.addServletContainerInitializer(new org.jboss.weld.environment.servlet.EnhancedListener());
+            webAppContext.addServletContainerInitializer(new TimedEnhancedListener());
+            configureWeld(webAppContext);
+        }
 
-            if (containerConfig.areMimeTypesSet()) {
-                containerConfig.getMimeTypes().forEach((s, s2) -> webAppContext.getMimeTypes().addMimeMapping(s, s2));
-            }
+        if (containerConfig.areMimeTypesSet()) {
+            containerConfig.getMimeTypes().forEach((s, s2) -> webAppContext.getMimeTypes().addMimeMapping(s, s2));
+        }
 
+        claimContextPath(archive, app, webAppContext);
+        try {
             deployer.addApp(app);
             deployer.requestAppGoal(app, AppLifeCycle.STARTED);
+        } catch (RuntimeException e) {
+            releaseContextPath(app);
+            throw e;
+        }
+        return app;
+    }
 
-            webAppContextProducer.set(app);
-            servletContextInstanceProducer.set(webAppContext.getServletContext());
+    private void stopApp(Archive<?> archive, App app) {
+        if (app != null) {
+            deployer.requestAppGoal(app, AppLifeCycle.UNDEPLOYED);
+            releaseContextPath(app);
+        }
+        appProvider.release(archive);
+    }
 
-            HTTPContext httpContext = new HTTPContext(listeningHost, listeningPort);
-            ServletHandler servletHandler = webAppContext.getServletHandler();
-            for (ServletHolder servlet : servletHandler.getServlets()) {
-                if(servlet.getServletContext() == null) {
-                    httpContext.add(new Servlet(servlet.getName(), "/"));
-                } else {
-                    httpContext.add(new Servlet(servlet.getName(), servlet.getServletContext().getContextPath()));
+    /**
+     * Keeps the deployment from taking the context path of a deployment of another container sharing the reused server.
+     */
+    private void claimContextPath(Archive<?> archive, App app, WebAppContext webAppContext) throws DeploymentException {
+        if (serverKey != null && !ServerRegistry.claimContextPath(serverKey, webAppContext.getContextPath(), app)) {
+            appProvider.release(archive);
+            throw new DeploymentException("Context path " + webAppContext.getContextPath()
+                + " is deployed already by another container sharing the reused server");
+        }
+    }
+
+    private void releaseContextPath(App app) {
+        if (serverKey != null) {
+            ServerRegistry.releaseContextPath(serverKey, app);
+        }
+    }
+
+    /**
+     * Tells whether the deployment gets the CDI integration, sparing Weld's class path discovery for deployments without
+     * beans.
+     */
+    private boolean isCdiRequired(Archive<?> archive) {
+        switch (containerConfig.getCdi()) {
+            case ENABLED:
+                return true;
+            case DISABLED:
+                return false;
+            default:
+                if (BeanArchiveDetector.containsBeanArchive(archive)) {
+                    return true;
                 }
+                log.info("Deploying " + archive.getName()
+                    + " without CDI, it neither contains a bean archive nor refers to CDI");
+                return false;
+        }
+    }
+
+    /**
+     * Hands the Weld options over to the deployment. Weld reads its bootstrap and executor settings from
+     * {@code weld.properties} files on the class path rather than from init parameters, so those are written once to a
+     * directory added to the extra class path of every deployment.
+     */
+    private void configureWeld(WebAppContext webAppContext) throws IOException {
+        if (!containerConfig.isWeldJandexDiscovery()) {
+            webAppContext.setInitParameter(Jandex.DISABLE_JANDEX_DISCOVERY_STRATEGY, Boolean.TRUE.toString());
+        }
+        final Path directory = getWeldConfigurationDirectory();
+        if (directory == null) {
+            return;
+        }
+        final Resource resource = ResourceFactory.root().newResource(directory);
+        if (webAppContext.getClassLoader() instanceof WebAppClassLoader) {
+            // the class loader sharing libraries is created along with the context and has read the extra classpath already
+            ((WebAppClassLoader) webAppContext.getClassLoader()).addClassPath(resource);
+        } else {
+            final List<Resource> extraClasspath = new ArrayList<>();
+            if (webAppContext.getExtraClasspath() != null) {
+                extraClasspath.addAll(webAppContext.getExtraClasspath());
             }
-            return new ProtocolMetaData().addContext(httpContext);
-        } catch (Exception e) {
-            throw new DeploymentException("Could not deploy " + archive.getName(), e);
+            extraClasspath.add(resource);
+            webAppContext.setExtraClasspath(extraClasspath);
+        }
+    }
+
+    private synchronized Path getWeldConfigurationDirectory() throws IOException {
+        if (weldConfigurationDirectory != null) {
+            return weldConfigurationDirectory;
+        }
+        final Properties properties = new Properties();
+        if (containerConfig.getWeldConcurrentDeployment() != null) {
+            properties.setProperty(ConfigurationKey.CONCURRENT_DEPLOYMENT.get(),
+                containerConfig.getWeldConcurrentDeployment().toString());
+        }
+        if (containerConfig.getWeldPreloaderThreadPoolSize() > 0) {
+            properties.setProperty(ConfigurationKey.PRELOADER_THREAD_POOL_SIZE.get(),
+                Integer.toString(containerConfig.getWeldPreloaderThreadPoolSize()));
         }
+        if (containerConfig.getWeldExecutorThreadPoolSize() > 0) {
+            properties.setProperty(ConfigurationKey.EXECUTOR_THREAD_POOL_SIZE.get(),
+                Integer.toString(containerConfig.getWeldExecutorThreadPoolSize()));
+        }
+        if (properties.isEmpty()) {
+            return null;
+        }
+        final Path directory = Files.createTempDirectory("arquillian-weld");
+        directory.toFile().deleteOnExit();
+        final Path file = directory.resolve(WELD_PROPERTIES);
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            properties.store(writer, "Weld options of the Arquillian Jetty container");
+        }
+        file.toFile().deleteOnExit();
+        log.info("Weld options " + properties);
+        weldConfigurationDirectory = directory;
+        return directory;
     }
 
     private WebAppContext getWebAppContext(App app) throws Exception {
@@ -303,10 +754,7 @@ public class JettyEmbeddedContainer implements DeployableContainer<JettyEmbedded
     }
 
     public void undeploy(Archive<?> archive) throws DeploymentException {
-        App app = webAppContextProducer.get();
-        if (app != null) {
-            deployer.requestAppGoal(app, AppLifeCycle.UNDEPLOYED);
-        }
+        stopApp(archive, webAppContextProducer.get());
     }
 
     /**
@@ -372,4 +820,24 @@ public class JettyEmbeddedContainer implements DeployableContainer<JettyEmbedded
 
         return sslContextFactory;
     }
+
+    /**
+     * A started server, kept in the {@link ServerRegistry} if it is reused.
+     */
+    private static final class RunningServer {
+        private final Server server;
+        private final DeploymentManager deployer;
+        private final String listeningHost;
+        private final int listeningPort;
+        private final LocalConnector localConnector;
+
+        private RunningServer(Server server, DeploymentManager deployer, String listeningHost, int listeningPort,
+            LocalConnector localConnector) {
+            this.server = server;
+            this.deployer = deployer;
+            this.listeningHost = listeningHost;
+            this.listeningPort = listeningPort;
+            this.localConnector = localConnector;
+        }
+    }
 }
@@ -0,0 +1,66 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat Middleware LLC, and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.arquillian.container.jetty.embedded_12_ee10;
+
+import java.net.URL;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.OperateOnDeployment;
+import org.jboss.arquillian.container.test.api.TargetsContainer;
+import org.jboss.arquillian.junit5.ArquillianExtension;
+import org.jboss.arquillian.test.api.ArquillianResource;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.jboss.arquillian.container.jetty.embedded_12_ee10.JettyEmbeddedClientTestCase.readAllAndClose;
+
+/**
+ * Deploys servlets mapped by annotation only to containers answering annotation scans from their caches.
+ */
+@ExtendWith(ArquillianExtension.class)
+public class AnnotationScanningTestCase {
+
+    @Deployment(name = "jandex", testable = false) @TargetsContainer("jandex")
+    public static WebArchive getJandexArchive() {
+        return ShrinkWrap.create(WebArchive.class, "jandex.war")
+            .addClass(MyAnnotatedServlet.class);
+    }
+
+    @Deployment(name = "annotation-scan-cache", testable = false) @TargetsContainer("annotation-scan-cache")
+    public static WebArchive getAnnotationScanCacheArchive() {
+        return ShrinkWrap.create(WebArchive.class, "annotation-scan-cache.war")
+            .addClass(MyAnnotatedServlet.class);
+    }
+
+    @ArquillianResource @OperateOnDeployment("jandex") URL jandexUrl;
+
+    @ArquillianResource @OperateOnDeployment("annotation-scan-cache") URL annotationScanCacheUrl;
+
+    @Test
+    public void shouldFindServletInJandexIndex() throws Exception {
+        assertThat(readAllAndClose(new URL(jandexUrl, MyAnnotatedServlet.URL_PATTERN).openStream()), is(MyAnnotatedServlet.MESSAGE));
+    }
+
+    @Test
+    public void shouldFindServletThroughAnnotationScanCache() throws Exception {
+        assertThat(readAllAndClose(new URL(annotationScanCacheUrl, MyAnnotatedServlet.URL_PATTERN).openStream()), is(MyAnnotatedServlet.MESSAGE));
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat Middleware LLC, and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.arquillian.container.jetty.embedded_12_ee10;
+
+import java.net.URL;
+
+import org.eclipse.jetty.io.ArrayByteBufferPool;
+import org.eclipse.jetty.io.ByteBufferPool;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.TargetsContainer;
+import org.jboss.arquillian.junit5.ArquillianExtension;
+import org.jboss.arquillian.test.api.ArquillianResource;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.jboss.arquillian.container.jetty.embedded_12_ee10.JettyEmbeddedClientTestCase.readAllAndClose;
+
+/**
+ * Deploys to a container using direct buffers and keeping statistics of its byte buffer pool.
+ */
+@ExtendWith(ArquillianExtension.class)
+public class ByteBufferPoolTestCase {
+
+    @Deployment(testable = false) @TargetsContainer("direct-buffers")
+    public static WebArchive getTestArchive() {
+        return JettyEmbeddedClientTestCase.createServletArchive("direct-buffers.war");
+    }
+
+    @ArquillianResource
+    ByteBufferPool byteBufferPool;
+
+    @ArquillianResource URL url;
+
+    @Test
+    public void shouldEnrichTestWithByteBufferPoolStatistics() throws Exception {
+        readAllAndClose(new URL(url, MyServlet.URL_PATTERN).openStream());
+
+        long acquires = ((ArrayByteBufferPool) byteBufferPool).getDirectBucketsStatistics().stream()
+            .mapToLong(bucket -> (Long) bucket.get("acquires"))
+            .sum();
+        assertThat(acquires, greaterThan(0L));
+    }
+}
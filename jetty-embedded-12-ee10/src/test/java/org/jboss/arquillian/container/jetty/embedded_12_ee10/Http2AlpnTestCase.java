@@ -0,0 +1,86 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat Middleware LLC, and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.arquillian.container.jetty.embedded_12_ee10;
+
+import java.net.URL;
+
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSocket;
+
+import org.eclipse.jetty.util.ssl.SslContextFactory;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.TargetsContainer;
+import org.jboss.arquillian.junit5.ArquillianExtension;
+import org.jboss.arquillian.test.api.ArquillianResource;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Deploys to a container offering HTTP/2 over TLS, negotiated through ALPN.
+ */
+@ExtendWith(ArquillianExtension.class)
+public class Http2AlpnTestCase {
+
+    @Deployment(testable = false) @TargetsContainer("h2")
+    public static WebArchive getTestArchive() {
+        return JettyEmbeddedClientTestCase.createServletArchive("h2.war");
+    }
+
+    @ArquillianResource URL url;
+
+    private final SslContextFactory.Client clientSslContextFactory = new SslContextFactory.Client(true);
+
+    @BeforeEach
+    public void setup() throws Exception {
+        clientSslContextFactory.start();
+    }
+
+    @AfterEach
+    public void shutdown() throws Exception {
+        clientSslContextFactory.stop();
+    }
+
+    @Test
+    public void shouldNegotiateHttp2ThroughAlpn() throws Exception {
+        assertThat(negotiate("h2", "http/1.1"), is("h2"));
+    }
+
+    @Test
+    public void shouldKeepHttp11ForClientsNotOfferingHttp2() throws Exception {
+        assertThat(negotiate("http/1.1"), is("http/1.1"));
+    }
+
+    /**
+     * @return the application protocol the connector selects among the ones offered in the TLS handshake
+     */
+    private String negotiate(String... protocols) throws Exception {
+        try (SSLSocket socket = (SSLSocket) clientSslContextFactory.getSslContext().getSocketFactory()
+            .createSocket(url.getHost(), url.getPort())) {
+            SSLParameters parameters = socket.getSSLParameters();
+            parameters.setApplicationProtocols(protocols);
+            socket.setSSLParameters(parameters);
+            socket.startHandshake();
+            return socket.getApplicationProtocol();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat Middleware LLC, and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.arquillian.container.jetty.embedded_12_ee10;
+
+import java.io.File;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.TargetsContainer;
+import org.jboss.arquillian.junit5.ArquillianExtension;
+import org.jboss.arquillian.test.api.ArquillianResource;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import jakarta.servlet.ServletContext;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Deploys to a container exporting archives incrementally into a directory kept between deployments.
+ */
+@ExtendWith(ArquillianExtension.class)
+public class IncrementalExportTestCase {
+
+    @Deployment(testable = false) @TargetsContainer("incremental")
+    public static WebArchive getTestArchive() {
+        return JettyEmbeddedClientTestCase.createServletArchive("incremental.war");
+    }
+
+    @ArquillianResource
+    ServletContext servletContext;
+
+    @Test
+    public void shouldServeDirectoryNamedAfterArchive() {
+        File webapp = new File(servletContext.getRealPath("/"));
+
+        assertThat(webapp.getName(), is("exportincremental.war"));
+        assertThat("manifest of the export", new File(webapp.getParentFile(), ".exportincremental.war.manifest").isFile(),
+            is(true));
+        assertThat("lock held while deployed", new File(webapp.getParentFile(), ".exportincremental.war.lock").isFile(),
+            is(true));
+    }
+}
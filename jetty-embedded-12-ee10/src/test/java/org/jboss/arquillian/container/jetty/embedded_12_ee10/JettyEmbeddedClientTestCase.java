@@ -81,7 +81,14 @@ public class JettyEmbeddedClientTestCase {
      */
     @Deployment(testable = false, name = "webapp-https") @TargetsContainer("https")
     public static WebArchive getTestArchiveHttps() {
-        return ShrinkWrap.create(WebArchive.class, "client-https.war")
+        return createServletArchive("client-https.war");
+    }
+
+    /**
+     * Creates a web archive mapping {@link MyServlet}, also used by the test cases of single container features.
+     */
+    public static WebArchive createServletArchive(String name) {
+        return ShrinkWrap.create(WebArchive.class, name)
             .addClass(MyServlet.class)
             .setWebXML(new StringAsset(Descriptors.create(WebAppDescriptor.class)
                 .version("4.0")
@@ -0,0 +1,61 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat Middleware LLC, and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.arquillian.container.jetty.embedded_12_ee10;
+
+import java.nio.file.Paths;
+
+import org.jboss.arquillian.container.spi.ConfigurationException;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for {@link JettyEmbeddedConfiguration}.
+ */
+public class JettyEmbeddedConfigurationTest {
+
+    @Test
+    public void shouldResolveUnixDomainPathAgainstWorkingDirectory() {
+        JettyEmbeddedConfiguration configuration = new JettyEmbeddedConfiguration();
+        assertThat(configuration.getUnixDomainPath(), is(nullValue()));
+
+        configuration.setUnixDomainPath(" ");
+        assertThat(configuration.getUnixDomainPath(), is(nullValue()));
+
+        configuration.setUnixDomainPath(" target/jetty.sock ");
+        assertThat(configuration.getUnixDomainPath(), is(Paths.get("target/jetty.sock").toAbsolutePath()));
+        configuration.validate();
+    }
+
+    @Test
+    public void shouldRejectUnixDomainPathWithStandbyServer() {
+        JettyEmbeddedConfiguration configuration = new JettyEmbeddedConfiguration();
+        configuration.setBindHttpPort(0);
+        configuration.setStandbyServer(true);
+        configuration.validate();
+
+        configuration.setUnixDomainPath("target/jetty.sock");
+        assertThrows(ConfigurationException.class, configuration::validate);
+
+        configuration.setStandbyServer(false);
+        configuration.setReuseServer(true);
+        configuration.validate();
+    }
+}
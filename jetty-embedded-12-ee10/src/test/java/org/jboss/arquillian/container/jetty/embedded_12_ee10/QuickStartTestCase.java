@@ -0,0 +1,70 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat Middleware LLC, and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.arquillian.container.jetty.embedded_12_ee10;
+
+import java.io.File;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.UUID;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.TargetsContainer;
+import org.jboss.arquillian.junit5.ArquillianExtension;
+import org.jboss.arquillian.test.api.ArquillianResource;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import jakarta.servlet.ServletContext;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Deploys content new to the quickstart cache, which starts as usual while generating its quickstart descriptor.
+ */
+@ExtendWith(ArquillianExtension.class)
+public class QuickStartTestCase {
+
+    @Deployment(testable = false) @TargetsContainer("quickstart")
+    public static WebArchive getTestArchive() {
+        return ShrinkWrap.create(WebArchive.class, "quickstart.war")
+            .addClass(MyAnnotatedServlet.class)
+            // content of its own, so the descriptor is never restored from an earlier run
+            .addAsWebResource(new StringAsset(UUID.randomUUID().toString()), "run.txt");
+    }
+
+    @ArquillianResource
+    ServletContext servletContext;
+
+    @ArquillianResource URL url;
+
+    @Test
+    public void shouldGenerateDescriptorWhileStartingAsUsual() throws Exception {
+        String body = JettyEmbeddedClientTestCase.readAllAndClose(new URL(url, MyAnnotatedServlet.URL_PATTERN).openStream());
+        assertThat(body, is(MyAnnotatedServlet.MESSAGE));
+
+        File descriptor = new File(servletContext.getRealPath("/"), "WEB-INF/quickstart-web.xml");
+        assertThat(descriptor.isFile(), is(true));
+        assertThat(new String(Files.readAllBytes(descriptor.toPath()), StandardCharsets.UTF_8),
+            containsString(MyAnnotatedServlet.class.getName()));
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat Middleware LLC, and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.arquillian.container.jetty.embedded_12_ee10;
+
+import java.net.URL;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.OperateOnDeployment;
+import org.jboss.arquillian.container.test.api.TargetsContainer;
+import org.jboss.arquillian.junit5.ArquillianExtension;
+import org.jboss.arquillian.test.api.ArquillianResource;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.ByteArrayAsset;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.jboss.shrinkwrap.descriptor.api.Descriptors;
+import org.jboss.shrinkwrap.descriptor.api.webapp30.WebAppDescriptor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.jboss.arquillian.container.jetty.embedded_12_ee10.JettyEmbeddedClientTestCase.readAllAndClose;
+
+/**
+ * Deploys two archives holding different versions of a library to a container sharing that library, with the default
+ * {@code JAVA_SPEC} class loader behavior. The second version must not be hidden by the shared first one.
+ */
+@ExtendWith(ArquillianExtension.class)
+public class SharedLibrariesTestCase {
+
+    @Deployment(name = "first", order = 1, testable = false) @TargetsContainer("shared-libraries")
+    public static WebArchive getFirstArchive() {
+        return createArchive("shared-first.war", "1.0");
+    }
+
+    @Deployment(name = "second", order = 2, testable = false) @TargetsContainer("shared-libraries")
+    public static WebArchive getSecondArchive() {
+        return createArchive("shared-second.war", "2.0");
+    }
+
+    @ArquillianResource @OperateOnDeployment("first") URL firstUrl;
+
+    @ArquillianResource @OperateOnDeployment("second") URL secondUrl;
+
+    @Test
+    public void shouldLoadLibraryFromSharedClassLoader() throws Exception {
+        assertThat(readAllAndClose(new URL(firstUrl, MyResourceServlet.URL_PATTERN).openStream()),
+            allOf(containsString("shared-libraries"), containsString("library-1.0.jar")));
+    }
+
+    @Test
+    public void shouldLoadOtherVersionOfSharedLibraryFromDeployment() throws Exception {
+        assertThat(readAllAndClose(new URL(secondUrl, MyResourceServlet.URL_PATTERN).openStream()),
+            containsString("/WEB-INF/lib/library-2.0.jar"));
+    }
+
+    private static WebArchive createArchive(String name, String version) {
+        return ShrinkWrap.create(WebArchive.class, name)
+            .addClass(MyResourceServlet.class)
+            .addAsLibrary(createLibrary(version))
+            .setWebXML(new StringAsset(Descriptors.create(WebAppDescriptor.class)
+                .version("4.0")
+                .createServlet()
+                .servletClass(MyResourceServlet.class.getName())
+                .servletName("MyResourceServlet").up()
+                .createServletMapping()
+                .servletName("MyResourceServlet")
+                .urlPattern(MyResourceServlet.URL_PATTERN).up()
+                .exportAsString()));
+    }
+
+    /**
+     * @return a version of a library, defining a class that is not on the test class path
+     */
+    private static JavaArchive createLibrary(String version) {
+        ClassWriter writer = new ClassWriter(0);
+        writer.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC, "org/example/library/Library", null, "java/lang/Object", null);
+        writer.visitEnd();
+        return ShrinkWrap.create(JavaArchive.class, "library-" + version + ".jar")
+            .add(new ByteArrayAsset(writer.toByteArray()), "org/example/library/Library.class")
+            .addAsResource(new StringAsset(version), MyResourceServlet.RESOURCE);
+    }
+}
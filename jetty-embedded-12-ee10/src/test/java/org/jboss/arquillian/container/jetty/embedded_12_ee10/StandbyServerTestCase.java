@@ -0,0 +1,57 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat Middleware LLC, and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.arquillian.container.jetty.embedded_12_ee10;
+
+import java.net.URL;
+
+import org.eclipse.jetty.client.HttpClient;
+import org.hamcrest.Matchers;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.TargetsContainer;
+import org.jboss.arquillian.junit5.ArquillianExtension;
+import org.jboss.arquillian.test.api.ArquillianResource;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Deploys to a container preparing a standby server in the background.
+ */
+@ExtendWith(ArquillianExtension.class)
+public class StandbyServerTestCase {
+
+    @Deployment(testable = false) @TargetsContainer("standby")
+    public static WebArchive getTestArchive() {
+        return JettyEmbeddedClientTestCase.createServletArchive("standby.war");
+    }
+
+    @ArquillianResource URL url;
+
+    @Test
+    public void shouldInvokeServletWhileStandbyServerIsPrepared() throws Exception {
+        HttpClient httpClient = new HttpClient();
+        httpClient.start();
+        try {
+            String body = httpClient.GET(new URL(url, MyServlet.URL_PATTERN).toURI()).getContentAsString();
+            assertThat(body, Matchers.is(MyServlet.MESSAGE));
+        } finally {
+            httpClient.stop();
+        }
+    }
+}
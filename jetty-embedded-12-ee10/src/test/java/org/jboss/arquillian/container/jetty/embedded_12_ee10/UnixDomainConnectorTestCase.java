@@ -0,0 +1,66 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat Middleware LLC, and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.arquillian.container.jetty.embedded_12_ee10;
+
+import java.net.URL;
+import java.net.UnixDomainSocketAddress;
+
+import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.jetty.client.transport.HttpClientTransportOverHTTP;
+import org.eclipse.jetty.io.ClientConnector;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.TargetsContainer;
+import org.jboss.arquillian.junit5.ArquillianExtension;
+import org.jboss.arquillian.test.api.ArquillianResource;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Deploys to a container also listening on a Unix-domain socket.
+ */
+@ExtendWith(ArquillianExtension.class)
+public class UnixDomainConnectorTestCase {
+
+    @Deployment(testable = false) @TargetsContainer("unix-domain")
+    public static WebArchive getTestArchive() {
+        return JettyEmbeddedClientTestCase.createServletArchive("unix-domain.war");
+    }
+
+    @ArquillianResource
+    UnixDomainSocketAddress address;
+
+    @ArquillianResource URL url;
+
+    @Test
+    public void shouldServeRequestsOnUnixDomainSocket() throws Exception {
+        assertThat(address.getPath().toString(), endsWith("unix-domain/jetty.sock"));
+
+        HttpClient httpClient = new HttpClient(new HttpClientTransportOverHTTP(ClientConnector.forUnixDomain(address.getPath())));
+        httpClient.start();
+        try {
+            String body = httpClient.GET("http://localhost" + url.getPath() + MyServlet.URL_PATTERN).getContentAsString();
+            assertThat(body, is(MyServlet.MESSAGE));
+        } finally {
+            httpClient.stop();
+        }
+    }
+}
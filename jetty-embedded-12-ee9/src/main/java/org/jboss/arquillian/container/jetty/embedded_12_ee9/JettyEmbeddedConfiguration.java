@@ -18,9 +18,14 @@ package org.jboss.arquillian.container.jetty.embedded_12_ee9;
 
 import java.io.File;
 import java.net.URI;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Locale;
 
 import org.eclipse.jetty.server.HttpConfiguration;
 import org.jboss.arquillian.container.jetty.AbstractJettyEmbeddedConfiguration;
+import org.jboss.arquillian.container.spi.ConfigurationException;
 
 /**
  * A {@link org.jboss.arquillian.container.spi.client.container.ContainerConfiguration} implementation for the Jetty Embedded
@@ -43,6 +48,24 @@ public class JettyEmbeddedConfiguration extends AbstractJettyEmbeddedConfigurati
             SERVLET_SPEC
     }
 
+    public enum VirtualThreadsMode {
+        /** Servlet requests run on the platform threads of the server's thread pool */
+        NONE,
+        /** The server's thread pool hands servlet requests to virtual threads, selectors keep their platform threads */
+        EXECUTOR,
+        /** Every task of the server, selectors included, runs on a virtual thread */
+        POOL
+    }
+
+    public enum CdiMode {
+        /** Deployments get the CDI integration unless they certainly have no beans */
+        AUTO,
+        /** Every deployment gets the CDI integration */
+        ENABLED,
+        /** No deployment gets the CDI integration */
+        DISABLED
+    }
+
     /**
      * Classloader Search Order behavior.
      * <p>
@@ -78,6 +101,121 @@ public class JettyEmbeddedConfiguration extends AbstractJettyEmbeddedConfigurati
      */
     private File tempDirectory;
 
+    /**
+     * Run servlet requests on virtual threads, requires Java 21 or later.
+     * <p>
+     * Default: {@link VirtualThreadsMode#NONE}
+     */
+    private VirtualThreadsMode virtualThreads = VirtualThreadsMode.NONE;
+
+    /**
+     * Add Jetty's CDI integration and Weld's {@code EnhancedListener} to deployments. Automatically, they are left out
+     * only of deployments with neither a {@code beans.xml} nor a CDI extension, and no class referring to CDI or
+     * {@code jakarta.inject}.
+     * <p>
+     * Default: {@link CdiMode#AUTO}
+     */
+    private CdiMode cdi = CdiMode.AUTO;
+
+    /**
+     * Let Weld deploy the beans of a deployment on its executor threads, {@code null} for Weld's default, which is to
+     * deploy concurrently.
+     */
+    private Boolean weldConcurrentDeployment;
+
+    /**
+     * Number of threads Weld preloads bean classes with, 0 for Weld's default of one less than the available processors.
+     */
+    private int weldPreloaderThreadPoolSize;
+
+    /**
+     * Number of threads of Weld's executor, which runs concurrent deployment, 0 for Weld's default of the available
+     * processors.
+     */
+    private int weldExecutorThreadPoolSize;
+
+    /**
+     * Let Weld discover beans from Jandex indexes, as it does by default if Jandex is on the class path.
+     */
+    private boolean weldJandexDiscovery = true;
+
+    /**
+     * Use direct rather than heap buffers for request and response content.
+     * <p>
+     * Default: true
+     */
+    private boolean directBuffers = true;
+
+    /**
+     * Capacity of the smallest bucket of the {@link org.eclipse.jetty.io.ArrayByteBufferPool}, 0 for Jetty's default.
+     */
+    private int byteBufferPoolMinCapacity;
+
+    /**
+     * Capacity step between the buckets of the buffer pool, 0 for Jetty's default.
+     */
+    private int byteBufferPoolFactor;
+
+    /**
+     * Capacity of the largest bucket of the buffer pool, larger buffers are not pooled, 0 for Jetty's default.
+     */
+    private int byteBufferPoolMaxCapacity;
+
+    /**
+     * Maximum number of buffers in each bucket of the buffer pool, 0 for no limit.
+     */
+    private int byteBufferPoolMaxBucketSize;
+
+    /**
+     * Maximum heap memory, in bytes, retained by the buffer pool, 0 to derive it from the heap size, -1 for no limit.
+     */
+    private long byteBufferPoolMaxHeapMemory;
+
+    /**
+     * Maximum direct memory, in bytes, retained by the buffer pool, 0 to derive it from the heap size, -1 for no limit.
+     */
+    private long byteBufferPoolMaxDirectMemory;
+
+    /**
+     * Keep acquire, hit and miss counts for every bucket of the buffer pool.
+     */
+    private boolean byteBufferPoolStatistics;
+
+    /**
+     * Socket file of an additional connector listening on a Unix-domain socket, so local clients can bypass TCP.
+     * Requires {@code org.eclipse.jetty:jetty-unixdomain-server} on the class path.
+     */
+    private String unixDomainPath;
+
+    @Override
+    public void validate() throws ConfigurationException {
+        super.validate();
+        if (this.weldPreloaderThreadPoolSize < 0 || this.weldExecutorThreadPoolSize < 0) {
+            throw new ConfigurationException("weldPreloaderThreadPoolSize and weldExecutorThreadPoolSize must not be negative");
+        }
+        if (this.byteBufferPoolMinCapacity < 0 || this.byteBufferPoolFactor < 0 || this.byteBufferPoolMaxBucketSize < 0) {
+            throw new ConfigurationException(
+                "byteBufferPoolMinCapacity, byteBufferPoolFactor and byteBufferPoolMaxBucketSize must not be negative");
+        }
+        if (this.byteBufferPoolMaxCapacity != 0 && this.byteBufferPoolMaxCapacity < this.byteBufferPoolMinCapacity) {
+            throw new ConfigurationException(String.format(
+                "byteBufferPoolMaxCapacity must be at least byteBufferPoolMinCapacity %d but %d has been found.",
+                this.byteBufferPoolMinCapacity, this.byteBufferPoolMaxCapacity));
+        }
+        if (this.byteBufferPoolFactor > 0 && this.byteBufferPoolMaxCapacity > 0
+            && this.byteBufferPoolMaxCapacity % this.byteBufferPoolFactor != 0) {
+            throw new ConfigurationException(String.format(
+                "byteBufferPoolFactor %d must be a divisor of byteBufferPoolMaxCapacity %d.",
+                this.byteBufferPoolFactor, this.byteBufferPoolMaxCapacity));
+        }
+        if (getUnixDomainPath() != null && isStandbyServer()) {
+            throw new ConfigurationException("unixDomainPath can not be combined with standbyServer, the socket file of a server can not be shared");
+        }
+        if (this.byteBufferPoolMaxHeapMemory < -1 || this.byteBufferPoolMaxDirectMemory < -1) {
+            throw new ConfigurationException("byteBufferPoolMaxHeapMemory and byteBufferPoolMaxDirectMemory must be -1 or not negative");
+        }
+    }
+
     public ClassLoaderBehavior getClassloaderBehavior() {
         return classloaderBehavior;
     }
@@ -98,6 +236,67 @@ public class JettyEmbeddedConfiguration extends AbstractJettyEmbeddedConfigurati
         return tempDirectory;
     }
 
+    public Path getUnixDomainPath() {
+        return unixDomainPath == null || unixDomainPath.trim().isEmpty() ? null
+            : Paths.get(unixDomainPath.trim()).toAbsolutePath();
+    }
+
+    public VirtualThreadsMode getVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public CdiMode getCdi() {
+        return cdi;
+    }
+
+    public Boolean getWeldConcurrentDeployment() {
+        return weldConcurrentDeployment;
+    }
+
+    public int getWeldPreloaderThreadPoolSize() {
+        return weldPreloaderThreadPoolSize;
+    }
+
+    public int getWeldExecutorThreadPoolSize() {
+        return weldExecutorThreadPoolSize;
+    }
+
+    public boolean isWeldJandexDiscovery() {
+        return weldJandexDiscovery;
+    }
+
+    public int getByteBufferPoolFactor() {
+        return byteBufferPoolFactor;
+    }
+
+    public int getByteBufferPoolMaxBucketSize() {
+        return byteBufferPoolMaxBucketSize;
+    }
+
+    public int getByteBufferPoolMaxCapacity() {
+        return byteBufferPoolMaxCapacity;
+    }
+
+    public long getByteBufferPoolMaxDirectMemory() {
+        return byteBufferPoolMaxDirectMemory;
+    }
+
+    public long getByteBufferPoolMaxHeapMemory() {
+        return byteBufferPoolMaxHeapMemory;
+    }
+
+    public int getByteBufferPoolMinCapacity() {
+        return byteBufferPoolMinCapacity;
+    }
+
+    public boolean isByteBufferPoolStatistics() {
+        return byteBufferPoolStatistics;
+    }
+
+    public boolean isDirectBuffers() {
+        return directBuffers;
+    }
+
     public boolean hasDefaultsDescriptor() {
         return (defaultsDescriptor != null);
     }
@@ -129,4 +328,75 @@ public class JettyEmbeddedConfiguration extends AbstractJettyEmbeddedConfigurati
     public void setTempDirectory(File tempDirectory) {
         this.tempDirectory = tempDirectory;
     }
+
+    public void setByteBufferPoolFactor(int byteBufferPoolFactor) {
+        this.byteBufferPoolFactor = byteBufferPoolFactor;
+    }
+
+    public void setByteBufferPoolMaxBucketSize(int byteBufferPoolMaxBucketSize) {
+        this.byteBufferPoolMaxBucketSize = byteBufferPoolMaxBucketSize;
+    }
+
+    public void setByteBufferPoolMaxCapacity(int byteBufferPoolMaxCapacity) {
+        this.byteBufferPoolMaxCapacity = byteBufferPoolMaxCapacity;
+    }
+
+    public void setByteBufferPoolMaxDirectMemory(long byteBufferPoolMaxDirectMemory) {
+        this.byteBufferPoolMaxDirectMemory = byteBufferPoolMaxDirectMemory;
+    }
+
+    public void setByteBufferPoolMaxHeapMemory(long byteBufferPoolMaxHeapMemory) {
+        this.byteBufferPoolMaxHeapMemory = byteBufferPoolMaxHeapMemory;
+    }
+
+    public void setByteBufferPoolMinCapacity(int byteBufferPoolMinCapacity) {
+        this.byteBufferPoolMinCapacity = byteBufferPoolMinCapacity;
+    }
+
+    public void setByteBufferPoolStatistics(boolean byteBufferPoolStatistics) {
+        this.byteBufferPoolStatistics = byteBufferPoolStatistics;
+    }
+
+    public void setDirectBuffers(boolean directBuffers) {
+        this.directBuffers = directBuffers;
+    }
+
+    public void setUnixDomainPath(String unixDomainPath) {
+        this.unixDomainPath = unixDomainPath;
+    }
+
+    public void setVirtualThreads(String virtualThreads) {
+        try {
+            this.virtualThreads = VirtualThreadsMode.valueOf(virtualThreads.trim().toUpperCase(Locale.ENGLISH));
+        } catch (IllegalArgumentException e) {
+            throw new ConfigurationException(String.format(
+                "virtualThreads should be one of %s but %s has been found.",
+                Arrays.toString(VirtualThreadsMode.values()), virtualThreads));
+        }
+    }
+
+    public void setCdi(String cdi) {
+        try {
+            this.cdi = CdiMode.valueOf(cdi.trim().toUpperCase(Locale.ENGLISH));
+        } catch (IllegalArgumentException e) {
+            throw new ConfigurationException(String.format(
+                "cdi should be one of %s but %s has been found.", Arrays.toString(CdiMode.values()), cdi));
+        }
+    }
+
+    public void setWeldConcurrentDeployment(Boolean weldConcurrentDeployment) {
+        this.weldConcurrentDeployment = weldConcurrentDeployment;
+    }
+
+    public void setWeldPreloaderThreadPoolSize(int weldPreloaderThreadPoolSize) {
+        this.weldPreloaderThreadPoolSize = weldPreloaderThreadPoolSize;
+    }
+
+    public void setWeldExecutorThreadPoolSize(int weldExecutorThreadPoolSize) {
+        this.weldExecutorThreadPoolSize = weldExecutorThreadPoolSize;
+    }
+
+    public void setWeldJandexDiscovery(boolean weldJandexDiscovery) {
+        this.weldJandexDiscovery = weldJandexDiscovery;
+    }
 }
@@ -0,0 +1,45 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat Middleware LLC, and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.arquillian.container.jetty.embedded_12_ee9;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import jakarta.servlet.ServletContainerInitializer;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletException;
+import org.jboss.weld.environment.servlet.EnhancedListener;
+
+/**
+ * Starts Weld through its {@link EnhancedListener}, which bootstraps the container while the servlet container
+ * initializers run, and logs how long the bootstrap took.
+ */
+public class TimedEnhancedListener implements ServletContainerInitializer {
+
+    private static final Logger log = Logger.getLogger(TimedEnhancedListener.class.getName());
+
+    private final EnhancedListener delegate = new EnhancedListener();
+
+    @Override
+    public void onStartup(Set<Class<?>> classes, ServletContext context) throws ServletException {
+        final long start = System.nanoTime();
+        delegate.onStartup(classes, context);
+        log.info("Weld bootstrap of " + context.getContextPath() + " took "
+            + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+    }
+}
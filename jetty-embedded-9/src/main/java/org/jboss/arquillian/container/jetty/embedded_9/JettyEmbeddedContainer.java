@@ -37,31 +37,44 @@ import org.eclipse.jetty.plus.webapp.PlusConfiguration;
 import org.eclipse.jetty.security.HashLoginService;
 import org.eclipse.jetty.server.ConnectionFactory;
 import org.eclipse.jetty.server.Connector;
+import org.eclipse.jetty.server.Handler;
 import org.eclipse.jetty.server.HttpConfiguration;
 import org.eclipse.jetty.server.HttpConnectionFactory;
+import org.eclipse.jetty.server.LocalConnector;
 import org.eclipse.jetty.server.Server;
 import org.eclipse.jetty.server.ServerConnector;
 import org.eclipse.jetty.server.handler.ContextHandler;
 import org.eclipse.jetty.server.handler.ContextHandlerCollection;
 import org.eclipse.jetty.server.handler.DefaultHandler;
+import org.eclipse.jetty.server.handler.gzip.GzipHandler;
 import org.eclipse.jetty.server.handler.HandlerList;
 import org.eclipse.jetty.servlet.ServletHandler;
 import org.eclipse.jetty.servlet.ServletHolder;
 import org.eclipse.jetty.util.TypeUtil;
 import org.eclipse.jetty.util.log.JavaUtilLog;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.eclipse.jetty.util.thread.ThreadPool;
 import org.eclipse.jetty.webapp.Configuration.ClassList;
 import org.eclipse.jetty.webapp.FragmentConfiguration;
 import org.eclipse.jetty.webapp.JettyWebXmlConfiguration;
 import org.eclipse.jetty.webapp.WebAppContext;
+import org.eclipse.jetty.webapp.WebInfConfiguration;
+import org.jboss.arquillian.container.jetty.ConcurrentDeployments;
 import org.jboss.arquillian.container.jetty.EnvUtil;
+import org.jboss.arquillian.container.jetty.LocalHttpClient;
+import org.jboss.arquillian.container.jetty.ServerRegistry;
+import org.jboss.arquillian.container.jetty.StandbyServers;
+import org.jboss.arquillian.container.spi.ContainerRegistry;
 import org.jboss.arquillian.container.spi.client.container.DeployableContainer;
 import org.jboss.arquillian.container.spi.client.container.DeploymentException;
 import org.jboss.arquillian.container.spi.client.container.LifecycleException;
+import org.jboss.arquillian.container.spi.client.deployment.DeploymentScenario;
 import org.jboss.arquillian.container.spi.client.protocol.ProtocolDescription;
 import org.jboss.arquillian.container.spi.client.protocol.metadata.HTTPContext;
 import org.jboss.arquillian.container.spi.client.protocol.metadata.ProtocolMetaData;
 import org.jboss.arquillian.container.spi.client.protocol.metadata.Servlet;
 import org.jboss.arquillian.container.spi.context.annotation.DeploymentScoped;
+import org.jboss.arquillian.core.api.Instance;
 import org.jboss.arquillian.core.api.InstanceProducer;
 import org.jboss.arquillian.core.api.annotation.ApplicationScoped;
 import org.jboss.arquillian.core.api.annotation.Inject;
@@ -102,8 +115,12 @@ public class JettyEmbeddedContainer implements DeployableContainer<JettyEmbedded
     private Server server;
     private String listeningHost;
     private int listeningPort;
+    private LocalConnector localConnector;
+    private String serverKey;
+    private String standbyKey;
     private DeploymentManager deployer;
     private ArquillianAppProvider appProvider;
+    private ConcurrentDeployments<App> concurrentDeployments;
 
     private JettyEmbeddedConfiguration containerConfig;
 
@@ -115,6 +132,16 @@ public class JettyEmbeddedContainer implements DeployableContainer<JettyEmbedded
     @ApplicationScoped
     private InstanceProducer<ServletContext> servletContextInstanceProducer;
 
+    @Inject
+    @DeploymentScoped
+    private InstanceProducer<LocalHttpClient> localHttpClientProducer;
+
+    @Inject
+    private Instance<DeploymentScenario> deploymentScenario;
+
+    @Inject
+    private Instance<ContainerRegistry> containerRegistry;
+
     /*
      * (non-Javadoc)
      * 
@@ -143,98 +170,215 @@ public class JettyEmbeddedContainer implements DeployableContainer<JettyEmbedded
         EnvUtil.assertMinimumJettyVersion(Server.getVersion(), "9.4");
 
         try {
-            server = new Server();
+            final RunningServer running;
+            if (containerConfig.isReuseServer()) {
+                serverKey = getServerKey();
+                running = ServerRegistry.acquire(serverKey, RunningServer.class, this::startServer);
+            } else if (containerConfig.isStandbyServer()) {
+                standbyKey = getServerKey();
+                final RunningServer standby = StandbyServers.take(standbyKey, RunningServer.class);
+                running = standby != null ? standby : startServer();
+                // Started and warmed up while this container runs, for the next start to take over
+                StandbyServers.prepare(standbyKey, () -> warmUp(startServer()),
+                    standbyServer -> standbyServer.server.stop());
+            } else {
+                running = startServer();
+            }
+            server = running.server;
+            deployer = running.deployer;
+            listeningHost = running.listeningHost;
+            listeningPort = running.listeningPort;
+            localConnector = running.localConnector;
 
-            // Use default configuration classes at the server level
-            ClassList serverConf = ClassList.setServerDefault(server);
+            appProvider = new ArquillianAppProvider(containerConfig);
+            appProvider.setDeploymentManager(deployer);
+            concurrentDeployments = new ConcurrentDeployments<>(containerConfig.getDeploymentConcurrency(),
+                this::startApp, this::stopApp);
+        } catch (Exception e) {
+            throw new LifecycleException("Could not start container", e);
+        }
+    }
 
-            String configuredConfigurationClasses = containerConfig.getConfigurationClasses();
-            if (configuredConfigurationClasses != null && configuredConfigurationClasses.trim().length() > 0) {
-                // User provided classlist, use it as-is.
-                serverConf.clear();
-                Collections.addAll(serverConf, configuredConfigurationClasses.split(","));
-            } else {
-                // Arquillian assumption is that all features of Servlet 3.1 are available.
-                // This means that annotation scanning is enabled by default.
-                // That means jetty-plus is mandatory.
-
-                // Applying equivalent of etc/jetty-annotations.xml
-                serverConf.addBefore(JettyWebXmlConfiguration.class.getName(),
-                    AnnotationConfiguration.class.getName());
-
-                // Applying equivalent of etc/jetty-plus.xml
-                serverConf.addAfter(FragmentConfiguration.class.getName()
-                    , EnvConfiguration.class.getName(),
-                    PlusConfiguration.class.getName());
+    private RunningServer startServer() throws Exception {
+        final Server server = new Server(createThreadPool());
+        if (containerConfig.isReuseServer() || containerConfig.isStandbyServer()) {
+            // Reused and standby servers outlive the container, they must neither keep the JVM alive nor outlive it
+            if (server.getThreadPool() instanceof QueuedThreadPool) {
+                ((QueuedThreadPool) server.getThreadPool()).setDaemon(true);
             }
+            server.setStopAtShutdown(true);
+        }
 
-            // Setup HTTP Configuration
-            HttpConfiguration httpConfig = containerConfig.getHttpConfiguration();
-            if (httpConfig == null) {
-                httpConfig = new HttpConfiguration();
-                if (this.containerConfig.isHeaderBufferSizeSet()) {
-                    httpConfig.setRequestHeaderSize(containerConfig.getHeaderBufferSize());
-                    httpConfig.setResponseHeaderSize(containerConfig.getHeaderBufferSize());
-                }
-                if(this.containerConfig.getRequestCookieCompliance()!=null) {
-                    httpConfig.setRequestCookieCompliance(CookieCompliance.valueOf(containerConfig.getRequestCookieCompliance()));
-                }
-                if(this.containerConfig.getResponseCookieCompliance()!=null) {
-                    httpConfig.setResponseCookieCompliance(CookieCompliance.valueOf(containerConfig.getResponseCookieCompliance()));
-                }
-                if(containerConfig.getHttpConfigurationProperties()!=null){
-                    for(Map.Entry<String, String> propertyEntry:containerConfig.getHttpConfigurationProperties().entrySet()){
-                        Method setter = ReflectionUtils.getSetter(propertyEntry.getKey(), httpConfig.getClass());
-                        Class<?> setterClass = ReflectionUtils.getSetterType(setter);
-                        Object value = TypeUtil.valueOf(setterClass, propertyEntry.getValue());
-                        try {
-                            setter.invoke(httpConfig, value);
-                        } catch (IllegalAccessException | InvocationTargetException e) {
-                            log.log(Level.WARNING, "Ignore error setting field with name " + propertyEntry.getKey() + " with value " + propertyEntry.getValue(), e);
-                        }
+        // Use default configuration classes at the server level
+        ClassList serverConf = ClassList.setServerDefault(server);
+
+        String configuredConfigurationClasses = containerConfig.getConfigurationClasses();
+        if (configuredConfigurationClasses != null && configuredConfigurationClasses.trim().length() > 0) {
+            // User provided classlist, use it as-is.
+            serverConf.clear();
+            Collections.addAll(serverConf, configuredConfigurationClasses.split(","));
+        } else {
+            // Arquillian assumption is that all features of Servlet 3.1 are available.
+            // This means that annotation scanning is enabled by default.
+            // That means jetty-plus is mandatory.
+
+            // Applying equivalent of etc/jetty-annotations.xml
+            serverConf.addBefore(JettyWebXmlConfiguration.class.getName(),
+                AnnotationConfiguration.class.getName());
+
+            // Applying equivalent of etc/jetty-plus.xml
+            serverConf.addAfter(FragmentConfiguration.class.getName()
+                , EnvConfiguration.class.getName(),
+                PlusConfiguration.class.getName());
+
+            // Logs the jars skipped by the WebInfIncludeJarPattern
+            serverConf.replace(WebInfConfiguration.class.getName(), JarScanWebInfConfiguration.class.getName());
+        }
+
+        // Setup HTTP Configuration
+        HttpConfiguration httpConfig = containerConfig.getHttpConfiguration();
+        if (httpConfig == null) {
+            httpConfig = new HttpConfiguration();
+            if (this.containerConfig.isHeaderBufferSizeSet()) {
+                httpConfig.setRequestHeaderSize(containerConfig.getHeaderBufferSize());
+                httpConfig.setResponseHeaderSize(containerConfig.getHeaderBufferSize());
+            }
+            if(this.containerConfig.getRequestCookieCompliance()!=null) {
+                httpConfig.setRequestCookieCompliance(CookieCompliance.valueOf(containerConfig.getRequestCookieCompliance()));
+            }
+            if(this.containerConfig.getResponseCookieCompliance()!=null) {
+                httpConfig.setResponseCookieCompliance(CookieCompliance.valueOf(containerConfig.getResponseCookieCompliance()));
+            }
+            if(containerConfig.getHttpConfigurationProperties()!=null){
+                for(Map.Entry<String, String> propertyEntry:containerConfig.getHttpConfigurationProperties().entrySet()){
+                    Method setter = ReflectionUtils.getSetter(propertyEntry.getKey(), httpConfig.getClass());
+                    Class<?> setterClass = ReflectionUtils.getSetterType(setter);
+                    Object value = TypeUtil.valueOf(setterClass, propertyEntry.getValue());
+                    try {
+                        setter.invoke(httpConfig, value);
+                    } catch (IllegalAccessException | InvocationTargetException e) {
+                        log.log(Level.WARNING, "Ignore error setting field with name " + propertyEntry.getKey() + " with value " + propertyEntry.getValue(), e);
                     }
                 }
             }
+        }
 
-            ConnectionFactory connectionFactory = new HttpConnectionFactory(httpConfig);
-            // Setup Connector
-            ServerConnector connector = new ServerConnector(server, connectionFactory);
+        ConnectionFactory connectionFactory = new HttpConnectionFactory(httpConfig);
+        // Setup Connector
+        ServerConnector connector = new ServerConnector(server, containerConfig.getAcceptors(), containerConfig.getSelectors(),
+                connectionFactory);
+
+        connector.setHost(containerConfig.getBindAddress());
+        connector.setPort(containerConfig.getBindHttpPort());
+        connector.setIdleTimeout(containerConfig.getIdleTimeoutMillis());
+        connector.setAcceptQueueSize(containerConfig.getAcceptQueueSize());
+        connector.setReuseAddress(containerConfig.isReuseAddress());
+        connector.setAcceptedTcpNoDelay(containerConfig.isAcceptedTcpNoDelay());
+        server.setConnectors(new Connector[] {connector});
+        LocalConnector localConnector = null;
+        if (containerConfig.isLocalConnectorEnabled()) {
+            localConnector = new LocalConnector(server, new HttpConnectionFactory(httpConfig));
+            server.addConnector(localConnector);
+        }
 
-            connector.setHost(containerConfig.getBindAddress());
-            connector.setPort(containerConfig.getBindHttpPort());
-            connector.setIdleTimeout(containerConfig.getIdleTimeoutMillis());
-            server.setConnectors(new Connector[] {connector});
+        ContextHandlerCollection contexts = new ContextHandlerCollection();
 
-            ContextHandlerCollection contexts = new ContextHandlerCollection();
+        // Deployment Management
+        final DeploymentManager deployer = new DeploymentManager();
+        deployer.setContexts(contexts);
+        server.addBean(deployer);
 
-            // Deployment Management
-            deployer = new DeploymentManager();
-            deployer.setContexts(contexts);
-            appProvider = new ArquillianAppProvider(containerConfig);
-            deployer.addAppProvider(appProvider);
-            server.addBean(deployer);
+        server.setHandler(new HandlerList(wrapCompression(contexts), new DefaultHandler()));
 
-            server.setHandler(new HandlerList(contexts, new DefaultHandler()));
+        if (containerConfig.isRealmPropertiesFileSet()) {
+            String realmName = getRealmName();
+            HashLoginService hashUserRealm =
+                new HashLoginService(realmName, containerConfig.getRealmProperties().getAbsolutePath());
+            server.addBean(hashUserRealm);
+        }
 
-            if (containerConfig.isRealmPropertiesFileSet()) {
-                String realmName = getRealmName();
-                HashLoginService hashUserRealm =
-                    new HashLoginService(realmName, containerConfig.getRealmProperties().getAbsolutePath());
-                server.addBean(hashUserRealm);
-            }
+        server.setDumpAfterStart(containerConfig.isDumpServerAfterStart());
+        log.info("Starting Jetty Embedded Server " + Server.getVersion() + " [id:" + server.hashCode() + "]");
+        server.start();
+        logSizing(server, connector);
 
-            server.setDumpAfterStart(containerConfig.isDumpServerAfterStart());
-            log.info("Starting Jetty Embedded Server " + Server.getVersion() + " [id:" + server.hashCode() + "]");
-            server.start();
+        String listeningHost = connector.getHost();
+        if (listeningHost == null) {
+            listeningHost = containerConfig.getBindAddress();
+        }
 
-            listeningHost = connector.getHost();
-            if (listeningHost == null) {
-                listeningHost = containerConfig.getBindAddress();
-            }
-            listeningPort = connector.getLocalPort();
-        } catch (Exception e) {
-            throw new LifecycleException("Could not start container", e);
+        return new RunningServer(server, deployer, listeningHost, connector.getLocalPort(), localConnector);
+    }
+
+    /**
+     * Wraps the contexts in a {@link GzipHandler} if responses are to be compressed.
+     */
+    private Handler wrapCompression(Handler contexts) {
+        if (!containerConfig.isCompressionEnabled()) {
+            return contexts;
+        }
+        final GzipHandler gzipHandler = new GzipHandler();
+        if (containerConfig.getCompressionMinSize() > 0) {
+            gzipHandler.setMinGzipSize(containerConfig.getCompressionMinSize());
         }
+        if (containerConfig.getCompressionMimeTypes() != null) {
+            gzipHandler.setIncludedMimeTypes(containerConfig.getCompressionMimeTypes());
+        }
+        if (containerConfig.getCompressionDeflaterPoolCapacity() > 0) {
+            gzipHandler.setDeflaterPoolCapacity(containerConfig.getCompressionDeflaterPoolCapacity());
+        }
+        gzipHandler.setCompressionLevel(containerConfig.getCompressionLevel());
+        gzipHandler.setHandler(contexts);
+        return gzipHandler;
+    }
+
+    /**
+     * Logs the effective sizing of the thread pool and the connector of a started server.
+     */
+    private static void logSizing(Server server, ServerConnector connector) {
+        final String threads;
+        if (server.getThreadPool() instanceof QueuedThreadPool) {
+            final QueuedThreadPool threadPool = (QueuedThreadPool) server.getThreadPool();
+            threads = "minThreads=" + threadPool.getMinThreads() + ", maxThreads=" + threadPool.getMaxThreads()
+                + ", reservedThreads=" + threadPool.getMaxReservedThreads();
+        } else {
+            threads = "threadPool=" + server.getThreadPool().getClass().getSimpleName();
+        }
+        log.info("Jetty Embedded Server [id:" + server.hashCode() + "] sized with " + threads + ", acceptors="
+            + connector.getAcceptors() + ", selectors=" + connector.getSelectorManager().getSelectorCount()
+            + ", acceptQueueSize=" + connector.getAcceptQueueSize() + ", reuseAddress=" + connector.getReuseAddress()
+            + ", acceptedTcpNoDelay=" + connector.getAcceptedTcpNoDelay());
+    }
+
+    private String getServerKey() {
+        return ServerRegistry.key(containerConfig, getClass().getName(), containerConfig.getIdleTimeoutMillis(),
+            containerConfig.getHttpConfiguration());
+    }
+
+    /**
+     * Creates the thread pool of the server, sized as configured.
+     */
+    private ThreadPool createThreadPool() {
+        final QueuedThreadPool threadPool = new QueuedThreadPool(containerConfig.getMaxThreads(),
+            containerConfig.getMinThreads());
+        threadPool.setReservedThreads(containerConfig.getReservedThreads());
+        return threadPool;
+    }
+
+    /**
+     * Takes a standby server through the deployment and undeployment of a minimal archive, so the first deployment of
+     * the container taking it over does not pay for loading and compiling the deployment code.
+     */
+    private RunningServer warmUp(RunningServer running) throws Exception {
+        ArquillianAppProvider warmUpProvider = new ArquillianAppProvider(containerConfig);
+        Archive<?> archive = StandbyServers.createWarmUpArchive();
+        warmUpProvider.setDeploymentManager(running.deployer);
+        App app = warmUpProvider.createApp(archive);
+        running.deployer.addApp(app);
+        running.deployer.requestAppGoal(app, AppLifeCycle.STARTED);
+        running.deployer.removeApp(app);
+        warmUpProvider.release(archive);
+        return running;
     }
 
     private String getRealmName() {
@@ -248,6 +392,23 @@ public class JettyEmbeddedContainer implements DeployableContainer<JettyEmbedded
     }
 
     public void stop() throws LifecycleException {
+        if (concurrentDeployments != null) {
+            concurrentDeployments.close();
+        }
+        if (standbyKey != null) {
+            // Stopped unless the next container start takes it over in time
+            StandbyServers.expire(standbyKey, containerConfig.getStandbyServerTimeoutMillis());
+            standbyKey = null;
+        }
+        if (serverKey != null) {
+            final RunningServer last = ServerRegistry.release(serverKey, RunningServer.class);
+            serverKey = null;
+            if (last == null) {
+                log.info("Keeping Jetty Embedded Server running for the other containers using it [id:" + server.hashCode()
+                    + "]");
+                return;
+            }
+        }
         try {
             log.info("Stopping Jetty Embedded Server [id:" + server.hashCode() + "]");
             server.stop();
@@ -276,20 +437,16 @@ public class JettyEmbeddedContainer implements DeployableContainer<JettyEmbedded
 
     public ProtocolMetaData deploy(final Archive<?> archive) throws DeploymentException {
         try {
-            App app = appProvider.createApp(archive);
-            deployer.removeApp(app);
+            concurrentDeployments.prefetch(
+                ConcurrentDeployments.pendingArchives(deploymentScenario.get(), containerRegistry.get(), this));
+            App app = concurrentDeployments.take(archive);
             WebAppContext webAppContext = getWebAppContext(app);
 
-            if (containerConfig.areMimeTypesSet()) {
-                MimeTypes mimeTypes = getMimeTypes();
-                webAppContext.setMimeTypes(mimeTypes);
-            }
-
-            deployer.addApp(app);
-            deployer.requestAppGoal(app, AppLifeCycle.STARTED);
-
             webAppContextProducer.set(app);
             servletContextInstanceProducer.set(webAppContext.getServletContext());
+            if (localConnector != null) {
+                localHttpClientProducer.set(new LocalHttpClient(localConnector::getResponse, webAppContext.getContextPath()));
+            }
 
             HTTPContext httpContext = new HTTPContext(listeningHost, listeningPort);
             ServletHandler servletHandler = webAppContext.getServletHandler();
@@ -302,6 +459,57 @@ public class JettyEmbeddedContainer implements DeployableContainer<JettyEmbedded
         }
     }
 
+    /**
+     * Exports, configures and starts the deployment of an archive. Runs on a thread of its own if the deployments of a
+     * test class are started concurrently; the deployment manager adds the context to the shared collection under
+     * Jetty's lock and starts it outside of it.
+     */
+    private App startApp(Archive<?> archive) throws Exception {
+        App app = appProvider.createApp(archive);
+        deployer.removeApp(app);
+        WebAppContext webAppContext = getWebAppContext(app);
+
+        if (containerConfig.areMimeTypesSet()) {
+            MimeTypes mimeTypes = getMimeTypes();
+            webAppContext.setMimeTypes(mimeTypes);
+        }
+
+        claimContextPath(archive, app, webAppContext);
+        try {
+            deployer.addApp(app);
+            deployer.requestAppGoal(app, AppLifeCycle.STARTED);
+        } catch (RuntimeException e) {
+            releaseContextPath(app);
+            throw e;
+        }
+        return app;
+    }
+
+    private void stopApp(Archive<?> archive, App app) {
+        if (app != null) {
+            deployer.requestAppGoal(app, AppLifeCycle.UNDEPLOYED);
+            releaseContextPath(app);
+        }
+        appProvider.release(archive);
+    }
+
+    /**
+     * Keeps the deployment from taking the context path of a deployment of another container sharing the reused server.
+     */
+    private void claimContextPath(Archive<?> archive, App app, WebAppContext webAppContext) throws DeploymentException {
+        if (serverKey != null && !ServerRegistry.claimContextPath(serverKey, webAppContext.getContextPath(), app)) {
+            appProvider.release(archive);
+            throw new DeploymentException("Context path " + webAppContext.getContextPath()
+                + " is deployed already by another container sharing the reused server");
+        }
+    }
+
+    private void releaseContextPath(App app) {
+        if (serverKey != null) {
+            ServerRegistry.releaseContextPath(serverKey, app);
+        }
+    }
+
     private WebAppContext getWebAppContext(App app) throws Exception {
         ContextHandler handler = app.getContextHandler();
         WebAppContext webAppContext;
@@ -324,9 +532,26 @@ public class JettyEmbeddedContainer implements DeployableContainer<JettyEmbedded
     }
 
     public void undeploy(Archive<?> archive) throws DeploymentException {
-        App app = webAppContextProducer.get();
-        if (app != null) {
-            deployer.requestAppGoal(app, AppLifeCycle.UNDEPLOYED);
+        stopApp(archive, webAppContextProducer.get());
+    }
+
+    /**
+     * A started server, kept in the {@link ServerRegistry} if it is reused.
+     */
+    private static final class RunningServer {
+        private final Server server;
+        private final DeploymentManager deployer;
+        private final String listeningHost;
+        private final int listeningPort;
+        private final LocalConnector localConnector;
+
+        private RunningServer(Server server, DeploymentManager deployer, String listeningHost, int listeningPort,
+            LocalConnector localConnector) {
+            this.server = server;
+            this.deployer = deployer;
+            this.listeningHost = listeningHost;
+            this.listeningPort = listeningPort;
+            this.localConnector = localConnector;
         }
     }
 }